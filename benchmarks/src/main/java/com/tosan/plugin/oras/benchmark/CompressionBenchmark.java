@@ -0,0 +1,81 @@
+package com.tosan.plugin.oras.benchmark;
+
+import com.tosan.plugin.oras.util.ArchiveCodec;
+import com.tosan.plugin.oras.util.Compression;
+import com.tosan.plugin.oras.util.StorePolicy;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archiving path of {@code package-push}: tar and compression of a corpus into a discarding stream, so the numbers
+ * show the cost of reading and compressing without the disk writes of the archive.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"SMALL_FILES", "LARGE_FILES", "INCOMPRESSIBLE", "DEEP_TREE"})
+    private Corpus corpus;
+
+    @Param({"gzip", "zstd", "tar"})
+    private String codec;
+
+    /**
+     * Compression threads, see {@code compressionThreads}.
+     */
+    @Param({"1", "4"})
+    private int threads;
+
+    /**
+     * Size of the blocks deflated in parallel by gzip, see {@code compressionBlockSize}.
+     */
+    @Param({"131072", "1048576"})
+    private int blockSize;
+
+    @Param({"false", "true"})
+    private boolean storeIncompressible;
+
+    /**
+     * Size of the pooled read buffer, see {@code compressionReadBufferSize}.
+     */
+    @Param({"65536", "262144"})
+    private int readBufferSize;
+
+    private Path root;
+    private String[] artifacts;
+    private ArchiveCodec archiveCodec;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = corpus.create();
+        artifacts = Corpus.artifacts(root);
+        archiveCodec = ArchiveCodec.forName(codec, ArchiveCodec.DEFAULT_LEVEL, threads, blockSize);
+    }
+
+    @Benchmark
+    public long compress() throws IOException {
+        Compression compression = new Compression(archiveCodec);
+        compression.setReadBufferSize(readBufferSize);
+        if (storeIncompressible) {
+            compression.setStorePolicy(new StorePolicy(StorePolicy.DEFAULT_PATTERNS, true));
+        }
+        compression.compress(root.toString(), NullOutputStream.INSTANCE, artifacts);
+        return compression.getBytesOut();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.delete(root);
+    }
+}
@@ -0,0 +1,175 @@
+package com.tosan.plugin.oras.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic artifact trees of the shapes a build pushes. Contents are generated from a fixed seed, so every run of a
+ * benchmark sees the same bytes.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public enum Corpus {
+    /**
+     * 4000 compressible text files of 1-16 KiB in 40 directories, like exploded web resources.
+     */
+    SMALL_FILES {
+        @Override
+        void generate(Path root, Random random) throws IOException {
+            for (int i = 0; i < 4000; i++) {
+                Path directory = Files.createDirectories(root.resolve("module-" + i % 40).resolve("res"));
+                writeText(directory.resolve("file-" + i + ".txt"), 1024 + random.nextInt(15 * 1024), random);
+            }
+        }
+    },
+
+    /**
+     * Three compressible files of 64 MiB, like fat jars with text resources or dumps.
+     */
+    LARGE_FILES {
+        @Override
+        void generate(Path root, Random random) throws IOException {
+            Path directory = Files.createDirectories(root.resolve("dist"));
+            for (int i = 0; i < 3; i++) {
+                writeText(directory.resolve("large-" + i + ".dat"), 64 * 1024 * 1024, random);
+            }
+        }
+    },
+
+    /**
+     * 256 random files of 512 KiB named like already compressed archives and images.
+     */
+    INCOMPRESSIBLE {
+        @Override
+        void generate(Path root, Random random) throws IOException {
+            String[] extensions = {".jar", ".zip", ".png", ".bin"};
+            Path directory = Files.createDirectories(root.resolve("lib"));
+            byte[] content = new byte[512 * 1024];
+            for (int i = 0; i < 256; i++) {
+                random.nextBytes(content);
+                Files.write(directory.resolve("blob-" + i + extensions[i % extensions.length]), content);
+            }
+        }
+    },
+
+    /**
+     * Binary tree of directories 10 levels deep with two small files in every directory, some of them in
+     * directories matched by the default excludes.
+     */
+    DEEP_TREE {
+        @Override
+        void generate(Path root, Random random) throws IOException {
+            generateLevel(Files.createDirectories(root.resolve("tree")), 10, random);
+        }
+
+        private void generateLevel(Path directory, int depth, Random random) throws IOException {
+            writeText(directory.resolve("a.txt"), 512 + random.nextInt(2048), random);
+            writeText(directory.resolve("b.properties"), 256 + random.nextInt(512), random);
+            if (depth == 0) {
+                return;
+            }
+            generateLevel(Files.createDirectories(directory.resolve("left")), depth - 1, random);
+            generateLevel(Files.createDirectories(directory.resolve(depth % 4 == 0 ? ".git" : "right")), depth - 1,
+                    random);
+        }
+    };
+
+    private static final String[] WORDS = {"artifact", "registry", "manifest", "layer", "digest", "blob", "oras",
+            "maven", "plugin", "compression", "archive", "upload", "{", "}", "=", "\n", "  ", "0", "1", "true"};
+
+    abstract void generate(Path root, Random random) throws IOException;
+
+    /**
+     * Generates the corpus in a new temporary directory.
+     *
+     * @return the directory containing the artifacts
+     */
+    public Path create() throws IOException {
+        Path root = Files.createTempDirectory("oras-benchmark-" + name().toLowerCase());
+        generate(root, new Random(42));
+        return root;
+    }
+
+    /**
+     * @return the top-level entries of the corpus, as the {@code artifacts} of a push relative to {@code root}
+     */
+    public static String[] artifacts(Path root) throws IOException {
+        try (Stream<Path> list = Files.list(root)) {
+            return list.map(path -> path.getFileName().toString()).sorted().toArray(String[]::new);
+        }
+    }
+
+    /**
+     * @return all regular files below {@code root}
+     */
+    public static List<Path> files(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return all files and directories below {@code root} as absolute paths
+     */
+    public static List<String> paths(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.map(path -> path.toAbsolutePath().toString()).collect(Collectors.toList());
+        }
+    }
+
+    public static void delete(Path root) throws IOException {
+        if (root == null) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Writes text of random words, compressible like source code or logs.
+     */
+    private static void writeText(Path file, int size, Random random) throws IOException {
+        List<byte[]> words = new ArrayList<>();
+        for (String word : WORDS) {
+            words.add((word + " ").getBytes(StandardCharsets.UTF_8));
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int written = 0;
+            while (written < size) {
+                int length = 0;
+                while (length < buffer.length - 16 && written + length < size) {
+                    byte[] word = words.get(random.nextInt(words.size()));
+                    int n = Math.min(word.length, size - written - length);
+                    System.arraycopy(word, 0, buffer, length, n);
+                    length += n;
+                }
+                out.write(buffer, 0, length);
+                written += length;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.tosan.plugin.oras.benchmark;
+
+import com.tosan.plugin.oras.registry.Digests;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Digest computation of the pushed files, concurrently like the upload scheduler hashes layers. {@code digests}
+ * measures {@link Digests#sha256(Path)} as used by the plugin, {@code channelDigests} the same hash read through a
+ * file channel with the given buffer size, to compare buffer sizes. {@code bufferSize} does not apply to
+ * {@code digests}.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DigestBenchmark {
+
+    @Param({"SMALL_FILES", "LARGE_FILES", "INCOMPRESSIBLE"})
+    private Corpus corpus;
+
+    /**
+     * Files hashed concurrently.
+     */
+    @Param({"1", "4"})
+    private int threads;
+
+    @Param({"8192", "65536", "1048576"})
+    private int bufferSize;
+
+    private Path root;
+    private List<Path> files;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = corpus.create();
+        files = Corpus.files(root);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @Benchmark
+    public int digests() throws Exception {
+        return hashAll(file -> Digests.sha256(file));
+    }
+
+    @Benchmark
+    public int channelDigests() throws Exception {
+        ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(bufferSize));
+        return hashAll(file -> {
+            MessageDigest digest = Digests.newSha256();
+            ByteBuffer buffer = buffers.get();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (channel.read(buffer) != -1) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+            }
+            return Digests.toDigest(digest.digest());
+        });
+    }
+
+    private int hashAll(Hash hash) throws InterruptedException, ExecutionException {
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (Path file : files) {
+            tasks.add(() -> hash.digest(file));
+        }
+        int hashed = 0;
+        for (Future<String> result : executor.invokeAll(tasks)) {
+            if (result.get() != null) {
+                hashed++;
+            }
+        }
+        return hashed;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        Corpus.delete(root);
+    }
+
+    private interface Hash {
+        String digest(Path file) throws IOException;
+    }
+}
@@ -0,0 +1,87 @@
+package com.tosan.plugin.oras.benchmark;
+
+import com.tosan.plugin.oras.util.ArtifactScanner;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.MatchPatterns;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Artifact scanning of {@code getArtifactsDirectories}: the directory walk with exclusions and, separately, the
+ * matching of the exclusion patterns against every path of the corpus.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBenchmark {
+
+    @Param({"SMALL_FILES", "DEEP_TREE"})
+    private Corpus corpus;
+
+    /**
+     * Scanning threads.
+     */
+    @Param({"1", "4"})
+    private int threads;
+
+    /**
+     * {@code none}, {@code defaults} (the default excludes of the plugin) or {@code many} (defaults and 50 user
+     * patterns).
+     */
+    @Param({"none", "defaults", "many"})
+    private String exclusions;
+
+    private Path root;
+    private List<String> patterns;
+    private List<String> paths;
+    private MatchPatterns matchPatterns;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = corpus.create();
+        patterns = new ArrayList<>();
+        if (!"none".equals(exclusions)) {
+            patterns.addAll(FileUtils.getDefaultExcludesAsList());
+        }
+        if ("many".equals(exclusions)) {
+            for (int i = 0; i < 50; i++) {
+                patterns.add("**/excluded-" + i + "/**");
+            }
+        }
+        paths = Collections.unmodifiableList(Corpus.paths(root));
+        matchPatterns = MatchPatterns.from(patterns);
+    }
+
+    @Benchmark
+    public List<String> scanDirectories() throws IOException {
+        return new ArtifactScanner(patterns, threads).scanDirectories(root);
+    }
+
+    @Benchmark
+    public int matchExclusions() {
+        int excluded = 0;
+        for (String path : paths) {
+            if (matchPatterns.matches(path, false)) {
+                excluded++;
+            }
+        }
+        return excluded;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.delete(root);
+    }
+}
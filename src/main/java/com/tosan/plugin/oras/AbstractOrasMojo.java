@@ -1,41 +1,76 @@
 package com.tosan.plugin.oras;
 
+import com.tosan.plugin.oras.registry.Artifact;
+import com.tosan.plugin.oras.registry.ArtifactPusher;
+import com.tosan.plugin.oras.registry.BandwidthLimiter;
+import com.tosan.plugin.oras.registry.BlobMetrics;
+import com.tosan.plugin.oras.registry.DigestCache;
+import com.tosan.plugin.oras.registry.Layer;
+import com.tosan.plugin.oras.registry.LayerUploadScheduler;
+import com.tosan.plugin.oras.registry.OciReference;
+import com.tosan.plugin.oras.registry.Platform;
+import com.tosan.plugin.oras.registry.RegistryClient;
+import com.tosan.plugin.oras.registry.RetryPolicy;
+import com.tosan.plugin.oras.util.ArchiveCodec;
+import com.tosan.plugin.oras.util.ArtifactScanner;
+import com.tosan.plugin.oras.util.Compression;
+import com.tosan.plugin.oras.util.GzipCodec;
 import com.tosan.plugin.oras.util.OCIRegistry;
+import com.tosan.plugin.oras.util.OrasProcess;
+import com.tosan.plugin.oras.util.PlatformArtifacts;
+import com.tosan.plugin.oras.util.ReplicationPolicy;
+import com.tosan.plugin.oras.util.StorePolicy;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.DefaultLifecycles;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Server;
 import org.apache.maven.settings.Settings;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.MatchPatterns;
 import org.sonatype.plexus.components.sec.dispatcher.DefaultSecDispatcher;
 import org.sonatype.plexus.components.sec.dispatcher.SecDispatcher;
 import org.sonatype.plexus.components.sec.dispatcher.SecDispatcherException;
 
 import java.io.*;
 import java.net.PasswordAuthentication;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * @author Saeed Hashemi
@@ -44,18 +79,113 @@ import java.util.stream.Stream;
 @Getter
 @Setter
 public abstract class AbstractOrasMojo extends AbstractMojo {
-    protected static final String LOGIN_TEMPLATE = "-u %s %s --password-stdin";
-    protected static final String PUSH_TEMPLATE = "%s/%s:%s %s";
+    protected static final String ENGINE_CLI = "cli";
+    protected static final String ENGINE_NATIVE = "native";
+    private static final String ANNOTATION_UNPACK = "io.deis.oras.content.unpack";
 
     private final Clock clock = Clock.systemDefaultZone();
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private RegistrySession session;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final PushReport report = new PushReport();
+
+    /**
+     * Identifies the build, so all modules of a reactor share one {@link RegistrySession}.
+     */
+    @Parameter(defaultValue = "${session.request.startTime}", readonly = true)
+    private Date buildStartTime;
+
+    /**
+     * Only records the artifacts of every module and pushes them all together when the last module running a push
+     * goal in this build is built, see {@link PushingProjects}, like {@code deployAtEnd} of the maven-deploy-plugin. With the {@code native} engine the blobs of all
+     * modules are uploaded by one scheduler and blobs shared by modules are uploaded once.
+     */
+    @Parameter(property = "oras.pushAtEnd", defaultValue = "false")
+    private boolean pushAtEnd;
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession mavenSession;
+
+    @Parameter(defaultValue = "${project}", readonly = true)
+    private MavenProject project;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true)
+    private PluginDescriptor pluginDescriptor;
+
+    @Component
+    private DefaultLifecycles defaultLifecycles;
+
+    /**
+     * Engine used to talk to the registry: {@code cli} forks the oras executable, {@code native} uses the built-in
+     * OCI distribution client and does not need oras to be installed.
+     */
+    @Parameter(property = "oras.engine", defaultValue = ENGINE_CLI)
+    private String engine;
+
+    /**
+     * Directory of the persistent file digest cache used by the {@code native} engine.
+     */
+    @Parameter(property = "oras.cache.directory", defaultValue = "${user.home}/.m2/oras-cache")
+    private String cacheDirectory;
+
+    /**
+     * Whether the {@code native} engine caches file digests in {@code cacheDirectory}.
+     */
+    @Parameter(property = "oras.cache", defaultValue = "true")
+    private boolean useCache;
+
+    /**
+     * Maximum number of blobs uploaded concurrently by the {@code native} engine.
+     */
+    @Parameter(property = "oras.push.parallelism", defaultValue = "4")
+    private int pushParallelism;
+
+    /**
+     * Size in bytes of the chunks sent to the registry by the {@code native} engine. Larger blobs are uploaded in
+     * chunks, so a failed transfer resumes from the last chunk the registry received.
+     */
+    @Parameter(property = "oras.upload.chunkSize", defaultValue = "16777216")
+    private int uploadChunkSize;
+
+    /**
+     * Maximum number of retries of a failed upload request ({@code native} engine).
+     */
+    @Parameter(property = "oras.upload.retries", defaultValue = "5")
+    private int uploadRetries;
+
+    /**
+     * Backoff in milliseconds before the first retry, doubled for every further retry and randomized by up to half.
+     */
+    @Parameter(property = "oras.upload.retryBackoff", defaultValue = "1000")
+    private long uploadRetryBackoff;
+
+    /**
+     * Logs a timing summary of the push (scan, hash, compress, login and every blob upload) and writes it as json
+     * to {@code outputDirectory/push-report.json}.
+     */
+    @Parameter(property = "oras.report", defaultValue = "true")
+    private boolean pushReport;
+
+    /**
+     * Makes the oras executable print json ({@code --format json}, oras 1.2 or later) for push and pull, which is
+     * parsed into the push report.
+     */
+    @Parameter(property = "oras.cli.json", defaultValue = "false")
+    private boolean cliJsonOutput;
+
     @Parameter(property = "oras.executableDirectory")
     private String executableDirectory;
 
     @Parameter(property = "oras.workingDirectory", defaultValue = "${project.build.directory}")
     private String workingDirectory;
 
-    @Parameter(property = "oras.artifacts", required = true)
+    /**
+     * Files and directories to push, relative to {@code workingDirectory}. Required by the push goals.
+     */
+    @Parameter(property = "oras.artifacts")
     private String[] artifacts;
 
     @Parameter(property = "oras.artifactType")
@@ -73,7 +203,11 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
     @Parameter(property = "oras.outputDirectory", defaultValue = "${project.build.directory}/oras")
     private String outputDirectory;
 
-    @Parameter(property = "oras.archiveName", defaultValue = "${project.artifactId}-${project.version}.tgz")
+    /**
+     * Name of the archive built by {@code package-push}. Defaults to
+     * {@code ${project.artifactId}-${project.version}} with the extension of the selected compression.
+     */
+    @Parameter(property = "oras.archiveName")
     private String archiveName;
 
     @Parameter(property = "oras.timestampOnSnapshot")
@@ -82,12 +216,69 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
     @Parameter(property = "oras.timestampFormat", defaultValue = "yyyyMMddHHmmss")
     private String timestampFormat;
 
+    /**
+     * Builds reproducible archives: entries are sorted and timestamps, owners and permissions are normalized.
+     * Implied if {@code project.build.outputTimestamp} is set, whose value is then used as entry timestamp.
+     */
+    @Parameter(property = "oras.reproducible", defaultValue = "false")
+    private boolean reproducible;
+
+    @Parameter(defaultValue = "${project.build.outputTimestamp}")
+    private String outputTimestamp;
+
+    /**
+     * Stores entries that are compressed already (jars, archives, images) without compressing them again, which
+     * saves cpu time on large pushes. Files not matching {@code storePatterns} are probed and stored if their
+     * content looks random. Supported by the {@code gzip} compression.
+     */
+    @Parameter(property = "oras.compression.storeIncompressible", defaultValue = "false")
+    private boolean storeIncompressible;
+
+    /**
+     * File name globs of entries stored without compression when {@code storeIncompressible} is set, defaults to
+     * common compressed formats like {@code *.jar}, {@code *.zip} and {@code *.png}.
+     */
+    @Parameter(property = "oras.compression.storePatterns")
+    private String[] storePatterns;
+
+    /**
+     * Size in bytes of the buffer file contents are read into while archiving; buffers are pooled across archives.
+     */
+    @Parameter(property = "oras.compression.readBufferSize", defaultValue = "262144")
+    private int compressionReadBufferSize;
+
+    /**
+     * Size in bytes of the buffer between the compressor and the archive file or upload.
+     */
+    @Parameter(property = "oras.compression.writeBufferSize", defaultValue = "65536")
+    private int compressionWriteBufferSize;
+
     @Parameter(property = "oci.stable")
     private OCIRegistry stableRepository;
 
     @Parameter(property = "oci.snapshot")
     private OCIRegistry snapshotRepository;
 
+    /**
+     * Further registries the artifacts are pushed to, concurrently with the stable or snapshot repository.
+     */
+    @Parameter
+    private List<OCIRegistry> mirrorRepositories;
+
+    /**
+     * Registries a push with {@code mirrorRepositories} has to succeed to: {@code all}, {@code any} or
+     * {@code quorum} (more than half), counting the stable or snapshot repository.
+     */
+    @Parameter(property = "oras.mirrors.policy", defaultValue = ReplicationPolicy.ALL)
+    private String mirrorPolicy;
+
+    /**
+     * Artifacts per platform. If set, every platform is pushed as its own manifest and the upload reference points
+     * to an image index of them, so consumers only download the platform they need ({@code native} engine).
+     */
+    @Parameter
+    private List<PlatformArtifacts> platforms;
+
     @Parameter(property = "oci.security", defaultValue = "~/.m2/settings-security.xml")
     private String ociSecurity;
 
@@ -112,6 +303,9 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
     @Parameter(defaultValue = "${project.groupId}", readonly = true)
     private String projectGroupId;
 
+    @Parameter(defaultValue = "${project.artifactId}", readonly = true)
+    private String projectArtifactId;
+
     @Parameter(defaultValue = "${project.version}", readonly = true)
     private String projectVersion;
 
@@ -120,7 +314,7 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
         Optional<Path> path;
 
         if (StringUtils.isEmpty(executableDirectory)) {
-            path = findInPath(orasExecutable);
+            path = Optional.ofNullable(OrasProcess.findInPath(orasExecutable, getPathFromEnvironmentVariables()));
         } else {
             path = Optional.of(Paths.get(executableDirectory, orasExecutable))
                     .map(Path::toAbsolutePath)
@@ -130,24 +324,32 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
         return path.orElseThrow(() -> new MojoExecutionException("Oras executable is not found."));
     }
 
-    private String getCommandFlags(String command) {
-        String flags = "";
+    private List<String> getCommandFlags(String command) {
+        List<String> flags = new ArrayList<>();
 
         //common flags:
         if (debug) {
-            flags += " --debug";
+            flags.add("--debug");
         }
         if (verbose) {
-            flags += " --verbose";
+            flags.add("--verbose");
+        }
+        if (insecure && command.equals("cp")) {
+            flags.add("--from-insecure");
+            flags.add("--to-insecure");
+        } else if (insecure) {
+            flags.add("--insecure");
         }
-        if (insecure) {
-            flags += " --insecure";
+        if (cliJsonOutput && (command.equals("push") || command.equals("pull"))) {
+            flags.add("--format");
+            flags.add("json");
         }
 
         //push flags:
         if (command.equals("push")) {
             if (StringUtils.isNotEmpty(artifactType)) {
-                flags += " --artifact-type " + artifactType;
+                flags.add("--artifact-type");
+                flags.add(artifactType);
             }
 
         }
@@ -155,27 +357,26 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
         return flags;
     }
 
-    /**
-     * Finds the absolute path to a given {@code executable} in {@code PATH} environment variable.
-     *
-     * @param executable the name of the executable to search for
-     * @return the absolute path to the executable if found, otherwise an empty optional.
-     */
-    private Optional<Path> findInPath(String executable) {
-        String[] paths = getPathFromEnvironmentVariables();
-        return Stream.of(paths)
-                .map(Paths::get)
-                .map(path -> path.resolve(executable))
-                .filter(Files::exists)
-                .map(Path::toAbsolutePath)
-                .findFirst();
-    }
-
     String[] getPathFromEnvironmentVariables() {
         return System.getenv("PATH").split(Pattern.quote(File.pathSeparator));
     }
 
+    boolean isNativeEngine() {
+        String selected = StringUtils.defaultIfEmpty(engine, ENGINE_CLI).toLowerCase();
+        if (ENGINE_NATIVE.equals(selected)) {
+            return true;
+        }
+        if (ENGINE_CLI.equals(selected)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unknown engine: " + engine + " (expected cli or native)");
+    }
+
     void checkArtifacts(String[] artifacts) throws MojoFailureException, FileNotFoundException {
+        if (artifacts == null || artifacts.length == 0) {
+            throw new MojoFailureException("No artifacts configured");
+        }
+        long start = System.nanoTime();
         for (String artifact : artifacts) {
             if (Paths.get(artifact).isAbsolute()) {
                 throw new MojoFailureException("Absolute artifact is not allowed: " + artifact);
@@ -184,62 +385,604 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
                 throw new FileNotFoundException("Artifact not found: " + artifact);
             }
         }
+        report.addPhase("scan", artifacts.length + " artifacts", start);
     }
 
-    void oras(String command, String arguments, String errorMessage) throws MojoExecutionException {
-        oras(command, arguments, errorMessage, null);
+    OrasProcess.Result oras(String command, List<String> arguments, String errorMessage)
+            throws MojoExecutionException {
+        return oras(command, arguments, errorMessage, null);
     }
 
-    void oras(String command, String arguments, String errorMessage, String stdin) throws MojoExecutionException {
-        String fullCommand = getOrasExecutablePath() + " " + command + " " + getCommandFlags(command) + " " + arguments;
+    OrasProcess.Result oras(String command, List<String> arguments, String errorMessage, String stdin)
+            throws MojoExecutionException {
+        List<String> commandLine = new ArrayList<>();
+        commandLine.add(command);
+        commandLine.addAll(getCommandFlags(command));
+        commandLine.addAll(arguments);
 
         // execute oras
-        getLog().debug(fullCommand);
-        int exitValue;
+        Path executable = getOrasExecutablePath();
+        getLog().debug(executable + " " + String.join(" ", commandLine));
+        OrasProcess.Result result;
         try {
-            Process p = Runtime.getRuntime().exec(fullCommand, null, new File(getWorkingDirectory()));
-            new Thread(() -> {
-                if (StringUtils.isNotEmpty(stdin)) {
-                    try (OutputStream outputStream = p.getOutputStream()) {
-                        outputStream.write(stdin.getBytes(StandardCharsets.UTF_8));
-                    } catch (IOException ex) {
-                        getLog().error("failed to write to stdin of oras", ex);
-                    }
+            OrasProcess process = new OrasProcess(executable, getLog());
+            process.setWorkingDirectory(new File(getWorkingDirectory()));
+            result = process.run(commandLine, stdin);
+        } catch (IOException e) {
+            getLog().error("Error processing command [" + executable + " " + command + "]", e);
+            throw new MojoExecutionException("Error processing command", e);
+        }
+
+        if (result.getExitCode() != 0) {
+            List<String> errors = result.getErrorLines();
+            throw new MojoExecutionException(errors.isEmpty() ? errorMessage
+                    : errorMessage + ": " + errors.get(errors.size() - 1));
+        }
+        return result;
+    }
+
+    /**
+     * Adds the blobs reported by the status lines of an oras invocation to the push report.
+     */
+    private void recordProgress(String repository, OrasProcess.Result result) {
+        Map<String, OrasProcess.Progress> started = new HashMap<>();
+        List<BlobMetrics> blobs = new ArrayList<>();
+        for (OrasProcess.Progress progress : result.getProgress()) {
+            String status = progress.getStatus();
+            if (status.equals("Uploading")) {
+                started.put(progress.getDigest(), progress);
+                continue;
+            }
+            // the cli prints shortened digests and no sizes
+            BlobMetrics blob = new BlobMetrics(repository, progress.getTitle(), progress.getDigest(), 0);
+            blob.setStatus(status.equals("Uploaded") ? BlobMetrics.UPLOADED : BlobMetrics.EXISTS);
+            OrasProcess.Progress start = started.get(progress.getDigest());
+            blob.setUploadMillis(start != null ? progress.getMillis() - start.getMillis() : 0);
+            blobs.add(blob);
+        }
+        report.addBlobs(blobs);
+        if (result.getJson() != null && result.getJson().has("digest")) {
+            getLog().info("Digest: " + result.getJson().get("digest").getAsString());
+        }
+    }
+
+    /**
+     * Rejects combinations of parameters a push goal can not handle, before anything is archived or uploaded.
+     *
+     * @throws MojoExecutionException if the parameters contradict each other
+     */
+    void checkOptions() throws MojoExecutionException {
+        if (pushAtEnd && hasMirrors()) {
+            throw new MojoExecutionException("Mirror repositories can not be combined with pushAtEnd");
+        }
+        if (hasPlatforms() && !isNativeEngine()) {
+            throw new MojoExecutionException("Platforms require the native engine (oras.engine=native)");
+        }
+        if (hasPlatforms() && (pushAtEnd || hasMirrors())) {
+            throw new MojoExecutionException("Platforms can not be combined with pushAtEnd or mirror repositories");
+        }
+        if (hasPlatforms()) {
+            checkPlatforms();
+        }
+    }
+
+    /**
+     * Every platform needs an os and an architecture and may be configured once, as its name is the key of its
+     * manifest in the index and part of its archive name.
+     */
+    private void checkPlatforms() throws MojoExecutionException {
+        Set<String> names = new HashSet<>();
+        for (PlatformArtifacts platform : platforms) {
+            if (StringUtils.isEmpty(platform.getOs()) || StringUtils.isEmpty(platform.getArchitecture())) {
+                throw new MojoExecutionException("Platform " + platform.getName()
+                        + " needs an os and an architecture");
+            }
+            if (!names.add(platform.getName())) {
+                throw new MojoExecutionException("Platform " + platform.getName() + " is configured more than once");
+            }
+        }
+    }
+
+    /**
+     * Pushes files to {@code registry} as {@code uploadName:uploadVersion}, or records the push until the end of the
+     * build if {@code pushAtEnd} is set. An immediate push is recorded as done, so deferred pushes of other modules
+     * do not wait for this one.
+     *
+     * @param registry  target registry
+     * @param directory directory the files are relative to
+     * @param files     file references in the format {@code path[:mediaType]}
+     * @throws MojoExecutionException if the push fails
+     */
+    void push(OCIRegistry registry, String directory, List<String> files) throws MojoExecutionException {
+        if (pushAtEnd) {
+            deferPush(new DeferredPush(this, registry, directory, files));
+        } else if (hasMirrors()) {
+            pushToMirrors(registry, directory, files);
+            recordPush();
+        } else {
+            pushNow(registry, directory, files);
+            recordPush();
+        }
+    }
+
+    boolean hasPlatforms() {
+        return platforms != null && !platforms.isEmpty();
+    }
+
+    /**
+     * Pushes the files of every platform as a manifest and an image index referencing them to the upload reference.
+     *
+     * @param directory directory the files are relative to
+     * @param files     file references in the format {@code path[:mediaType]}, per platform in the order of
+     *                  {@code platforms}
+     * @throws MojoExecutionException if the push fails
+     */
+    void pushPlatforms(OCIRegistry registry, String directory, List<List<String>> files)
+            throws MojoExecutionException {
+        OciReference reference = getUploadReference(registry);
+        try {
+            List<Artifact> artifacts = new ArrayList<>();
+            for (int i = 0; i < platforms.size(); i++) {
+                Artifact artifact = new Artifact(reference, artifactType, toLayers(Paths.get(directory),
+                        files.get(i)));
+                PlatformArtifacts platform = platforms.get(i);
+                artifact.setPlatform(new Platform(platform.getOs(), platform.getArchitecture(),
+                        StringUtils.defaultIfEmpty(platform.getVariant(), null)));
+                artifact.setAnnotations(platforms.get(i).getAnnotations());
+                artifacts.add(artifact);
+            }
+            pushArtifacts(registry, artifacts, report);
+        } catch (IOException e) {
+            getLog().error("Unable to push " + reference, e);
+            throw new MojoExecutionException("Upload failed", e);
+        }
+        recordPush();
+    }
+
+    boolean hasMirrors() {
+        return mirrorRepositories != null && !mirrorRepositories.isEmpty();
+    }
+
+    /**
+     * @return the registry of the upload version followed by the mirror repositories
+     */
+    List<OCIRegistry> getUploadTargets() {
+        List<OCIRegistry> targets = new ArrayList<>();
+        targets.add(getUploadRepo());
+        if (hasMirrors()) {
+            targets.addAll(mirrorRepositories);
+        }
+        return targets;
+    }
+
+    /**
+     * Pushes the files to {@code registry} and the mirror repositories concurrently. Directories are archived and
+     * files are hashed once for all registries. Registries on the same host are pushed one after another, so the
+     * later ones mount the blobs of the first instead of uploading them again.
+     */
+    private void pushToMirrors(OCIRegistry registry, String directory, List<String> files)
+            throws MojoExecutionException {
+        ReplicationPolicy policy = ReplicationPolicy.forName(mirrorPolicy);
+        List<OCIRegistry> targets = new ArrayList<>();
+        targets.add(registry);
+        targets.addAll(mirrorRepositories);
+
+        List<Layer> layers = null;
+        DigestCache digestCache = null;
+        if (isNativeEngine()) {
+            try {
+                layers = toLayers(Paths.get(directory), files);
+                digestCache = useCache ? DigestCache.load(Paths.get(cacheDirectory), getLog())
+                        : DigestCache.inMemory(getLog());
+                long start = System.nanoTime();
+                for (Layer layer : layers) {
+                    digestCache.digest(layer.getFile());
                 }
+                report.addPhase("hash", layers.size() + " layers", start);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Unable to prepare layers", e);
+            }
+        }
+
+        Map<String, List<OCIRegistry>> hosts = new LinkedHashMap<>();
+        for (OCIRegistry target : targets) {
+            hosts.computeIfAbsent(getUploadReference(target).getRegistryUrl(), k -> new ArrayList<>()).add(target);
+        }
+        getLog().info("Pushing to " + targets.size() + " registries on " + hosts.size() + " hosts");
+        Map<String, Exception> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+        List<Layer> pushedLayers = layers;
+        DigestCache pushedDigests = digestCache;
+        ExecutorService executor = Executors.newFixedThreadPool(hosts.size(), runnable -> {
+            Thread thread = new Thread(runnable, "oras-mirror");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> pushes = new ArrayList<>();
+            for (List<OCIRegistry> group : hosts.values()) {
+                pushes.add(executor.submit(() -> pushToHost(group, directory, files, pushedLayers, pushedDigests,
+                        failures)));
+            }
+            for (Future<?> push : pushes) {
+                push.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while pushing", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Upload failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        if (digestCache != null) {
+            digestCache.save();
+        }
 
-                BufferedReader input = new BufferedReader(new InputStreamReader(p.getInputStream()));
-                String inputLine;
-                try {
-                    while ((inputLine = input.readLine()) != null) {
-                        getLog().info(inputLine);
-                    }
-                } catch (IOException e) {
-                    getLog().error(e);
+        int succeeded = targets.size() - failures.size();
+        getLog().info("Pushed to " + succeeded + " of " + targets.size() + " registries (policy " + policy + ")");
+        if (!policy.isSatisfied(succeeded, targets.size())) {
+            throw new MojoExecutionException("Upload failed to " + String.join(", ", failures.keySet()),
+                    failures.values().iterator().next());
+        }
+    }
+
+    /**
+     * Pushes to registries of one host in order; after the first successful push blobs are mounted from it.
+     */
+    private void pushToHost(List<OCIRegistry> group, String directory, List<String> files, List<Layer> layers,
+                            DigestCache digestCache, Map<String, Exception> failures) {
+        String mountFrom = null;
+        for (OCIRegistry target : group) {
+            try {
+                authenticate(target);
+                if (layers == null) {
+                    pushNow(target, directory, files);
+                } else {
+                    Artifact artifact = new Artifact(getUploadReference(target), artifactType, layers);
+                    pushArtifacts(target, Collections.singletonList(artifact), report, digestCache, mountFrom);
                 }
-            }).start();
-            new Thread(() -> {
-                BufferedReader error = new BufferedReader(new InputStreamReader(p.getErrorStream()));
-                String errorLine;
-                try {
-                    while ((errorLine = error.readLine()) != null) {
-                        getLog().error(errorLine);
-                    }
-                } catch (IOException e) {
-                    getLog().error(e);
+                if (mountFrom == null) {
+                    mountFrom = getUploadReference(target).getRepository();
                 }
-            }).start();
-            p.waitFor();
-            exitValue = p.exitValue();
-        } catch (Exception e) {
-            getLog().error("Error processing command [" + fullCommand + "]", e);
-            throw new MojoExecutionException("Error processing command", e);
+            } catch (MojoExecutionException | IOException | RuntimeException e) {
+                getLog().warn("Push to " + target.getUrl() + " failed: " + e.getMessage());
+                failures.put(target.getUrl(), e);
+            }
+        }
+    }
+
+    /**
+     * Records that this module has pushed or has nothing to push, like {@code deployAtEnd} records the state of every
+     * module. Every push execution records itself, deferred or not, as the deferred pushes of the build wait for all
+     * projects with a push goal; otherwise a module pushing right away would hold back those of the others forever.
+     */
+    void recordPush() throws MojoExecutionException {
+        deferPush(null);
+    }
+
+    private void pushNow(OCIRegistry registry, String directory, List<String> files) throws MojoExecutionException {
+        getLog().debug("Uploading to " + registry.getUrl());
+        if (!isNativeEngine()) {
+            setWorkingDirectory(directory);
+            long start = System.nanoTime();
+            List<String> arguments = new ArrayList<>();
+            arguments.add(registry.getUrl() + "/" + getUploadName() + ":" + getUploadVersion());
+            arguments.addAll(files);
+            OrasProcess.Result result = oras("push", arguments, "Upload failed");
+            report.addPhase("upload", registry.getUrl() + ": " + files.size() + " files (oras cli)", start);
+            recordProgress(getUploadReference(registry).getRepository(), result);
+            return;
+        }
+
+        OciReference reference = getUploadReference(registry);
+        try {
+            pushArtifacts(registry, Collections.singletonList(toArtifact(registry, directory, files)), report);
+        } catch (IOException e) {
+            getLog().error("Unable to push " + reference, e);
+            throw new MojoExecutionException("Upload failed", e);
+        }
+    }
+
+    private void deferPush(DeferredPush push) throws MojoExecutionException {
+        Set<String> projects = getPushingProjects();
+        List<DeferredPush> pushes = getSession().defer(getProjectId(), push, projects);
+        if (pushes.isEmpty()) {
+            if (push != null) {
+                getLog().info("Push of " + getUploadReference(push.getRegistry()) + " deferred to the end of the build");
+            }
+            getLog().debug("Deferred pushes wait for " + getSession().getWaitingProjects(projects));
+            return;
+        }
+
+        getLog().info("Pushing " + pushes.size() + " deferred artifacts");
+        Map<RegistryClient, List<DeferredPush>> nativePushes = new LinkedHashMap<>();
+        for (DeferredPush deferred : pushes) {
+            AbstractOrasMojo mojo = deferred.getMojo();
+            if (mojo.isNativeEngine()) {
+                nativePushes.computeIfAbsent(mojo.getRegistryClient(deferred.getRegistry()), k -> new ArrayList<>())
+                        .add(deferred);
+            } else {
+                mojo.pushNow(deferred.getRegistry(), deferred.getDirectory(), deferred.getFiles());
+            }
+        }
+        // one upload per registry, so blobs shared by modules are uploaded once
+        for (List<DeferredPush> group : nativePushes.values()) {
+            DeferredPush first = group.get(0);
+            try {
+                List<Artifact> artifacts = new ArrayList<>();
+                for (DeferredPush deferred : group) {
+                    artifacts.add(deferred.getMojo().toArtifact(deferred.getRegistry(), deferred.getDirectory(),
+                            deferred.getFiles()));
+                }
+                first.getMojo().pushArtifacts(first.getRegistry(), artifacts, report);
+            } catch (IOException e) {
+                getLog().error("Unable to push deferred artifacts to " + first.getRegistry().getUrl(), e);
+                throw new MojoExecutionException("Upload failed", e);
+            }
+        }
+    }
+
+    private Artifact toArtifact(OCIRegistry registry, String directory, List<String> files) throws IOException {
+        return new Artifact(getUploadReference(registry), artifactType, toLayers(Paths.get(directory), files));
+    }
+
+    private List<Layer> toLayers(Path directory, List<String> files) throws IOException {
+        List<Layer> layers = new ArrayList<>();
+        for (String file : files) {
+            layers.add(toLayer(directory, file));
+        }
+        return layers;
+    }
+
+    private void pushArtifacts(OCIRegistry registry, List<Artifact> artifacts, PushReport pushReport)
+            throws IOException, MojoExecutionException {
+        DigestCache digestCache = useCache ? DigestCache.load(Paths.get(cacheDirectory), getLog()) : null;
+        pushArtifacts(registry, artifacts, pushReport, digestCache, null);
+        if (digestCache != null) {
+            digestCache.save();
+            getLog().info("Digest cache: " + digestCache.getHits() + " hits, " + digestCache.getMisses() + " misses");
         }
+    }
 
-        if (exitValue != 0) {
-            throw new MojoExecutionException(errorMessage);
+    /**
+     * Artifacts with a platform are pushed as an image index to the upload reference.
+     *
+     * @param digestCache optional cache of file digests
+     * @param mountFrom   optional repository of the same registry to mount blobs from
+     */
+    private void pushArtifacts(OCIRegistry registry, List<Artifact> artifacts, PushReport pushReport,
+                               DigestCache digestCache, String mountFrom) throws IOException, MojoExecutionException {
+        RegistryClient client = getRegistryClient(registry);
+        ArtifactPusher pusher = new ArtifactPusher(client, digestCache, getLog());
+        pusher.setScheduler(newScheduler(client, registry, pushParallelism));
+        pusher.setMountFrom(mountFrom);
+        long start = System.nanoTime();
+        if (artifacts.get(0).getPlatform() != null) {
+            pusher.pushIndex(getUploadReference(registry), artifactType, artifacts);
+        } else {
+            pusher.pushAll(artifacts);
+        }
+        pushReport.addPhase("upload", registry.getUrl() + ": " + pusher.getUploadedBlobs() + " of "
+                + pusher.getBlobMetrics().size() + " blobs uploaded", start);
+        pushReport.addBlobs(pusher.getBlobMetrics());
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        double megabytes = pusher.getUploadedBytes() / (1024.0 * 1024.0);
+        getLog().info(String.format("Blobs: %d uploaded, %d mounted, %d already in registry; %.1f MiB in %.1f s "
+                        + "(%.1f MiB/s)", pusher.getUploadedBlobs(), pusher.getMountedBlobs(), pusher.getSkippedBlobs(),
+                megabytes, seconds, megabytes / seconds));
+        logRetries(client);
+        BandwidthLimiter limiter = client.getBandwidthLimiter();
+        if (limiter != null) {
+            getLog().info(String.format("Bandwidth limited to %.1f MiB/s, uploads of the build waited %.1f s",
+                    limiter.getBytesPerSecond() / (1024.0 * 1024.0), limiter.getThrottledMillis() / 1000.0));
         }
     }
 
+    private String getProjectId() {
+        return project != null ? project.getId() : projectGroupId + ":" + projectArtifactId + ":" + projectVersion;
+    }
+
+    /**
+     * @return ids of the projects of the build running a push goal, see {@link PushingProjects}; the push happens
+     * once all of them recorded theirs
+     */
+    Set<String> getPushingProjects() {
+        Set<String> projects = new LinkedHashSet<>();
+        projects.add(getProjectId());
+        if (mavenSession == null || pluginDescriptor == null || defaultLifecycles == null) {
+            return projects;
+        }
+        projects.addAll(PushingProjects.of(mavenSession, pluginDescriptor, defaultLifecycles));
+        return projects;
+    }
+
+    /**
+     * Converts a file reference to a layer. Like the oras cli, directories are pushed as a gzipped tar which is
+     * annotated to be unpacked on pull.
+     */
+    private Layer toLayer(Path directory, String file) throws IOException {
+        Layer layer = Layer.of(directory, file);
+        if (!Files.isDirectory(layer.getFile())) {
+            return layer;
+        }
+
+        Files.createDirectories(Paths.get(getOutputDirectory()));
+        Path archive = Paths.get(getOutputDirectory(), layer.getFile().getFileName() + ".tar.gz").toAbsolutePath();
+        GzipCodec codec = new GzipCodec();
+        compress(codec, layer.getFile().getParent().toString(), archive,
+                new String[]{layer.getFile().getFileName().toString()});
+        String mediaType = Layer.DEFAULT_MEDIA_TYPE.equals(layer.getMediaType()) ? codec.getMediaType() : layer.getMediaType();
+        Layer archiveLayer = new Layer(archive, layer.getTitle(), mediaType);
+        archiveLayer.getAnnotations().put(ANNOTATION_UNPACK, "true");
+        return archiveLayer;
+    }
+
+    /**
+     * Compresses artifacts to an archive file and records the compression in the push report.
+     */
+    void compress(ArchiveCodec codec, String directory, Path archive, String[] artifacts) {
+        compress(codec, directory, archive, artifacts, (String[]) null);
+    }
+
+    /**
+     * Compresses a part of the artifacts to an archive file, with entries named as in the archive of all artifacts.
+     *
+     * @param entryRoots artifacts the part was partitioned from, see {@link Compression#setEntryRoots}
+     */
+    void compress(ArchiveCodec codec, String directory, Path archive, String[] artifacts, String[] entryRoots) {
+        long start = System.nanoTime();
+        Compression compression = newCompression(codec);
+        compression.setEntryRoots(entryRoots);
+        compression.compress(directory, archive, artifacts);
+        report.addCompression(archive.getFileName().toString(), start, compression.getBytesIn(),
+                compression.getBytesOut());
+    }
+
+    /**
+     * Compresses artifacts to a stream and records the compression in the push report.
+     *
+     * @param name name of the archive in the report
+     */
+    void compress(ArchiveCodec codec, String directory, OutputStream out, String[] artifacts, String name)
+            throws IOException {
+        long start = System.nanoTime();
+        Compression compression = newCompression(codec);
+        compression.compress(directory, out, artifacts);
+        report.addCompression(name, start, compression.getBytesIn(), compression.getBytesOut());
+    }
+
+    /**
+     * Logs the push report and writes it to {@code outputDirectory}, unless disabled or nothing was recorded.
+     */
+    void writeReport(OCIRegistry registry) {
+        if (!pushReport || report.isEmpty()) {
+            return;
+        }
+        report.setReference(getUploadReference(registry).toString());
+        report.setEngine(engine);
+        report.log(getLog());
+        Path file = Paths.get(getOutputDirectory(), PushReport.FILE_NAME);
+        try {
+            report.write(file);
+            getLog().info("Push report written to " + file);
+        } catch (IOException e) {
+            getLog().warn("Unable to write push report to " + file + ": " + e.getMessage());
+        }
+    }
+
+    Compression newCompression(ArchiveCodec codec) {
+        Compression compression = new Compression(codec);
+        compression.setReproducibleTimestamp(getReproducibleTimestamp());
+        compression.setStorePolicy(getStorePolicy());
+        if (compressionReadBufferSize > 0) {
+            compression.setReadBufferSize(compressionReadBufferSize);
+        }
+        if (compressionWriteBufferSize > 0) {
+            compression.setWriteBufferSize(compressionWriteBufferSize);
+        }
+        return compression;
+    }
+
+    /**
+     * @return policy of entries stored without compression or {@code null} if all entries are compressed
+     */
+    StorePolicy getStorePolicy() {
+        if (!storeIncompressible) {
+            return null;
+        }
+        return new StorePolicy(storePatterns != null && storePatterns.length > 0
+                ? Arrays.asList(storePatterns) : StorePolicy.DEFAULT_PATTERNS, true);
+    }
+
+    /**
+     * @return timestamp of archive entries in reproducible mode or {@code null} if archives are not reproducible
+     */
+    Instant getReproducibleTimestamp() {
+        // like maven-archiver, a single character disables the configured timestamp
+        if (outputTimestamp != null && outputTimestamp.length() > 1) {
+            if (StringUtils.isNumeric(outputTimestamp)) {
+                return Instant.ofEpochSecond(Long.parseLong(outputTimestamp));
+            }
+            try {
+                return OffsetDateTime.parse(outputTimestamp).toInstant();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid project.build.outputTimestamp: " + outputTimestamp, e);
+            }
+        }
+        return reproducible ? Instant.EPOCH : null;
+    }
+
+    OciReference getUploadReference(OCIRegistry registry) {
+        return OciReference.of(registry.getUrl(), getUploadName(), getUploadVersion());
+    }
+
+    /**
+     * @return the client of the registry, shared by all modules of the build that use the same credentials. The
+     * bandwidth limit of every execution is applied to it, not only the one of the execution creating the client.
+     */
+    RegistryClient getRegistryClient(OCIRegistry registry) throws MojoExecutionException {
+        String registryUrl = getUploadReference(registry).getRegistryUrl();
+        PasswordAuthentication authentication = getAuthentication(registry);
+        String key = registryUrl + "|" + insecure + "|" + (authentication != null ? authentication.getUserName() : "");
+        RegistryClient client = getSession().getClient(key, k -> {
+            RegistryClient created = new RegistryClient(registryUrl, authentication, insecure, getLog());
+            created.setChunkSize(uploadChunkSize);
+            created.setRetryPolicy(new RetryPolicy(uploadRetries, uploadRetryBackoff));
+            return created;
+        });
+        warnIfUploadSettingsDiffer(client);
+        if (registry.getMaxBytesPerSecond() > 0) {
+            // one limiter per registry url, shared by all clients of the build
+            client.setBandwidthLimiter(getSession().getBandwidthLimiter(registryUrl, registry.getMaxBytesPerSecond(),
+                    registry.getBurstBytes(), registry.getPriorityBytes(), getLog()));
+        }
+        return client;
+    }
+
+    /**
+     * The chunk size and retry policy of a shared client are the ones of the execution creating it.
+     */
+    private void warnIfUploadSettingsDiffer(RegistryClient client) {
+        if (client.getChunkSize() != uploadChunkSize) {
+            getLog().warn("uploadChunkSize of " + client.getRegistryUrl() + " differs between executions, using "
+                    + client.getChunkSize() + " instead of " + uploadChunkSize);
+        }
+        RetryPolicy retryPolicy = client.getRetryPolicy();
+        if (retryPolicy.getMaxRetries() != uploadRetries || retryPolicy.getInitialBackoffMillis() != uploadRetryBackoff) {
+            getLog().warn("uploadRetries and uploadRetryBackoff of " + client.getRegistryUrl()
+                    + " differ between executions, using " + retryPolicy.getMaxRetries() + " retries and "
+                    + retryPolicy.getInitialBackoffMillis() + " ms instead of " + uploadRetries + " retries and "
+                    + uploadRetryBackoff + " ms");
+        }
+    }
+
+    /**
+     * @param parallelism maximum number of concurrent transfers of the execution
+     * @return a scheduler also bounded by the connection limit of the registry, shared by all executions of the build
+     */
+    LayerUploadScheduler newScheduler(RegistryClient client, OCIRegistry registry, int parallelism) {
+        return new LayerUploadScheduler(parallelism,
+                getSession().getConnectionPermits(client.getRegistryUrl(), registry.getMaxConnections(), getLog()));
+    }
+
+    synchronized RegistrySession getSession() {
+        if (session == null) {
+            session = RegistrySession.forBuild(buildStartTime);
+        }
+        return session;
+    }
+
+    void logRetries(RegistryClient client) {
+        if (client.getRetries() > 0) {
+            getLog().info("Upload retries: " + client.getRetries() + ", resumed bytes: " + client.getResumedBytes());
+        }
+    }
+
+    /**
+     * @param path directory to scan
+     * @return distinct directories below {@code path} containing files, without excluded directories
+     * @throws MojoExecutionException if the directory can not be scanned
+     */
     List<String> getArtifactsDirectories(String path) throws MojoExecutionException {
         List<String> exclusions = new ArrayList<>();
         if (getExcludes() != null) {
@@ -247,11 +990,9 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
         }
         exclusions.addAll(FileUtils.getDefaultExcludesAsList());
 
-        MatchPatterns exclusionPatterns = MatchPatterns.from(exclusions);
-        try (Stream<Path> files = Files.walk(Paths.get(path), FileVisitOption.FOLLOW_LINKS)) {
-            List<String> artifactDirs = files.map(p -> p.getParent().toString())
-                    .filter(shouldIncludeDirectory(exclusionPatterns))
-                    .collect(Collectors.toList());
+        try {
+            List<String> artifactDirs = new ArtifactScanner(exclusions, Runtime.getRuntime().availableProcessors())
+                    .scanDirectories(Paths.get(path));
 
             if (artifactDirs.isEmpty()) {
                 getLog().warn("No artifacts detected - no files found below " + path);
@@ -263,21 +1004,16 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
         }
     }
 
-    private Predicate<String> shouldIncludeDirectory(MatchPatterns exclusionPatterns) {
-        return inputDirectory -> {
-            boolean isCaseSensitive = false;
-            boolean matches = exclusionPatterns.matches(inputDirectory, isCaseSensitive);
-
-            if (matches) {
-                getLog().debug("Skip excluded directory " + inputDirectory);
-                return false;
-            }
-            return true;
-        };
+    OCIRegistry getUploadRepo() {
+        return getRepository(uploadVersion);
     }
 
-    OCIRegistry getUploadRepo() {
-        if (uploadVersion != null && uploadVersion.endsWith("-SNAPSHOT")
+    /**
+     * @param version version of an artifact
+     * @return the snapshot repository for snapshot versions if configured, otherwise the stable repository
+     */
+    OCIRegistry getRepository(String version) {
+        if (version != null && version.endsWith("-SNAPSHOT")
                 && snapshotRepository != null && StringUtils.isNotEmpty(snapshotRepository.getUrl())) {
             return snapshotRepository;
         }
@@ -297,10 +1033,64 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
      */
     void authenticate(OCIRegistry registry) throws MojoExecutionException {
         PasswordAuthentication authentication = getAuthentication(registry);
-        if (authentication != null) {
+        if (authentication != null && isNativeEngine()) {
+            RegistryClient client = getRegistryClient(registry);
+            getSession().loginOnce(ENGINE_NATIVE + "|" + client.getRegistryUrl() + "|" + authentication.getUserName(),
+                    () -> {
+                        long start = System.nanoTime();
+                        try {
+                            client.login();
+                            report.addPhase("login", client.getRegistryUrl(), start);
+                        } catch (IOException e) {
+                            getLog().error(e.getMessage());
+                            throw new MojoExecutionException("Can't login to registry", e);
+                        }
+                    });
+        } else if (authentication != null) {
             String loginUrl = removePathFromUrl(registry.getUrl());
-            String arguments = String.format(LOGIN_TEMPLATE, authentication.getUserName(), loginUrl);
-            oras("login", arguments, "Can't login to registry", new String(authentication.getPassword()));
+            List<String> arguments = Arrays.asList("-u", authentication.getUserName(), loginUrl, "--password-stdin");
+            getSession().loginOnce(ENGINE_CLI + "|" + loginUrl + "|" + authentication.getUserName(),
+                    () -> {
+                        long start = System.nanoTime();
+                        oras("login", arguments, "Can't login to registry", new String(authentication.getPassword()));
+                        report.addPhase("login", loginUrl + " (oras cli)", start);
+                    });
+        }
+    }
+
+    /**
+     * Starts {@link #authenticate} on a separate thread, so the login overlaps with local work of the goal.
+     *
+     * @see #awaitLogin
+     */
+    CompletableFuture<Void> authenticateAsync(OCIRegistry registry) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                authenticate(registry);
+            } catch (MojoExecutionException e) {
+                throw new CompletionException(e);
+            }
+        }, task -> {
+            Thread thread = new Thread(task, "oras-login");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Waits for a login started by {@link #authenticateAsync} and rethrows its failure.
+     */
+    void awaitLogin(CompletableFuture<Void> login) throws MojoExecutionException {
+        try {
+            login.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof MojoExecutionException) {
+                throw (MojoExecutionException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
     }
 
@@ -347,12 +1137,15 @@ public abstract class AbstractOrasMojo extends AbstractMojo {
         }
         getLog().debug("Use credentials from server list for " + id + ".");
 
-        try {
-            return new PasswordAuthentication(server.getUsername(),
-                    getSecDispatcher().decrypt(server.getPassword()).toCharArray());
-        } catch (SecDispatcherException e) {
-            throw new MojoExecutionException(e.getMessage());
-        }
+        // decrypted once per build instead of reading settings-security.xml in every module
+        return getSession().getCredentials(id + "|" + server.getUsername() + "|" + server.getPassword(), () -> {
+            try {
+                return new PasswordAuthentication(server.getUsername(),
+                        getSecDispatcher().decrypt(server.getPassword()).toCharArray());
+            } catch (SecDispatcherException e) {
+                throw new MojoExecutionException(e.getMessage());
+            }
+        });
     }
 
     protected SecDispatcher getSecDispatcher() {
@@ -0,0 +1,23 @@
+package com.tosan.plugin.oras;
+
+import com.tosan.plugin.oras.util.OCIRegistry;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Push of a module recorded until the end of the build, see {@code pushAtEnd}.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+class DeferredPush {
+    /**
+     * Execution that recorded the push, with the configuration of its module.
+     */
+    private final AbstractOrasMojo mojo;
+    private final OCIRegistry registry;
+    private final String directory;
+    private final List<String> files;
+}
@@ -1,20 +1,44 @@
 package com.tosan.plugin.oras;
 
-import com.tosan.plugin.oras.util.Compression;
+import com.tosan.plugin.oras.registry.ArtifactPusher;
+import com.tosan.plugin.oras.registry.BlobUploadOutputStream;
+import com.tosan.plugin.oras.registry.Descriptor;
+import com.tosan.plugin.oras.registry.Digests;
+import com.tosan.plugin.oras.registry.Manifest;
+import com.tosan.plugin.oras.registry.ManifestContent;
+import com.tosan.plugin.oras.registry.OciReference;
+import com.tosan.plugin.oras.registry.RegistryClient;
+import com.tosan.plugin.oras.util.ArchiveCodec;
+import com.tosan.plugin.oras.util.ArchiveFingerprint;
+import com.tosan.plugin.oras.util.ArchivePartitioner;
 import com.tosan.plugin.oras.util.OCIRegistry;
+import com.tosan.plugin.oras.util.PlatformArtifacts;
 import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
- * Mojo for packaging files as tgz and push to oci registry
+ * Mojo for packaging files as a (compressed) tar archive and push to oci registry
  *
  * @author Saeed Hashemi
  * @since 25/08/2022
@@ -22,40 +46,359 @@ import java.nio.file.Paths;
 @Mojo(name = "package-push", defaultPhase = LifecyclePhase.DEPLOY, threadSafe = true)
 @Setter
 public class PackagePushMojo extends AbstractOrasMojo {
-    private static final Compression compression = new Compression();
+    private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+    private static final String SPLIT_NONE = "none";
+    private static final int UPLOAD_PIPELINE_DEPTH = 2;
+
     @Parameter(property = "oras.push.skip", defaultValue = "false")
     private boolean skipPush;
 
+    /**
+     * Compression of the archive: {@code gzip}, {@code zstd} or {@code tar} (uncompressed).
+     */
+    @Parameter(property = "oras.compression", defaultValue = "gzip")
+    private String compression;
+
+    /**
+     * Compression level, 0-9 for gzip and the negative fast levels up to 22 for zstd; not supported by tar.
+     * Defaults to the codec's default level.
+     */
+    @Parameter(property = "oras.compression.level")
+    private Integer compressionLevel;
+
+    /**
+     * Number of threads used to compress the archive. For gzip values greater than one split the tar stream into
+     * blocks which are deflated in parallel, for zstd they set the number of native workers.
+     */
+    @Parameter(property = "oras.compression.threads", defaultValue = "1")
+    private int compressionThreads;
+
+    /**
+     * Size in bytes of the blocks deflated independently when {@code compressionThreads} is greater than one.
+     */
+    @Parameter(property = "oras.compression.blockSize", defaultValue = "131072")
+    private int compressionBlockSize;
+
+    /**
+     * Streams the archive directly into a chunked blob upload instead of writing it to {@code outputDirectory}
+     * first. Requires the {@code native} engine.
+     */
+    @Parameter(property = "oras.streaming", defaultValue = "false")
+    private boolean streaming;
+
+    /**
+     * Reuses the archive of the previous run if the artifacts are unchanged, according to a fingerprint stored next
+     * to the archive. With the {@code native} engine the push is skipped as well if the registry already has the
+     * archive under the upload tag.
+     */
+    @Parameter(property = "oras.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * Splits the artifacts into several archives, pushed as separate layers of one manifest: {@code none},
+     * {@code directory} (one archive per top-level directory) or {@code size} (archives of about {@code splitSize}
+     * bytes of input). The archives are built in parallel.
+     */
+    @Parameter(property = "oras.split", defaultValue = SPLIT_NONE)
+    private String split;
+
+    /**
+     * Target uncompressed size in bytes of an archive when {@code split} is {@code size}.
+     */
+    @Parameter(property = "oras.split.size", defaultValue = "104857600")
+    private long splitSize;
+
     @Override
     public void execute() throws MojoExecutionException {
 
         if (skip || skipPush) {
             getLog().info("Skip push");
+            recordPush();
             return;
         }
 
+        checkOptions();
+        boolean splitting = !SPLIT_NONE.equals(split);
+
+        // the login runs while the artifacts are checked and archived, only the push waits for it
+        OCIRegistry registry = getUploadRepo();
+        CompletableFuture<Void> login = authenticateAsync(registry);
+        try {
+            pushArchive(registry, login, splitting);
+        } finally {
+            writeReport(registry);
+        }
+    }
+
+    @Override
+    void checkOptions() throws MojoExecutionException {
+        super.checkOptions();
+        if (streaming && !isNativeEngine()) {
+            throw new MojoExecutionException("Streaming upload requires the native engine (oras.engine=native)");
+        }
+        boolean splitting = !SPLIT_NONE.equals(split);
+        if (streaming && isPushAtEnd()) {
+            throw new MojoExecutionException("Streaming upload can not be deferred with pushAtEnd");
+        }
+        if (streaming && hasMirrors()) {
+            throw new MojoExecutionException("Streaming upload can not be combined with mirror repositories");
+        }
+        if (streaming && incremental) {
+            throw new MojoExecutionException("Streaming upload can not be combined with incremental mode");
+        }
+        if (splitting && (streaming || incremental)) {
+            throw new MojoExecutionException("Split archives can not be combined with streaming or incremental mode");
+        }
+        if (hasPlatforms() && (splitting || streaming || incremental)) {
+            throw new MojoExecutionException("Platforms can not be combined with split, streaming or incremental mode");
+        }
+    }
+
+    private void pushArchive(OCIRegistry registry, CompletableFuture<Void> login, boolean splitting)
+            throws MojoExecutionException {
         try {
-            checkArtifacts(getArtifacts());
+            if (hasPlatforms()) {
+                for (PlatformArtifacts platform : getPlatforms()) {
+                    checkArtifacts(platform.getArtifacts());
+                }
+            } else {
+                checkArtifacts(getArtifacts());
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
 
-        OCIRegistry registry = getUploadRepo();
-        authenticate(registry);
+        ArchiveCodec codec = ArchiveCodec.forName(compression,
+                compressionLevel != null ? compressionLevel : ArchiveCodec.DEFAULT_LEVEL, compressionThreads,
+                compressionBlockSize);
+        if (StringUtils.isEmpty(getArchiveName())) {
+            setArchiveName(getProjectArtifactId() + "-" + getProjectVersion() + "." + codec.getExtension());
+        }
+        if (streaming) {
+            streamArchive(registry, codec, login);
+            recordPush();
+            return;
+        }
 
         try {
             Files.createDirectories(Paths.get(getOutputDirectory()));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        if (splitting) {
+            List<String> archives = compressShards(codec);
+            awaitLogin(login);
+            push(registry, getOutputDirectory(), archives);
+            return;
+        }
+        if (hasPlatforms()) {
+            List<String[]> contents = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (PlatformArtifacts platform : getPlatforms()) {
+                contents.add(platform.getArtifacts());
+                names.add(getArchiveBaseName(codec) + "-" + platform.getName().replace('/', '-') + "."
+                        + codec.getExtension());
+            }
+            List<String> archives = compressAll(codec, names, contents, null);
+            awaitLogin(login);
+            List<List<String>> files = new ArrayList<>();
+            for (String archive : archives) {
+                files.add(Collections.singletonList(archive));
+            }
+            pushPlatforms(registry, getOutputDirectory(), files);
+            return;
+        }
         Path archive = Paths.get(getOutputDirectory(), getArchiveName()).toAbsolutePath();
-        compression.compress(getWorkingDirectory(), archive, getArtifacts());
-        uploadArchive(registry, getOutputDirectory(), getArchiveName());
+        if (!incremental) {
+            compress(codec, getWorkingDirectory(), archive, getArtifacts());
+        } else if (!buildIncrementally(registry, codec, archive)) {
+            awaitLogin(login);
+            recordPush();
+            return;
+        }
+        awaitLogin(login);
+        push(registry, getOutputDirectory(),
+                Collections.singletonList(getArchiveName() + ":" + codec.getMediaType()));
+    }
+
+    /**
+     * Pipelines archiving and upload: the archive is compressed and hashed on this thread, while an uploader thread
+     * sends the finished chunks. A bounded chunk queue keeps memory flat when the network is the slower stage.
+     */
+    private void streamArchive(OCIRegistry registry, ArchiveCodec codec, CompletableFuture<Void> login)
+            throws MojoExecutionException {
+        OciReference reference = getUploadReference(registry);
+        RegistryClient client = getRegistryClient(registry);
+        getLog().info("Streaming archive " + getArchiveName() + " to " + reference);
+        try {
+            BlobUploadOutputStream upload = client.openBlobUpload(reference.getRepository(), getUploadChunkSize(),
+                    UPLOAD_PIPELINE_DEPTH);
+            try {
+                compress(codec, getWorkingDirectory(), upload, getArtifacts(), getArchiveName());
+            } catch (IOException | RuntimeException e) {
+                // a partial archive must not be committed under its digest
+                upload.abort();
+                throw e;
+            }
+            awaitLogin(login);
+            Descriptor layer = upload.toDescriptor(codec.getMediaType())
+                    .addAnnotation(Descriptor.ANNOTATION_TITLE, getArchiveName());
+            getLog().info("Uploaded " + getArchiveName() + " (" + layer.getSize() + " bytes, " + layer.getDigest() + ")");
+            new ArtifactPusher(client, getLog())
+                    .pushManifest(reference, getArtifactType(), Collections.singletonList(layer));
+            logRetries(client);
+        } catch (IOException | UncheckedIOException e) {
+            getLog().error("Unable to push " + reference, e);
+            throw new MojoExecutionException("Upload failed", e);
+        }
+    }
+
+    /**
+     * Partitions the artifacts and compresses every shard to its own archive, concurrently.
+     *
+     * @return the archives as {@code name:mediaType} relative to {@code outputDirectory}
+     */
+    private List<String> compressShards(ArchiveCodec codec) throws MojoExecutionException {
+        List<String[]> shards;
+        try {
+            if (ArchivePartitioner.DIRECTORY.equals(split)) {
+                shards = ArchivePartitioner.byDirectory(getWorkingDirectory(), getArtifacts());
+            } else if (ArchivePartitioner.SIZE.equals(split)) {
+                shards = ArchivePartitioner.bySize(getWorkingDirectory(), getArtifacts(), splitSize);
+            } else {
+                throw new MojoExecutionException("Unknown split mode: " + split);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to partition artifacts", e);
+        }
+        getLog().info("Splitting artifacts into " + shards.size() + " archives");
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            names.add(getArchiveBaseName(codec) + "-" + (i + 1) + "." + codec.getExtension());
+        }
+        return compressAll(codec, names, shards, getArtifacts());
+    }
+
+    private String getArchiveBaseName(ArchiveCodec codec) {
+        String extension = "." + codec.getExtension();
+        return getArchiveName().endsWith(extension)
+                ? getArchiveName().substring(0, getArchiveName().length() - extension.length()) : getArchiveName();
+    }
+
+    /**
+     * Compresses every group of artifacts to its own archive, concurrently.
+     *
+     * @param names      names of the archives in {@code outputDirectory}
+     * @param contents   artifacts of each archive
+     * @param entryRoots artifacts the contents were partitioned from, {@code null} if they are independent
+     * @return the archives as {@code name:mediaType} relative to {@code outputDirectory}
+     */
+    private List<String> compressAll(ArchiveCodec codec, List<String> names, List<String[]> contents,
+                                     String[] entryRoots) throws MojoExecutionException {
+        List<String> files = new ArrayList<>();
+        List<Future<?>> compressions = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(names.size(), Runtime.getRuntime().availableProcessors())));
+        try {
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                String[] content = contents.get(i);
+                Path archive = Paths.get(getOutputDirectory(), name).toAbsolutePath();
+                compressions.add(executor.submit(() ->
+                        compress(codec, getWorkingDirectory(), archive, content, entryRoots)));
+                files.add(name + ":" + codec.getMediaType());
+            }
+            for (Future<?> compression : compressions) {
+                compression.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while compressing", e);
+        } catch (ExecutionException e) {
+            throw new MojoExecutionException("Unable to compress artifacts", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return files;
+    }
+
+    /**
+     * Builds the archive unless the fingerprint of the artifacts is unchanged.
+     *
+     * @return {@code false} if the push can be skipped, because the registry already has the archive
+     */
+    private boolean buildIncrementally(OCIRegistry registry, ArchiveCodec codec, Path archive)
+            throws MojoExecutionException {
+        Path fingerprintFile = Paths.get(getOutputDirectory(), getArchiveName() + FINGERPRINT_SUFFIX);
+        String settings = codec + "|" + getReproducibleTimestamp() + "|" + getStorePolicy() + "|"
+                + String.join(",", getArtifacts());
+        try {
+            long start = System.nanoTime();
+            ArchiveFingerprint previous = ArchiveFingerprint.read(fingerprintFile);
+            ArchiveFingerprint current = ArchiveFingerprint.compute(settings, getWorkingDirectory(), getArtifacts(),
+                    previous);
+            getReport().addPhase("hash", "fingerprint of " + getArtifacts().length + " artifacts", start);
+            if (current.sameInputs(previous) && previous.matchesArchive(archive)) {
+                getLog().info("Artifacts unchanged, reusing " + archive);
+                if (isUploaded(codec, previous.getArchiveDigest())) {
+                    getLog().info(getUploadReference(registry) + " is up to date, skip push");
+                    return false;
+                }
+                return true;
+            }
+
+            getLog().info("Compressing Artifacts to " + archive);
+            MessageDigest digest = Digests.newSha256();
+            try (OutputStream file = Files.newOutputStream(archive)) {
+                compress(codec, getWorkingDirectory(), new DigestOutputStream(file, digest), getArtifacts(),
+                        getArchiveName());
+            }
+            current.setArchive(archive, Digests.toDigest(digest.digest()));
+            current.write(fingerprintFile);
+            return true;
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to fingerprint artifacts", e);
+        }
+    }
+
+    /**
+     * @return whether the upload reference already points to a manifest of the artifact type with the archive as
+     * only layer under its current name, in all registries pushed to
+     */
+    private boolean isUploaded(ArchiveCodec codec, String archiveDigest) throws MojoExecutionException {
+        if (!isNativeEngine()) {
+            return false;
+        }
+        for (OCIRegistry target : getUploadTargets()) {
+            if (!isUploaded(target, codec, archiveDigest)) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private void uploadArchive(OCIRegistry registry, String archiveDirectory, String archiveFile) throws MojoExecutionException {
-        getLog().debug("Uploading to " + registry.getUrl());
-        setWorkingDirectory(archiveDirectory);
-        oras("push", String.format(PUSH_TEMPLATE, registry.getUrl(), getUploadName(), getUploadVersion(), archiveFile), "Upload failed");
+    private boolean isUploaded(OCIRegistry registry, ArchiveCodec codec, String archiveDigest)
+            throws MojoExecutionException {
+        OciReference reference = getUploadReference(registry);
+        try {
+            ManifestContent remote = getRegistryClient(registry)
+                    .getManifest(reference.getRepository(), reference.getReference());
+            if (remote == null || !Manifest.MEDIA_TYPE.equals(remote.getMediaType())) {
+                return false;
+            }
+            Manifest manifest = remote.toManifest();
+            if (!StringUtils.defaultIfEmpty(getArtifactType(), Manifest.UNKNOWN_ARTIFACT_TYPE)
+                    .equals(manifest.getArtifactType()) || manifest.getLayers().size() != 1) {
+                return false;
+            }
+            Descriptor layer = manifest.getLayers().get(0);
+            return archiveDigest.equals(layer.getDigest()) && codec.getMediaType().equals(layer.getMediaType())
+                    && layer.getAnnotations() != null
+                    && getArchiveName().equals(layer.getAnnotations().get(Descriptor.ANNOTATION_TITLE));
+        } catch (IOException e) {
+            getLog().debug("Unable to check remote manifest of " + reference + ": " + e.getMessage());
+            return false;
+        }
     }
 }
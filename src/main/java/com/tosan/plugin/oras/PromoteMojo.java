@@ -0,0 +1,122 @@
+package com.tosan.plugin.oras;
+
+import com.tosan.plugin.oras.registry.ArtifactPromoter;
+import com.tosan.plugin.oras.registry.OciReference;
+import com.tosan.plugin.oras.registry.RegistryClient;
+import com.tosan.plugin.oras.util.OCIRegistry;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mojo for tagging an already pushed artifact, e.g. to promote a snapshot to the stable repository or to add a tag
+ * to a timestamped snapshot, without packaging and uploading it again. With the {@code native} engine the manifest
+ * is put byte for byte under the new tags and missing blobs are mounted across repositories of the same registry;
+ * the {@code cli} engine runs {@code oras tag} or {@code oras cp}.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Mojo(name = "promote", defaultPhase = LifecyclePhase.DEPLOY, threadSafe = true)
+@Setter
+public class PromoteMojo extends AbstractOrasMojo {
+    @Parameter(property = "oras.promote.skip", defaultValue = "false")
+    private boolean skipPromote;
+
+    /**
+     * Name of the promoted artifact, defaults to {@code uploadName}.
+     */
+    @Parameter(property = "oras.promote.name")
+    private String promoteName;
+
+    /**
+     * Tag or digest ({@code sha256:...}) of the promoted artifact.
+     */
+    @Parameter(property = "oras.promote.from", required = true)
+    private String promoteFrom;
+
+    /**
+     * Tags of the artifact in the target repository.
+     */
+    @Parameter(property = "oras.promote.tags", required = true)
+    private String[] promoteTags;
+
+    /**
+     * Reads the artifact from the snapshot repository, also if its version does not end with {@code -SNAPSHOT}, e.g.
+     * a timestamped snapshot. By default the repository is chosen by the version as for a push.
+     */
+    @Parameter(property = "oras.promote.fromSnapshot", defaultValue = "false")
+    private boolean promoteFromSnapshot;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+
+        if (skip || skipPromote) {
+            getLog().info("Skip promote");
+            return;
+        }
+        if (promoteTags == null || promoteTags.length == 0) {
+            throw new IllegalArgumentException("No tag configured to promote " + promoteFrom + " to");
+        }
+
+        String name = StringUtils.defaultIfEmpty(promoteName, getUploadName());
+        List<String> tags = Arrays.asList(promoteTags);
+        OCIRegistry source = getPromoteSource();
+        OCIRegistry target = getRepository(tags.get(0));
+        OciReference from = OciReference.of(source.getUrl(), name, promoteFrom);
+        OciReference to = OciReference.of(target.getUrl(), name, tags.get(0));
+
+        if (!isNativeEngine()) {
+            authenticate(source);
+            authenticate(target);
+            String separator = promoteFrom.startsWith("sha256:") ? "@" : ":";
+            String fromUrl = source.getUrl() + "/" + name + separator + promoteFrom;
+            List<String> arguments = new ArrayList<>();
+            arguments.add(fromUrl);
+            if (from.getRegistry().equals(to.getRegistry()) && from.getRepository().equals(to.getRepository())) {
+                arguments.addAll(tags);
+                oras("tag", arguments, "Promote failed");
+            } else {
+                arguments.add(target.getUrl() + "/" + name + ":" + String.join(",", tags));
+                oras("cp", arguments, "Promote failed");
+            }
+            return;
+        }
+
+        RegistryClient sourceClient = getRegistryClient(source);
+        RegistryClient targetClient = getRegistryClient(target);
+        ArtifactPromoter promoter = new ArtifactPromoter(sourceClient, targetClient, getLog());
+        promoter.setScheduler(newScheduler(targetClient, target, getPushParallelism()));
+        long start = System.nanoTime();
+        try {
+            promoter.promote(from, to, tags);
+        } catch (IOException e) {
+            getLog().error("Unable to promote " + from, e);
+            throw new MojoExecutionException("Promote failed", e);
+        }
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        getLog().info(String.format("Promoted %s to %d tags in %.1f s; blobs: %d already in repository, %d mounted, "
+                        + "%d copied (%.1f MiB)", from, tags.size(), seconds, promoter.getExistingBlobs(),
+                promoter.getMountedBlobs(), promoter.getCopiedBlobs(), promoter.getCopiedBytes() / (1024.0 * 1024.0)));
+        logRetries(targetClient);
+    }
+
+    private OCIRegistry getPromoteSource() {
+        if (!promoteFromSnapshot) {
+            return getRepository(promoteFrom);
+        }
+        OCIRegistry snapshot = getSnapshotRepository();
+        if (snapshot == null || StringUtils.isEmpty(snapshot.getUrl())) {
+            throw new IllegalArgumentException("there is no snapshot oci repo.");
+        }
+        return snapshot;
+    }
+}
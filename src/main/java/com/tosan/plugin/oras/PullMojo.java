@@ -0,0 +1,150 @@
+package com.tosan.plugin.oras;
+
+import com.tosan.plugin.oras.registry.ArtifactPuller;
+import com.tosan.plugin.oras.registry.BlobCache;
+import com.tosan.plugin.oras.registry.Descriptor;
+import com.tosan.plugin.oras.registry.OciReference;
+import com.tosan.plugin.oras.registry.Platform;
+import com.tosan.plugin.oras.registry.RegistryClient;
+import com.tosan.plugin.oras.util.ArchiveCodec;
+import com.tosan.plugin.oras.util.Extraction;
+import com.tosan.plugin.oras.util.OCIRegistry;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mojo for pulling an artifact from oci registry. With the {@code native} engine layers are downloaded concurrently,
+ * verified against their digests and cached by digest, so repeated pulls of the same content are served from disk.
+ * Of an image index only the manifest and layers of {@code pullPlatform} are downloaded.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Mojo(name = "pull", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, threadSafe = true)
+@Setter
+public class PullMojo extends AbstractOrasMojo {
+    @Parameter(property = "oras.pull.skip", defaultValue = "false")
+    private boolean skipPull;
+
+    /**
+     * Name of the pulled artifact.
+     */
+    @Parameter(property = "oras.pull.name", required = true)
+    private String pullName;
+
+    /**
+     * Tag or digest ({@code sha256:...}) of the pulled artifact.
+     */
+    @Parameter(property = "oras.pull.version", required = true)
+    private String pullVersion;
+
+    @Parameter(property = "oras.pull.directory", defaultValue = "${project.build.directory}/oras-pull")
+    private String pullDirectory;
+
+    /**
+     * Maximum number of concurrent downloads ({@code native} engine).
+     */
+    @Parameter(property = "oras.pull.parallelism", defaultValue = "4")
+    private int pullParallelism;
+
+    /**
+     * Blobs larger than this number of bytes are downloaded in concurrent range requests of this size.
+     */
+    @Parameter(property = "oras.pull.rangeSize", defaultValue = "67108864")
+    private long pullRangeSize;
+
+    /**
+     * Extracts pushed directories while they are downloaded ({@code native} engine); otherwise they are stored as
+     * archives.
+     */
+    @Parameter(property = "oras.pull.unpack", defaultValue = "true")
+    private boolean unpack;
+
+    /**
+     * Platform pulled from an image index as {@code os/architecture[/variant]}, e.g. {@code linux/arm64}.
+     */
+    @Parameter(property = "oras.pull.platform")
+    private String pullPlatform;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+
+        if (skip || skipPull) {
+            getLog().info("Skip pull");
+            return;
+        }
+
+        OCIRegistry registry = getRepository(pullVersion);
+        Path directory = Paths.get(pullDirectory).toAbsolutePath();
+        if (!isNativeEngine()) {
+            authenticate(registry);
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Unable to create " + directory, e);
+            }
+            String separator = pullVersion.startsWith("sha256:") ? "@" : ":";
+            List<String> arguments = new ArrayList<>(Arrays.asList(
+                    registry.getUrl() + "/" + pullName + separator + pullVersion, "-o", directory.toString()));
+            if (StringUtils.isNotEmpty(pullPlatform)) {
+                arguments.add("--platform");
+                arguments.add(pullPlatform);
+            }
+            oras("pull", arguments, "Pull failed");
+            return;
+        }
+
+        // the native client authenticates with its first request, so pulls served from the cache need no request
+        OciReference reference = OciReference.of(registry.getUrl(), pullName, pullVersion);
+        RegistryClient client = getRegistryClient(registry);
+        ArtifactPuller puller = new ArtifactPuller(client,
+                isUseCache() ? new BlobCache(Paths.get(getCacheDirectory())) : null, getLog());
+        puller.setScheduler(newScheduler(client, registry, pullParallelism));
+        puller.setRangeSize(pullRangeSize);
+        puller.setOffline(getMavenSession() != null && getMavenSession().isOffline());
+        if (StringUtils.isNotEmpty(pullPlatform)) {
+            puller.setPlatform(Platform.parse(pullPlatform));
+        }
+        if (unpack) {
+            puller.setUnpacker(this::unpack);
+        }
+        long start = System.nanoTime();
+        try {
+            List<Path> files = puller.pull(reference, directory);
+            double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+            double megabytes = puller.getDownloadedBytes() / (1024.0 * 1024.0);
+            getLog().info("Pulled " + reference + ": " + files.size() + " files to " + directory);
+            getLog().info(String.format("Blobs: %d downloaded, %d from cache; %.1f MiB in %.1f s (%.1f MiB/s)",
+                    puller.getDownloadedBlobs(), puller.getCachedBlobs(), megabytes, seconds, megabytes / seconds));
+        } catch (IOException e) {
+            getLog().error("Unable to pull " + reference, e);
+            throw new MojoExecutionException("Pull failed", e);
+        }
+        logRetries(client);
+    }
+
+    private void unpack(Descriptor layer, InputStream content, Path directory, Path staging) throws IOException {
+        ArchiveCodec codec = ArchiveCodec.forMediaType(layer.getMediaType());
+        if (codec == null) {
+            throw new IOException("Unable to unpack layer of media type " + layer.getMediaType());
+        }
+        Extraction extraction = new Extraction(codec);
+        extraction.setThreads(pullParallelism);
+        extraction.extract(content, directory, staging);
+        getLog().info("Unpacked " + layer.getDigest() + ": " + extraction.getExtractedFiles() + " files written, "
+                + extraction.getUnchangedFiles() + " unchanged");
+    }
+}
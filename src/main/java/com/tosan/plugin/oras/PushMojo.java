@@ -1,12 +1,17 @@
 package com.tosan.plugin.oras;
 
 import com.tosan.plugin.oras.util.OCIRegistry;
+import com.tosan.plugin.oras.util.PlatformArtifacts;
 import lombok.Setter;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Mojo for push artifacts to oci registry
  *
@@ -25,11 +30,22 @@ public class PushMojo extends AbstractOrasMojo {
 
         if (skip || skipPush) {
             getLog().info("Skip push");
+            recordPush();
             return;
         }
 
+        checkOptions();
+
+        List<List<String>> platformFiles = new ArrayList<>();
         try {
-            checkArtifacts(getArtifacts());
+            if (hasPlatforms()) {
+                for (PlatformArtifacts platform : getPlatforms()) {
+                    checkArtifacts(platform.getArtifacts());
+                    platformFiles.add(Arrays.asList(platform.getArtifacts()));
+                }
+            } else {
+                checkArtifacts(getArtifacts());
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -37,12 +53,14 @@ public class PushMojo extends AbstractOrasMojo {
         OCIRegistry registry = getUploadRepo();
         authenticate(registry);
 
-        String artifacts = String.join(" ", getArtifacts());
-        upload(registry, artifacts);
-    }
-
-    private void upload(OCIRegistry registry, String artifacts) throws MojoExecutionException {
-        getLog().debug("Uploading to " + registry.getUrl());
-        oras("push", String.format(PUSH_TEMPLATE, registry.getUrl(), getUploadName(), getUploadVersion(), artifacts), "Upload failed");
+        try {
+            if (hasPlatforms()) {
+                pushPlatforms(registry, getWorkingDirectory(), platformFiles);
+            } else {
+                push(registry, getWorkingDirectory(), Arrays.asList(getArtifacts()));
+            }
+        } finally {
+            writeReport(registry);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.tosan.plugin.oras;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.tosan.plugin.oras.registry.BlobMetrics;
+import lombok.Data;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timings of a push: the phases of the goal (scan, hash, compress, login, upload) and every uploaded blob. Logged
+ * as a summary table and written as json, so push performance can be compared across builds. Phases may be recorded
+ * by concurrent threads.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+class PushReport {
+    static final String FILE_NAME = "push-report.json";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+
+    private String reference;
+    private String engine;
+    private final List<Phase> phases = new ArrayList<>();
+    private final List<BlobMetrics> blobs = new ArrayList<>();
+
+    /**
+     * @param start {@link System#nanoTime()} at the start of the phase
+     */
+    synchronized Phase addPhase(String name, String detail, long start) {
+        Phase phase = new Phase(name, detail, (System.nanoTime() - start) / 1_000_000);
+        phases.add(phase);
+        return phase;
+    }
+
+    /**
+     * Records a compression with its uncompressed and compressed size.
+     */
+    synchronized void addCompression(String detail, long start, long bytesIn, long bytesOut) {
+        Phase phase = addPhase("compress", detail, start);
+        phase.setBytesIn(bytesIn);
+        phase.setBytesOut(bytesOut);
+        phase.setRatio(bytesIn > 0 ? Math.round(1000.0 * bytesOut / bytesIn) / 1000.0 : null);
+    }
+
+    synchronized void addBlobs(List<BlobMetrics> metrics) {
+        blobs.addAll(metrics);
+    }
+
+    synchronized boolean isEmpty() {
+        return phases.isEmpty() && blobs.isEmpty();
+    }
+
+    synchronized void log(Log log) {
+        log.info("Push report" + (reference != null ? " of " + reference : "") + ":");
+        log.info(String.format("  %-9s %-36s %9s %11s %11s %6s", "phase", "detail", "time", "in", "out", "ratio"));
+        for (Phase phase : phases) {
+            log.info(String.format("  %-9s %-36s %6d ms %11s %11s %6s", phase.getName(), truncate(phase.getDetail()),
+                    phase.getMillis(), size(phase.getBytesIn()), size(phase.getBytesOut()),
+                    phase.getRatio() != null ? String.format("%.3f", phase.getRatio()) : ""));
+        }
+        if (blobs.isEmpty()) {
+            return;
+        }
+        log.info(String.format("  %-12s %-33s %11s %6s %9s %9s %7s", "blob", "title", "size", "hash", "upload",
+                "MiB/s", "retries"));
+        for (BlobMetrics blob : blobs) {
+            log.info(String.format("  %-12s %-33s %11s %3d ms %6d ms %9.1f %7d", blob.getStatus()
+                            + (blob.isDigestCached() ? "*" : ""), truncate(blob.getTitle()), size(blob.getSize()),
+                    blob.getHashMillis(), blob.getUploadMillis(), blob.getMibPerSecond(), blob.getRetries()));
+        }
+        log.info("  (* digest from cache)");
+    }
+
+    synchronized void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            GSON.toJson(this, writer);
+        }
+    }
+
+    private static String truncate(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.length() > 33 ? "..." + text.substring(text.length() - 30) : text;
+    }
+
+    private static String size(Long bytes) {
+        if (bytes == null) {
+            return "";
+        }
+        return bytes < 1024 * 1024 ? bytes + " B" : String.format("%.1f MiB", bytes / (1024.0 * 1024.0));
+    }
+
+    @Data
+    static class Phase {
+        private final String name;
+        private final String detail;
+        private final long millis;
+        private Long bytesIn;
+        private Long bytesOut;
+
+        /**
+         * Compressed to uncompressed size.
+         */
+        private Double ratio;
+    }
+}
@@ -0,0 +1,106 @@
+package com.tosan.plugin.oras;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.DefaultLifecycles;
+import org.apache.maven.lifecycle.Lifecycle;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Works out which projects of the build run a push goal, like {@code deployAtEnd} of the maven-deploy-plugin does
+ * for its executions: a push goal given on the command line runs in every project, a push execution of a project
+ * only if the build reaches its phase. Modules that only pull or promote, and pushes bound to a phase the build does
+ * not reach (e.g. {@code deploy} in {@code mvn install}), are not waited for. If in doubt a project is left out, so
+ * deferred pushes are at worst pushed in several batches instead of never.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+class PushingProjects {
+    static final List<String> PUSH_GOALS = Arrays.asList("push", "package-push");
+
+    private PushingProjects() {
+    }
+
+    /**
+     * @param session    the build
+     * @param plugin     descriptor of this plugin
+     * @param lifecycles lifecycles of the build, to find out which phases are reached
+     * @return ids of the projects scheduled to run a push goal
+     */
+    static Set<String> of(MavenSession session, PluginDescriptor plugin, DefaultLifecycles lifecycles) {
+        Set<String> projects = new LinkedHashSet<>();
+        boolean invoked = session.getGoals().stream().anyMatch(goal -> isPushInvocation(goal, plugin));
+        for (MavenProject project : session.getProjects()) {
+            if (invoked || hasReachedPushExecution(project, session.getGoals(), plugin, lifecycles)) {
+                projects.add(project.getId());
+            }
+        }
+        return projects;
+    }
+
+    /**
+     * @return whether a command line goal, e.g. {@code oras:push} or {@code group:artifact:version:push@id}, runs a
+     * push goal of the plugin
+     */
+    private static boolean isPushInvocation(String goal, PluginDescriptor plugin) {
+        String[] parts = StringUtils.substringBefore(goal, "@").split(":");
+        if (parts.length < 2 || !PUSH_GOALS.contains(parts[parts.length - 1])) {
+            return false;
+        }
+        return parts.length == 2 ? parts[0].equals(plugin.getGoalPrefix())
+                : parts[0].equals(plugin.getGroupId()) && parts[1].equals(plugin.getArtifactId());
+    }
+
+    private static boolean hasReachedPushExecution(MavenProject project, List<String> goals, PluginDescriptor plugin,
+                                                   DefaultLifecycles lifecycles) {
+        for (Plugin buildPlugin : project.getBuildPlugins()) {
+            if (!plugin.getPluginLookupKey().equals(buildPlugin.getKey())) {
+                continue;
+            }
+            for (PluginExecution execution : buildPlugin.getExecutions()) {
+                for (String goal : execution.getGoals()) {
+                    if (PUSH_GOALS.contains(goal) && isReached(getPhase(execution, goal, plugin), goals, lifecycles)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String getPhase(PluginExecution execution, String goal, PluginDescriptor plugin) {
+        if (StringUtils.isNotEmpty(execution.getPhase())) {
+            return execution.getPhase();
+        }
+        MojoDescriptor mojo = plugin.getMojo(goal);
+        return mojo != null ? mojo.getPhase() : null;
+    }
+
+    /**
+     * @return whether one of the phases given on the command line is {@code phase} or a later phase of its lifecycle
+     */
+    private static boolean isReached(String phase, List<String> goals, DefaultLifecycles lifecycles) {
+        for (Lifecycle lifecycle : lifecycles.getLifeCycles()) {
+            int index = lifecycle.getPhases().indexOf(phase);
+            if (index == -1) {
+                continue;
+            }
+            for (String goal : goals) {
+                if (lifecycle.getPhases().indexOf(goal) >= index) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
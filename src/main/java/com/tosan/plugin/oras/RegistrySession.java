@@ -0,0 +1,204 @@
+package com.tosan.plugin.oras;
+
+import com.tosan.plugin.oras.registry.BandwidthLimiter;
+import com.tosan.plugin.oras.registry.RegistryClient;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+import java.net.PasswordAuthentication;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * State shared by all oras executions of one build: decrypted credentials, registry clients (with their cached
+ * tokens), the registries already logged in to, the connection and bandwidth limits of each registry and pushes
+ * deferred to the end of the build. The modules of a reactor, also when built in parallel ({@code mvn -T}), log in
+ * and request a token only once per registry and together stay within its limits. Nothing outlives the build, so a
+ * reused JVM (e.g. mvnd) applies the limits configured for the next build.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+class RegistrySession {
+    private static RegistrySession current;
+
+    private final Object buildId;
+    private final Map<String, Optional<PasswordAuthentication>> credentials = new ConcurrentHashMap<>();
+    private final Map<String, RegistryClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, Object> loginLocks = new ConcurrentHashMap<>();
+    private final Set<String> loggedIn = ConcurrentHashMap.newKeySet();
+    private final Map<String, ConnectionPermits> connectionPermits = new ConcurrentHashMap<>();
+    private final Map<String, BandwidthLimiter> bandwidthLimiters = new ConcurrentHashMap<>();
+    private final Map<String, List<DeferredPush>> deferredPushes = new LinkedHashMap<>();
+
+    private RegistrySession(Object buildId) {
+        this.buildId = buildId;
+    }
+
+    /**
+     * @param buildId identity of the build, e.g. its start time; {@code null} creates an unshared session
+     * @return the session of the build; a new build replaces the session of the previous one
+     */
+    static synchronized RegistrySession forBuild(Object buildId) {
+        if (buildId == null) {
+            return new RegistrySession(null);
+        }
+        if (current == null || !Objects.equals(current.buildId, buildId)) {
+            current = new RegistrySession(buildId);
+        }
+        return current;
+    }
+
+    /**
+     * @param key    identity of the credentials, e.g. server id and encrypted password
+     * @param lookup resolves the credentials, called once per key
+     * @return the credentials or {@code null} if there are none
+     */
+    PasswordAuthentication getCredentials(String key, CredentialsLookup lookup) throws MojoExecutionException {
+        Optional<PasswordAuthentication> cached = credentials.get(key);
+        if (cached == null) {
+            cached = Optional.ofNullable(lookup.lookup());
+            credentials.put(key, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    RegistryClient getClient(String key, Function<String, RegistryClient> factory) {
+        return clients.computeIfAbsent(key, factory);
+    }
+
+    /**
+     * Runs {@code login} unless it already succeeded for {@code key} in this build. Concurrent callers wait for
+     * a running login instead of starting their own.
+     */
+    void loginOnce(String key, Login login) throws MojoExecutionException {
+        if (loggedIn.contains(key)) {
+            return;
+        }
+        synchronized (loginLocks.computeIfAbsent(key, k -> new Object())) {
+            if (!loggedIn.contains(key)) {
+                login.login();
+                loggedIn.add(key);
+            }
+        }
+    }
+
+    /**
+     * Permits bounding the concurrent uploads of all executions of the build to a registry. If executions configure
+     * different limits, the smallest one applies from then on; an execution without a limit uses the permits of the
+     * others.
+     *
+     * @param registryUrl    base url of the registry
+     * @param maxConnections limit of the calling execution, {@code 0} for no limit
+     * @return the permits or {@code null} if no execution limits the registry
+     */
+    Semaphore getConnectionPermits(String registryUrl, int maxConnections, Log log) {
+        if (maxConnections <= 0) {
+            return connectionPermits.get(registryUrl);
+        }
+        ConnectionPermits permits = connectionPermits.computeIfAbsent(registryUrl,
+                url -> new ConnectionPermits(maxConnections));
+        int limit = permits.limitTo(maxConnections);
+        if (limit != maxConnections) {
+            log.warn("maxConnections of " + registryUrl + " differs between executions, using " + limit
+                    + " instead of " + maxConnections);
+        }
+        return permits;
+    }
+
+    /**
+     * Limiter shared by all clients of the build for a registry. If executions configure different rates, the
+     * smallest one applies from then on; burst and priority size are those of the first execution.
+     *
+     * @param registryUrl base url of the registry
+     * @return the limiter of the registry
+     */
+    BandwidthLimiter getBandwidthLimiter(String registryUrl, long bytesPerSecond, long burst, long priorityBytes,
+                                         Log log) {
+        BandwidthLimiter limiter = bandwidthLimiters.computeIfAbsent(registryUrl,
+                url -> new BandwidthLimiter(bytesPerSecond, burst, priorityBytes));
+        limiter.limitTo(bytesPerSecond);
+        if (limiter.getBytesPerSecond() != bytesPerSecond) {
+            log.warn("maxBytesPerSecond of " + registryUrl + " differs between executions, using "
+                    + limiter.getBytesPerSecond() + " instead of " + bytesPerSecond);
+        }
+        return limiter;
+    }
+
+    /**
+     * Records the push of a project until all projects using the plugin have recorded theirs.
+     *
+     * @param projectId id of the recording project
+     * @param push      push to defer or {@code null} if the project has nothing to push
+     * @param projects  ids of all projects expected to record a push
+     * @return all recorded pushes once every expected project has recorded, otherwise an empty list
+     */
+    synchronized List<DeferredPush> defer(String projectId, DeferredPush push, Collection<String> projects) {
+        List<DeferredPush> pushes = deferredPushes.computeIfAbsent(projectId, k -> new ArrayList<>());
+        if (push != null) {
+            pushes.add(push);
+        }
+        if (!deferredPushes.keySet().containsAll(projects)) {
+            return Collections.emptyList();
+        }
+        List<DeferredPush> all = new ArrayList<>();
+        for (List<DeferredPush> recorded : deferredPushes.values()) {
+            all.addAll(recorded);
+            // projects stay recorded, so further executions of the build push right away
+            recorded.clear();
+        }
+        return all;
+    }
+
+    /**
+     * @param projects ids of all projects expected to record a push
+     * @return the expected projects that have not recorded yet
+     */
+    synchronized Set<String> getWaitingProjects(Collection<String> projects) {
+        Set<String> waiting = new LinkedHashSet<>(projects);
+        waiting.removeAll(deferredPushes.keySet());
+        return waiting;
+    }
+
+    /**
+     * Semaphore whose number of permits can be lowered while uploads hold some of them.
+     */
+    private static class ConnectionPermits extends Semaphore {
+        private int limit;
+
+        ConnectionPermits(int limit) {
+            super(limit, true);
+            this.limit = limit;
+        }
+
+        /**
+         * @return the limit in effect
+         */
+        synchronized int limitTo(int maxConnections) {
+            if (maxConnections < limit) {
+                reducePermits(limit - maxConnections);
+                limit = maxConnections;
+            }
+            return limit;
+        }
+    }
+
+    interface CredentialsLookup {
+        PasswordAuthentication lookup() throws MojoExecutionException;
+    }
+
+    interface Login {
+        void login() throws MojoExecutionException;
+    }
+}
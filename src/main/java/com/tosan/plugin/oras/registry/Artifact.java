@@ -0,0 +1,34 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Files to be pushed as one OCI artifact.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+public class Artifact {
+    private final OciReference reference;
+
+    /**
+     * Optional artifact type of the manifest.
+     */
+    private final String artifactType;
+
+    private final List<Layer> layers;
+
+    /**
+     * Platform of the artifact when pushed as part of an image index.
+     */
+    private Platform platform;
+
+    /**
+     * Optional annotations of the manifest.
+     */
+    private Map<String, String> annotations;
+}
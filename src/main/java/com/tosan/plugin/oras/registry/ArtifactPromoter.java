@@ -0,0 +1,170 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Setter;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tags an existing artifact in another repository or registry without building or uploading it again: the manifest
+ * is fetched and put byte for byte under the new tags, so its digest is kept. Blobs the target repository lacks are
+ * mounted from the source repository on the same registry, and only copied if the registries differ or the registry
+ * refuses the mount. Within one repository promoting is a manifest round-trip per tag.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArtifactPromoter {
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+
+    private final RegistryClient source;
+    private final RegistryClient target;
+    private final Log log;
+    private final AtomicInteger existingBlobs = new AtomicInteger();
+    private final AtomicInteger mountedBlobs = new AtomicInteger();
+    private final AtomicInteger copiedBlobs = new AtomicInteger();
+    private final AtomicLong copiedBytes = new AtomicLong();
+
+    /**
+     * Scheduler of concurrent blob copies; blobs are copied sequentially if not set.
+     */
+    @Setter
+    private LayerUploadScheduler scheduler;
+
+    /**
+     * @param source client of the registry holding the artifact
+     * @param target client of the registry the artifact is tagged in, may be {@code source}
+     * @param log    logger
+     */
+    public ArtifactPromoter(RegistryClient source, RegistryClient target, Log log) {
+        this.source = source;
+        this.target = target;
+        this.log = log;
+    }
+
+    /**
+     * @param from artifact to promote, by tag or digest
+     * @param to   target repository; its reference is ignored
+     * @param tags tags of the artifact in the target repository
+     * @return digest of the promoted manifest
+     * @throws IOException if the artifact does not exist or a request fails
+     */
+    public String promote(OciReference from, OciReference to, List<String> tags) throws IOException {
+        if (tags.isEmpty()) {
+            throw new IllegalArgumentException("No tag to promote " + from + " to");
+        }
+        ManifestContent manifest = source.getManifest(from.getRepository(), from.getReference());
+        if (manifest == null) {
+            throw new RegistryException("Artifact not found: " + from, 404);
+        }
+        if (!isSameRepository(from, to)) {
+            copyReferenced(from.getRepository(), to.getRepository(), manifest);
+        }
+        for (String tag : tags) {
+            target.putManifest(to.getRepository(), tag, manifest.getMediaType(), manifest.getContent());
+            log.info("Tagged " + to.withReference(tag));
+        }
+        log.info("Digest: " + manifest.getDigest());
+        return manifest.getDigest();
+    }
+
+    private boolean isSameRegistry() {
+        return source.getRegistryUrl().equals(target.getRegistryUrl());
+    }
+
+    private boolean isSameRepository(OciReference from, OciReference to) {
+        return isSameRegistry() && from.getRepository().equals(to.getRepository());
+    }
+
+    /**
+     * Makes the content referenced by a manifest available in the target repository: the blobs of an image
+     * manifest, or the manifests of an image index (pushed by digest) and their blobs.
+     */
+    private void copyReferenced(String fromRepository, String toRepository, ManifestContent content)
+            throws IOException {
+        Manifest manifest = content.toManifest();
+        if (manifest.getManifests() != null) {
+            for (Descriptor child : manifest.getManifests()) {
+                ManifestContent childContent = source.getManifest(fromRepository, child.getDigest());
+                if (childContent == null) {
+                    throw new RegistryException("Manifest " + child.getDigest() + " of index not found", 404);
+                }
+                copyReferenced(fromRepository, toRepository, childContent);
+                target.putManifest(toRepository, child.getDigest(), childContent.getMediaType(),
+                        childContent.getContent());
+            }
+            return;
+        }
+
+        Map<String, Descriptor> blobs = new LinkedHashMap<>();
+        if (manifest.getConfig() != null) {
+            blobs.put(manifest.getConfig().getDigest(), manifest.getConfig());
+        }
+        for (Descriptor layer : manifest.getLayers()) {
+            blobs.putIfAbsent(layer.getDigest(), layer);
+        }
+        List<Callable<Void>> jobs = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        for (Descriptor blob : blobs.values()) {
+            sizes.add(blob.getSize());
+            jobs.add(() -> {
+                copyBlob(fromRepository, toRepository, blob);
+                return null;
+            });
+        }
+        LayerUploadScheduler copyScheduler = scheduler != null
+                ? scheduler : new LayerUploadScheduler(1, null);
+        copyScheduler.run(jobs, sizes);
+    }
+
+    private void copyBlob(String fromRepository, String toRepository, Descriptor blob) throws IOException {
+        if (target.blobExists(toRepository, blob.getDigest(), true)) {
+            existingBlobs.incrementAndGet();
+            return;
+        }
+        if (isSameRegistry()) {
+            try {
+                if (target.mountBlob(toRepository, blob.getDigest(), fromRepository)) {
+                    log.info("Mounted " + blob.getDigest() + " from " + fromRepository);
+                    mountedBlobs.incrementAndGet();
+                    return;
+                }
+            } catch (RegistryException e) {
+                // e.g. the credentials of the target have no access to the source repository
+                log.debug("Unable to mount " + blob.getDigest() + ": " + e.getMessage());
+            }
+        }
+        log.info("Copying " + blob.getDigest() + " (" + blob.getSize() + " bytes)");
+        source.readBlob(fromRepository, blob, in -> {
+            try (BlobUploadOutputStream out = target.openBlobUpload(toRepository, target.getChunkSize())) {
+                IOUtils.copy(in, out, COPY_BUFFER_SIZE);
+            }
+        });
+        copiedBlobs.incrementAndGet();
+        copiedBytes.addAndGet(blob.getSize());
+    }
+
+    public int getExistingBlobs() {
+        return existingBlobs.get();
+    }
+
+    public int getMountedBlobs() {
+        return mountedBlobs.get();
+    }
+
+    public int getCopiedBlobs() {
+        return copiedBlobs.get();
+    }
+
+    public long getCopiedBytes() {
+        return copiedBytes.get();
+    }
+}
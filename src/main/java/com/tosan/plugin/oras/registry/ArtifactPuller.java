@@ -0,0 +1,426 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Pulls an OCI artifact: resolves its manifest, of the selected platform for an image index, and downloads the
+ * layers concurrently into a directory, each layer named by its title annotation. Blobs larger than the range size
+ * are downloaded in concurrent range requests.
+ * Every blob is verified against its digest; with a {@link BlobCache}, blobs pulled before are copied from disk.
+ * Layers of pushed directories are extracted while they are downloaded if a {@link LayerUnpacker} is set; the
+ * changed files are staged and only moved into the target directory once the layer is verified.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArtifactPuller {
+    public static final long DEFAULT_RANGE_SIZE = 64 * 1024 * 1024;
+    private static final String ANNOTATION_UNPACK = "io.deis.oras.content.unpack";
+
+    private final RegistryClient client;
+    private final BlobCache cache;
+    private final Log log;
+    private final AtomicInteger downloadedBlobs = new AtomicInteger();
+    private final AtomicInteger cachedBlobs = new AtomicInteger();
+    private final AtomicLong downloadedBytes = new AtomicLong();
+
+    /**
+     * Scheduler of concurrent downloads; downloads run sequentially if not set.
+     */
+    @Setter
+    private LayerUploadScheduler scheduler;
+
+    /**
+     * Blobs larger than this are downloaded in ranges of this size.
+     */
+    @Getter
+    @Setter
+    private long rangeSize = DEFAULT_RANGE_SIZE;
+
+    /**
+     * Resolves tags from the cache instead of the registry.
+     */
+    @Setter
+    private boolean offline;
+
+    /**
+     * Extracts layers of pushed directories while they are downloaded; without it they are stored as archives.
+     */
+    @Setter
+    private LayerUnpacker unpacker;
+
+    /**
+     * Platform selected from an image index; pulling an index fails without it.
+     */
+    @Setter
+    private Platform platform;
+
+    /**
+     * @param client registry client
+     * @param cache  optional cache of pulled blobs
+     * @param log    logger
+     */
+    public ArtifactPuller(RegistryClient client, BlobCache cache, Log log) {
+        this.client = client;
+        this.cache = cache;
+        this.log = log;
+    }
+
+    /**
+     * @param reference artifact to pull
+     * @param directory directory the layers are written to
+     * @return the written files and extracted directories
+     * @throws IOException if the pull fails
+     */
+    public List<Path> pull(OciReference reference, Path directory) throws IOException {
+        Manifest manifest = resolve(reference).toManifest();
+        if (Manifest.INDEX_MEDIA_TYPE.equals(manifest.getMediaType())) {
+            Descriptor selected = selectPlatform(reference, manifest);
+            log.info("Resolved " + selected.getPlatform() + " of " + reference + ": " + selected.getDigest());
+            manifest = resolve(reference.withReference(selected.getDigest())).toManifest();
+        }
+        Path base = directory.toAbsolutePath().normalize();
+        Files.createDirectories(base);
+        List<Descriptor> files = new ArrayList<>();
+        List<Descriptor> archives = new ArrayList<>();
+        List<Path> targets = new ArrayList<>();
+        for (Descriptor layer : manifest.getLayers()) {
+            Path target = target(base, layer);
+            if (unpacker != null && isDirectory(layer)) {
+                archives.add(layer);
+            } else {
+                files.add(layer);
+                targets.add(target);
+            }
+        }
+
+        String repository = reference.getRepository();
+        Map<String, Download> downloads = new LinkedHashMap<>();
+        Map<String, Path> sources = new LinkedHashMap<>();
+        List<Callable<Void>> jobs = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        try {
+            for (Descriptor layer : archives) {
+                jobs.add(() -> {
+                    unpack(repository, layer, base);
+                    return null;
+                });
+                sizes.add(layer.getSize());
+            }
+            for (Descriptor layer : files) {
+                String digest = layer.getDigest();
+                if (sources.containsKey(digest) || downloads.containsKey(digest)) {
+                    continue;
+                }
+                Path cached = cache != null ? cache.find(layer) : null;
+                if (cached != null) {
+                    cachedBlobs.incrementAndGet();
+                    sources.put(digest, cached);
+                    continue;
+                }
+                Download download = new Download(layer, cache != null
+                        ? cache.newTempFile() : Files.createTempFile(base, ".oras", ".tmp"));
+                downloads.put(digest, download);
+                addJobs(repository, download, jobs, sizes);
+            }
+            LayerUploadScheduler downloadScheduler = scheduler != null
+                    ? scheduler : new LayerUploadScheduler(1, null);
+            downloadScheduler.run(jobs, sizes);
+
+            for (Download download : downloads.values()) {
+                sources.put(download.descriptor.getDigest(), complete(repository, download));
+            }
+            place(files, targets, sources);
+            for (Descriptor layer : archives) {
+                targets.add(base.resolve(title(layer)).normalize());
+            }
+            return targets;
+        } finally {
+            for (Download download : downloads.values()) {
+                Files.deleteIfExists(download.file);
+            }
+        }
+    }
+
+    /**
+     * Resolves the manifest of {@code artifact}: from the cache for digests and offline tags, otherwise from the
+     * registry.
+     */
+    private ManifestContent resolve(OciReference artifact) throws IOException {
+        String reference = artifact.getReference();
+        String digest = reference.startsWith(Digests.SHA256) ? reference : null;
+        if (digest == null && offline && cache != null) {
+            digest = cache.resolve(artifact);
+            if (digest == null) {
+                throw new IOException("Tag " + artifact + " has not been pulled before and the build is offline");
+            }
+        }
+        if (digest != null && cache != null) {
+            byte[] content = cache.findManifest(digest);
+            if (content != null) {
+                log.debug("Resolved " + artifact + " from cache");
+                return new ManifestContent(Manifest.MEDIA_TYPE, digest, content);
+            }
+        }
+        if (offline) {
+            throw new IOException("Manifest of " + artifact + " is not cached and the build is offline");
+        }
+
+        ManifestContent manifest = client.getManifest(artifact.getRepository(), reference);
+        if (manifest == null) {
+            throw new RegistryException("Artifact not found: " + artifact, 404);
+        }
+        if (digest != null && !digest.equals(manifest.getDigest())) {
+            throw new IOException("Manifest of " + artifact + " does not match its digest: " + manifest.getDigest());
+        }
+        if (cache != null) {
+            cache.addManifest(manifest);
+            if (digest == null) {
+                cache.record(artifact, manifest.getDigest());
+            }
+        }
+        return manifest;
+    }
+
+    private Descriptor selectPlatform(OciReference reference, Manifest index) throws IOException {
+        List<String> available = new ArrayList<>();
+        for (Descriptor manifest : index.getManifests()) {
+            if (platform != null && platform.matches(manifest.getPlatform())) {
+                return manifest;
+            }
+            available.add(String.valueOf(manifest.getPlatform()));
+        }
+        throw new IOException(reference + " is an image index, " + (platform == null ? "select" : platform
+                + " is not one of") + " its platforms: " + String.join(", ", available));
+    }
+
+    /**
+     * Extracts a layer from the cache, or while it is downloaded and added to the cache. The files are moved into
+     * {@code directory} only after the whole layer is read and verified, so a corrupted or truncated layer leaves
+     * the directory untouched.
+     */
+    private void unpack(String repository, Descriptor layer, Path directory) throws IOException {
+        Path staging = Files.createTempDirectory(directory, ".oras-unpack");
+        try {
+            Path cached = cache != null ? cache.find(layer) : null;
+            if (cached != null) {
+                cachedBlobs.incrementAndGet();
+                log.info("Unpacking " + title(layer) + " from cache");
+                try (InputStream in = Files.newInputStream(cached)) {
+                    unpacker.unpack(layer, in, directory, staging);
+                }
+            } else {
+                download(repository, layer, directory, staging);
+            }
+            moveInto(staging, directory);
+        } finally {
+            FileUtils.deleteQuietly(staging.toFile());
+        }
+    }
+
+    private void download(String repository, Descriptor layer, Path directory, Path staging) throws IOException {
+        log.info("Downloading and unpacking " + title(layer) + " (" + layer.getSize() + " bytes)");
+        Path file = cache != null ? cache.newTempFile() : null;
+        try {
+            client.readBlob(repository, layer, in -> {
+                // a retried download starts over
+                FileUtils.cleanDirectory(staging.toFile());
+                if (file == null) {
+                    unpacker.unpack(layer, in, directory, staging);
+                    return;
+                }
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    TeeInputStream tee = new TeeInputStream(in, out);
+                    unpacker.unpack(layer, CloseShieldInputStream.wrap(tee), directory, staging);
+                    // the whole blob goes to the cache, also what the unpacker left unread
+                    IOUtils.consume(tee);
+                }
+            });
+            if (file != null) {
+                cache.add(layer.getDigest(), file);
+            }
+        } finally {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+        downloadedBlobs.incrementAndGet();
+        downloadedBytes.addAndGet(layer.getSize());
+    }
+
+    /**
+     * Moves the staged files of a verified layer into {@code directory}, replacing existing files.
+     *
+     * @throws IOException if a directory of the target is a link to outside of it
+     */
+    private static void moveInto(Path staging, Path directory) throws IOException {
+        Path base = directory.toRealPath();
+        try (Stream<Path> staged = Files.walk(staging)) {
+            for (Path source : (Iterable<Path>) staged::iterator) {
+                Path target = base.resolve(staging.relativize(source).toString());
+                if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.createDirectories(target);
+                    if (!target.toRealPath().startsWith(base)) {
+                        throw new IOException("Directory is a link to outside of the target directory: " + target);
+                    }
+                } else {
+                    Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+    }
+
+    private void addJobs(String repository, Download download, List<Callable<Void>> jobs, List<Long> sizes) {
+        Descriptor descriptor = download.descriptor;
+        if (descriptor.getSize() <= rangeSize) {
+            jobs.add(() -> {
+                log.info("Downloading " + title(descriptor) + " (" + descriptor.getSize() + " bytes)");
+                client.downloadBlob(repository, descriptor, download.file);
+                return null;
+            });
+            sizes.add(descriptor.getSize());
+            return;
+        }
+        download.ranged = true;
+        log.info("Downloading " + title(descriptor) + " (" + descriptor.getSize() + " bytes) in ranges of "
+                + rangeSize + " bytes");
+        for (long offset = 0; offset < descriptor.getSize(); offset += rangeSize) {
+            long start = offset;
+            long length = Math.min(rangeSize, descriptor.getSize() - offset);
+            jobs.add(() -> {
+                if (!download.rangesUnsupported
+                        && !client.downloadRange(repository, descriptor.getDigest(), download.file, start, length)) {
+                    download.rangesUnsupported = true;
+                }
+                return null;
+            });
+            sizes.add(length);
+        }
+    }
+
+    /**
+     * Verifies a finished download and moves it into the cache.
+     *
+     * @return the verified blob
+     */
+    private Path complete(String repository, Download download) throws IOException {
+        Descriptor descriptor = download.descriptor;
+        if (download.rangesUnsupported) {
+            log.info("Registry does not support range requests, downloading " + title(descriptor) + " at once");
+            client.downloadBlob(repository, descriptor, download.file);
+        } else if (download.ranged) {
+            RegistryClient.verify(descriptor, Digests.sha256(download.file), Files.size(download.file));
+        }
+        downloadedBlobs.incrementAndGet();
+        downloadedBytes.addAndGet(descriptor.getSize());
+        return cache != null ? cache.add(descriptor.getDigest(), download.file) : download.file;
+    }
+
+    /**
+     * Copies the verified blobs to their targets; downloads that are not cached are moved instead.
+     */
+    private List<Path> place(List<Descriptor> layers, List<Path> targets, Map<String, Path> sources)
+            throws IOException {
+        for (int i = 0; i < layers.size(); i++) {
+            String digest = layers.get(i).getDigest();
+            Path source = sources.get(digest);
+            Path target = targets.get(i);
+            Files.createDirectories(target.getParent());
+            if (cache == null && !targets.contains(source)) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+                // further layers with the same digest are copied from the target
+                sources.put(digest, target);
+            } else {
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * @return file of a layer below {@code base}, named by its title
+     * @throws IOException if the title points outside of {@code base}
+     */
+    private static Path target(Path base, Descriptor layer) throws IOException {
+        String name = title(layer);
+        if (isDirectory(layer)) {
+            // pushed directory, kept as the archive it was pushed as
+            name += ".tar.gz";
+        }
+        Path target = base.resolve(name).normalize();
+        if (!target.startsWith(base) || target.equals(base)) {
+            throw new IOException("Layer title points outside of the target directory: " + name);
+        }
+        return target;
+    }
+
+    private static boolean isDirectory(Descriptor layer) {
+        return layer.getAnnotations() != null && "true".equals(layer.getAnnotations().get(ANNOTATION_UNPACK));
+    }
+
+    private static String title(Descriptor layer) {
+        String title = layer.getAnnotations() != null ? layer.getAnnotations().get(Descriptor.ANNOTATION_TITLE) : null;
+        return title != null ? title : layer.getDigest().substring(Digests.SHA256.length());
+    }
+
+    public int getDownloadedBlobs() {
+        return downloadedBlobs.get();
+    }
+
+    public int getCachedBlobs() {
+        return cachedBlobs.get();
+    }
+
+    public long getDownloadedBytes() {
+        return downloadedBytes.get();
+    }
+
+    /**
+     * Extracts the archive of a pushed directory.
+     */
+    public interface LayerUnpacker {
+
+        /**
+         * @param layer     descriptor of the layer
+         * @param content   the archive, not verified yet
+         * @param directory directory the archive is extracted to, not to be modified
+         * @param staging   directory the files that differ from {@code directory} are written to; they are moved
+         *                  into place once the layer is verified
+         */
+        void unpack(Descriptor layer, InputStream content, Path directory, Path staging) throws IOException;
+    }
+
+    private static class Download {
+        private final Descriptor descriptor;
+        private final Path file;
+        private boolean ranged;
+        private volatile boolean rangesUnsupported;
+
+        Download(Descriptor descriptor, Path file) {
+            this.descriptor = descriptor;
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes files as an OCI artifact: uploads every file as a layer blob, then the (empty) config and finally the
+ * manifest. Blobs the registry already holds are not uploaded again. The manifest is only pushed after all blobs
+ * have been uploaded successfully.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArtifactPusher {
+    private final RegistryClient client;
+    private final DigestCache digestCache;
+    private final Log log;
+    private final AtomicInteger uploadedBlobs = new AtomicInteger();
+    private final AtomicInteger skippedBlobs = new AtomicInteger();
+    private final AtomicInteger mountedBlobs = new AtomicInteger();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final Map<String, Object> blobLocks = new ConcurrentHashMap<>();
+    private final Set<String> pushedBlobs = ConcurrentHashMap.newKeySet();
+    private final List<BlobMetrics> blobMetrics = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Scheduler of concurrent blob uploads; uploads run sequentially if not set.
+     */
+    @Setter
+    private LayerUploadScheduler scheduler;
+
+    /**
+     * Repository of the same registry that already has the blobs, e.g. pushed to just before. Missing blobs are
+     * mounted from it instead of uploaded, if the registry supports it.
+     */
+    @Setter
+    private String mountFrom;
+
+    public ArtifactPusher(RegistryClient client, Log log) {
+        this(client, null, log);
+    }
+
+    /**
+     * @param client      registry client
+     * @param digestCache optional cache of file digests
+     * @param log         logger
+     */
+    public ArtifactPusher(RegistryClient client, DigestCache digestCache, Log log) {
+        this.client = client;
+        this.digestCache = digestCache;
+        this.log = log;
+    }
+
+    /**
+     * @param reference    target of the push
+     * @param artifactType optional artifact type
+     * @param layers       files to push
+     * @return digest of the pushed manifest
+     * @throws IOException if the push fails
+     */
+    public String push(OciReference reference, String artifactType, List<Layer> layers) throws IOException {
+        return pushAll(Collections.singletonList(new Artifact(reference, artifactType, layers))).get(0);
+    }
+
+    /**
+     * Pushes several artifacts together: the layers of all artifacts are uploaded by one scheduler run, largest
+     * first, and a blob shared by several artifacts of a repository is uploaded once. The manifests are pushed
+     * after all blobs have been uploaded.
+     *
+     * @param artifacts artifacts to push
+     * @return digests of the pushed manifests, in the order of {@code artifacts}
+     * @throws IOException if the push fails
+     */
+    public List<String> pushAll(List<Artifact> artifacts) throws IOException {
+        List<List<Descriptor>> layers = uploadLayers(artifacts);
+        List<String> digests = new ArrayList<>();
+        for (int i = 0; i < artifacts.size(); i++) {
+            Artifact artifact = artifacts.get(i);
+            digests.add(pushManifest(artifact.getReference(), artifact.getArtifactType(), layers.get(i),
+                    artifact.getAnnotations()));
+        }
+        return digests;
+    }
+
+    /**
+     * Pushes one artifact per platform and an image index referencing their manifests with their platforms. The
+     * manifests of the platforms are pushed by digest, the index under the tag of {@code reference}, so consumers
+     * resolve the tag and download only the layers of their platform.
+     *
+     * @param reference    target of the index
+     * @param artifactType optional artifact type of the index
+     * @param platforms    artifacts of the platforms, their references are ignored
+     * @return digest of the pushed index
+     * @throws IOException if the push fails
+     */
+    public String pushIndex(OciReference reference, String artifactType, List<Artifact> platforms)
+            throws IOException {
+        List<List<Descriptor>> layers = uploadLayers(platforms);
+        List<Descriptor> manifests = new ArrayList<>();
+        for (int i = 0; i < platforms.size(); i++) {
+            Artifact artifact = platforms.get(i);
+            if (artifact.getPlatform() == null) {
+                throw new IllegalArgumentException("Artifact of an index without platform: " + artifact.getLayers());
+            }
+            String type = StringUtils.defaultIfEmpty(artifact.getArtifactType(), Manifest.UNKNOWN_ARTIFACT_TYPE);
+            byte[] manifest = toManifest(reference.getRepository(), type, layers.get(i), artifact.getAnnotations())
+                    .toJson();
+            String digest = Digests.sha256(manifest);
+            client.putManifest(reference.getRepository(), digest, Manifest.MEDIA_TYPE, manifest);
+            log.info("Pushed " + artifact.getPlatform() + " manifest " + digest);
+
+            Descriptor descriptor = new Descriptor(Manifest.MEDIA_TYPE, digest, manifest.length);
+            descriptor.setArtifactType(type);
+            descriptor.setPlatform(artifact.getPlatform());
+            if (artifact.getAnnotations() != null) {
+                artifact.getAnnotations().forEach(descriptor::addAnnotation);
+            }
+            manifests.add(descriptor);
+        }
+
+        Manifest index = new Manifest();
+        index.setMediaType(Manifest.INDEX_MEDIA_TYPE);
+        index.setArtifactType(StringUtils.defaultIfEmpty(artifactType, Manifest.UNKNOWN_ARTIFACT_TYPE));
+        index.setLayers(null);
+        index.setManifests(manifests);
+        String digest = client.putManifest(reference.getRepository(), reference.getReference(),
+                Manifest.INDEX_MEDIA_TYPE, index.toJson());
+        log.info("Pushed " + reference + " (index of " + manifests.size() + " platforms)");
+        log.info("Digest: " + digest);
+        return digest;
+    }
+
+    /**
+     * Uploads the layers of all artifacts in one scheduler run.
+     *
+     * @return descriptors of the layers of each artifact
+     */
+    private List<List<Descriptor>> uploadLayers(List<Artifact> artifacts) throws IOException {
+        List<Callable<Descriptor>> jobs = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        for (Artifact artifact : artifacts) {
+            String repository = artifact.getReference().getRepository();
+            for (Layer layer : artifact.getLayers()) {
+                sizes.add(Files.size(layer.getFile()));
+                jobs.add(() -> uploadLayer(repository, layer));
+            }
+        }
+        LayerUploadScheduler uploadScheduler = scheduler != null
+                ? scheduler : new LayerUploadScheduler(1, null);
+        List<Descriptor> descriptors = uploadScheduler.run(jobs, sizes);
+
+        List<List<Descriptor>> layers = new ArrayList<>();
+        int next = 0;
+        for (Artifact artifact : artifacts) {
+            int count = artifact.getLayers().size();
+            layers.add(descriptors.subList(next, next + count));
+            next += count;
+        }
+        return layers;
+    }
+
+    private Descriptor uploadLayer(String repository, Layer layer) throws IOException {
+        long start = System.nanoTime();
+        boolean digestCached = digestCache != null && digestCache.getCached(layer.getFile()) != null;
+        Descriptor descriptor = describe(layer);
+        BlobMetrics metrics = new BlobMetrics(repository, layer.getTitle(), descriptor.getDigest(),
+                descriptor.getSize());
+        metrics.setDigestCached(digestCached);
+        metrics.setHashMillis(millisSince(start));
+
+        String key = repository + "@" + descriptor.getDigest();
+        int retries = client.getThreadRetries();
+        synchronized (blobLocks.computeIfAbsent(key, k -> new Object())) {
+            start = System.nanoTime();
+            if (pushedBlobs.contains(key)) {
+                log.info("Deduplicated " + layer.getTitle() + " (" + descriptor.getDigest() + ")");
+                skippedBlobs.incrementAndGet();
+                metrics.setStatus(BlobMetrics.DEDUPLICATED);
+            } else if (client.blobExists(repository, descriptor.getDigest(), true)) {
+                log.info("Exists " + layer.getTitle() + " (" + descriptor.getDigest() + ")");
+                skippedBlobs.incrementAndGet();
+                metrics.setStatus(BlobMetrics.EXISTS);
+            } else if (mountFrom != null && !mountFrom.equals(repository)
+                    && client.mountBlob(repository, descriptor.getDigest(), mountFrom)) {
+                log.info("Mounted " + layer.getTitle() + " from " + mountFrom);
+                mountedBlobs.incrementAndGet();
+                metrics.setStatus(BlobMetrics.MOUNTED);
+            } else {
+                log.info("Uploading " + layer.getTitle() + " (" + descriptor.getSize() + " bytes)");
+                client.uploadBlob(repository, descriptor, layer.getFile());
+                uploadedBlobs.incrementAndGet();
+                uploadedBytes.addAndGet(descriptor.getSize());
+                metrics.setStatus(BlobMetrics.UPLOADED);
+            }
+            pushedBlobs.add(key);
+        }
+        metrics.setUploadMillis(millisSince(start));
+        metrics.setRetries(client.getThreadRetries() - retries);
+        blobMetrics.add(metrics);
+        return descriptor;
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Uploads the empty config blob and the manifest referencing the given, already uploaded, layers.
+     *
+     * @param reference    target of the push
+     * @param artifactType optional artifact type
+     * @param layers       descriptors of the uploaded layers
+     * @return digest of the pushed manifest
+     * @throws IOException if the push fails
+     */
+    public String pushManifest(OciReference reference, String artifactType, List<Descriptor> layers)
+            throws IOException {
+        return pushManifest(reference, artifactType, layers, null);
+    }
+
+    private String pushManifest(OciReference reference, String artifactType, List<Descriptor> layers,
+                                Map<String, String> annotations) throws IOException {
+        Manifest manifest = toManifest(reference.getRepository(),
+                StringUtils.defaultIfEmpty(artifactType, Manifest.UNKNOWN_ARTIFACT_TYPE), layers, annotations);
+        String digest = client.putManifest(reference.getRepository(), reference.getReference(), Manifest.MEDIA_TYPE,
+                manifest.toJson());
+        log.info("Pushed " + reference);
+        log.info("Digest: " + digest);
+        return digest;
+    }
+
+    /**
+     * Builds the manifest of already uploaded layers, uploading the empty config blob if the registry lacks it.
+     */
+    private Manifest toManifest(String repository, String artifactType, List<Descriptor> layers,
+                                Map<String, String> annotations) throws IOException {
+        Descriptor config = new Descriptor(Manifest.EMPTY_MEDIA_TYPE, Digests.sha256(Manifest.EMPTY_CONFIG),
+                Manifest.EMPTY_CONFIG.length);
+        if (pushedBlobs.add(repository + "@" + config.getDigest())
+                && !client.blobExists(repository, config.getDigest(), true)) {
+            client.uploadBlob(repository, config, Manifest.EMPTY_CONFIG);
+        }
+
+        Manifest manifest = new Manifest();
+        manifest.setArtifactType(artifactType);
+        manifest.setConfig(config);
+        manifest.setLayers(layers);
+        if (annotations != null && !annotations.isEmpty()) {
+            manifest.setAnnotations(annotations);
+        }
+        return manifest;
+    }
+
+    public int getUploadedBlobs() {
+        return uploadedBlobs.get();
+    }
+
+    public int getSkippedBlobs() {
+        return skippedBlobs.get();
+    }
+
+    public int getMountedBlobs() {
+        return mountedBlobs.get();
+    }
+
+    public long getUploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    /**
+     * @return timings of the layer blobs pushed so far, in order of completion
+     */
+    public List<BlobMetrics> getBlobMetrics() {
+        synchronized (blobMetrics) {
+            return new ArrayList<>(blobMetrics);
+        }
+    }
+
+    Descriptor describe(Layer layer) throws IOException {
+        String digest = digestCache != null ? digestCache.digest(layer.getFile()) : Digests.sha256(layer.getFile());
+        Descriptor descriptor = new Descriptor(layer.getMediaType(), digest, Files.size(layer.getFile()));
+        descriptor.addAnnotation(Descriptor.ANNOTATION_TITLE, layer.getTitle());
+        layer.getAnnotations().forEach(descriptor::addAnnotation);
+        return descriptor;
+    }
+}
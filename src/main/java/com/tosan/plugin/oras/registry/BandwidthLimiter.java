@@ -0,0 +1,158 @@
+package com.tosan.plugin.oras.registry;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiting the bytes sent to a registry per second. One limiter per registry is shared by all
+ * concurrent uploads of the build. Requests of at most {@code priorityBytes}, e.g. manifests and small layers, are
+ * served before waiting requests of large blobs, so they are not stuck behind them.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class BandwidthLimiter {
+    public static final long DEFAULT_PRIORITY_BYTES = 1024 * 1024;
+
+    /**
+     * Maximum number of bytes sent per acquired permit, so concurrent uploads interleave.
+     */
+    static final int SLICE_SIZE = 64 * 1024;
+
+    private volatile long bytesPerSecond;
+    private final long burst;
+    private final long priorityBytes;
+    private final Clock clock;
+    private final Object lock = new Object();
+    private final AtomicLong throttledNanos = new AtomicLong();
+    private double tokens;
+    private long refilledAt;
+    private int priorityWaiters;
+
+    /**
+     * @param bytesPerSecond sustained rate
+     * @param burst          bytes that may be sent at once after an idle period, {@code 0} for one second of traffic
+     * @param priorityBytes  requests up to this size are served first, {@code 0} for no priority
+     */
+    public BandwidthLimiter(long bytesPerSecond, long burst, long priorityBytes) {
+        this(bytesPerSecond, burst, priorityBytes, Clock.SYSTEM);
+    }
+
+    BandwidthLimiter(long bytesPerSecond, long burst, long priorityBytes, Clock clock) {
+        if (bytesPerSecond < 1) {
+            throw new IllegalArgumentException("Bandwidth limit must be positive: " + bytesPerSecond);
+        }
+        if (burst < 0 || priorityBytes < 0) {
+            throw new IllegalArgumentException("Burst and priority size must not be negative: " + burst + ", "
+                    + priorityBytes);
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        this.burst = burst > 0 ? burst : bytesPerSecond;
+        this.priorityBytes = priorityBytes;
+        this.clock = clock;
+        this.tokens = this.burst;
+        this.refilledAt = clock.nanoTime();
+    }
+
+    /**
+     * Lowers the sustained rate, e.g. when another execution of the build configures a smaller limit.
+     *
+     * @param bytesPerSecond new rate, ignored if not below the current one
+     */
+    public void limitTo(long bytesPerSecond) {
+        synchronized (lock) {
+            if (bytesPerSecond > 0 && bytesPerSecond < this.bytesPerSecond) {
+                refill();
+                this.bytesPerSecond = bytesPerSecond;
+            }
+        }
+    }
+
+    /**
+     * @param contentLength size of a request body, negative if unknown
+     * @return whether the request is served before large ones
+     */
+    public boolean isPriority(long contentLength) {
+        return contentLength >= 0 && contentLength <= priorityBytes;
+    }
+
+    /**
+     * Waits until {@code bytes} may be sent. A request larger than the burst waits for a full bucket and leaves it
+     * in debt, so the average rate holds.
+     *
+     * @param bytes    number of bytes about to be sent
+     * @param priority whether the bytes belong to a priority request
+     * @throws InterruptedIOException if the thread is interrupted while waiting
+     */
+    public void acquire(int bytes, boolean priority) throws InterruptedIOException {
+        long start = clock.nanoTime();
+        double needed = Math.min(bytes, burst);
+        synchronized (lock) {
+            if (priority) {
+                priorityWaiters++;
+            }
+            try {
+                while (true) {
+                    refill();
+                    if (tokens >= needed && (priority || priorityWaiters == 0)) {
+                        tokens -= bytes;
+                        break;
+                    }
+                    long nanos = (long) Math.ceil(Math.max(0, needed - tokens) * 1e9 / bytesPerSecond);
+                    clock.await(lock, Math.max(1, nanos));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+            } finally {
+                if (priority) {
+                    priorityWaiters--;
+                    lock.notifyAll();
+                }
+            }
+        }
+        throttledNanos.addAndGet(clock.nanoTime() - start);
+    }
+
+    private void refill() {
+        long now = clock.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * (double) bytesPerSecond / 1e9);
+        refilledAt = now;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * @return total time threads waited for bandwidth
+     */
+    public long getThrottledMillis() {
+        return throttledNanos.get() / 1_000_000;
+    }
+
+    /**
+     * Source of time of the limiter, replaced in tests to control the refill.
+     */
+    interface Clock {
+        Clock SYSTEM = new Clock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            @Override
+            public void await(Object lock, long nanos) throws InterruptedException {
+                lock.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos + 999_999)));
+            }
+        };
+
+        long nanoTime();
+
+        /**
+         * Waits on {@code lock}, which the caller holds, until it is notified or {@code nanos} have passed.
+         */
+        void await(Object lock, long nanos) throws InterruptedException;
+    }
+}
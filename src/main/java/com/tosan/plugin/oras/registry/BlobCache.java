@@ -0,0 +1,109 @@
+package com.tosan.plugin.oras.registry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store of pulled blobs and manifests, kept as {@code blobs/sha256/<hex>}. Content is verified
+ * before it is added, so cached blobs are used without asking the registry. Tags resolved while online are recorded
+ * in {@code refs}, so offline builds can resolve them as well.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class BlobCache {
+    private static final Pattern DIGEST = Pattern.compile("sha256:[0-9a-f]{64}");
+
+    private final Path blobs;
+    private final Path refs;
+
+    /**
+     * @param directory cache directory
+     */
+    public BlobCache(Path directory) {
+        this.blobs = directory.resolve("blobs").resolve("sha256");
+        this.refs = directory.resolve("refs");
+    }
+
+    /**
+     * @param descriptor descriptor of the blob
+     * @return the cached blob or {@code null} if it is not cached
+     */
+    public Path find(Descriptor descriptor) throws IOException {
+        Path blob = path(descriptor.getDigest());
+        return Files.isRegularFile(blob) && Files.size(blob) == descriptor.getSize() ? blob : null;
+    }
+
+    /**
+     * @return content of a cached manifest or {@code null} if it is not cached
+     */
+    public byte[] findManifest(String digest) throws IOException {
+        Path manifest = path(digest);
+        return Files.isRegularFile(manifest) ? Files.readAllBytes(manifest) : null;
+    }
+
+    /**
+     * @return a new empty file in the cache directory to download a blob to, see {@link #add}
+     */
+    public Path newTempFile() throws IOException {
+        Files.createDirectories(blobs);
+        return Files.createTempFile(blobs, "download", ".tmp");
+    }
+
+    /**
+     * Moves a verified download into the cache.
+     *
+     * @param digest digest of the content of {@code file}
+     * @param file   file created by {@link #newTempFile}
+     * @return the cached blob
+     */
+    public Path add(String digest, Path file) throws IOException {
+        Path blob = path(digest);
+        Files.move(file, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return blob;
+    }
+
+    public void addManifest(ManifestContent manifest) throws IOException {
+        Path file = newTempFile();
+        Files.write(file, manifest.getContent());
+        add(manifest.getDigest(), file);
+    }
+
+    /**
+     * @return digest the tag of {@code reference} resolved to when it was last pulled, or {@code null}
+     */
+    public String resolve(OciReference reference) throws IOException {
+        Path ref = refPath(reference);
+        return Files.isRegularFile(ref) ? new String(Files.readAllBytes(ref), StandardCharsets.UTF_8).trim() : null;
+    }
+
+    public void record(OciReference reference, String digest) throws IOException {
+        Path ref = refPath(reference);
+        Files.createDirectories(ref.getParent());
+        Path temp = Files.createTempFile(ref.getParent(), "ref", ".tmp");
+        Files.write(temp, digest.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, ref, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path path(String digest) {
+        if (digest == null || !DIGEST.matcher(digest).matches()) {
+            throw new IllegalArgumentException("Unsupported digest: " + digest);
+        }
+        return blobs.resolve(digest.substring(Digests.SHA256.length()));
+    }
+
+    private Path refPath(OciReference reference) {
+        Path ref = refs.resolve(reference.getRegistry().replace(':', '_'));
+        for (String segment : reference.getRepository().split("/")) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                throw new IllegalArgumentException("Invalid repository: " + reference.getRepository());
+            }
+            ref = ref.resolve(segment);
+        }
+        return ref.resolve(reference.getReference());
+    }
+}
@@ -0,0 +1,54 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Data;
+
+/**
+ * Timing of one blob of a push.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+public class BlobMetrics {
+    public static final String UPLOADED = "uploaded";
+    public static final String EXISTS = "exists";
+    public static final String DEDUPLICATED = "deduplicated";
+    public static final String MOUNTED = "mounted";
+
+    private final String repository;
+    private final String title;
+    private final String digest;
+    private final long size;
+
+    /**
+     * One of {@link #UPLOADED}, {@link #EXISTS}, {@link #DEDUPLICATED} or {@link #MOUNTED}.
+     */
+    private String status;
+
+    /**
+     * Whether the digest was taken from the digest cache instead of hashing the file.
+     */
+    private boolean digestCached;
+
+    private long hashMillis;
+
+    /**
+     * Time of the existence check and the upload.
+     */
+    private long uploadMillis;
+
+    /**
+     * Upload throughput, {@code 0} if the blob was not uploaded.
+     */
+    private double mibPerSecond;
+
+    private int retries;
+
+    /**
+     * Sets the upload time and, for uploaded blobs, the throughput.
+     */
+    public void setUploadMillis(long uploadMillis) {
+        this.uploadMillis = uploadMillis;
+        mibPerSecond = UPLOADED.equals(status) ? size / (1024.0 * 1024.0) / (Math.max(1, uploadMillis) / 1000.0) : 0;
+    }
+}
@@ -0,0 +1,272 @@
+package com.tosan.plugin.oras.registry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Output stream uploading everything written to it as a blob, using a chunked upload session ({@code PATCH}
+ * requests of {@code chunkSize} bytes). Digest and size are computed on the fly; closing the stream completes the
+ * upload with the final chunk. The content is never written to disk. A writer that fails has to {@link #abort} the
+ * upload instead of closing it, so no truncated blob is committed; closing after a failed write aborts as well.
+ * <p>
+ * With a pipeline depth above zero, chunks are sent by a separate uploader thread while the writer fills the next
+ * chunk. At most {@code depth} chunks wait for upload; a writer that is faster than the network blocks, so memory
+ * stays bounded by {@code (depth + 2) * chunkSize}.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class BlobUploadOutputStream extends OutputStream {
+    private static final AtomicInteger uploaderNumber = new AtomicInteger();
+
+    private final RegistryClient client;
+    private final String repository;
+    private final MessageDigest digest = Digests.newSha256();
+    private final int chunkSize;
+    private final BlockingQueue<Chunk> pending;
+    private final BlockingQueue<byte[]> freeBuffers;
+    private final Thread uploader;
+
+    private byte[] chunk;
+    private String location;
+    private int count;
+    private long size;
+    private String blobDigest;
+    private boolean aborted;
+    private boolean broken;
+    private volatile IOException failure;
+
+    BlobUploadOutputStream(RegistryClient client, String repository, String location, int chunkSize) {
+        this(client, repository, location, chunkSize, 0);
+    }
+
+    /**
+     * @param location      location of the upload session, or {@code null} to start the session with the first
+     *                      chunk (pipelined uploads only)
+     * @param pipelineDepth number of chunks queued for the uploader thread, {@code 0} sends chunks on the writing
+     *                      thread
+     */
+    BlobUploadOutputStream(RegistryClient client, String repository, String location, int chunkSize,
+                           int pipelineDepth) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        if (pipelineDepth < 0) {
+            throw new IllegalArgumentException("Pipeline depth must not be negative: " + pipelineDepth);
+        }
+        this.client = client;
+        this.repository = repository;
+        this.location = location;
+        this.chunkSize = chunkSize;
+        this.chunk = new byte[chunkSize];
+        if (pipelineDepth > 0) {
+            pending = new ArrayBlockingQueue<>(pipelineDepth);
+            freeBuffers = new ArrayBlockingQueue<>(pipelineDepth + 1);
+            uploader = new Thread(this::upload, "oras-upload-pipeline-" + uploaderNumber.incrementAndGet());
+            uploader.setDaemon(true);
+            uploader.start();
+        } else if (location == null) {
+            throw new IllegalArgumentException("Location is required without pipeline");
+        } else {
+            pending = null;
+            freeBuffers = null;
+            uploader = null;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        chunk[count++] = (byte) b;
+        if (count == chunkSize) {
+            sendChunk();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, chunkSize - count);
+            System.arraycopy(b, off, chunk, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == chunkSize) {
+                sendChunk();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (blobDigest != null || aborted) {
+            return;
+        }
+        if (broken) {
+            abort();
+            throw new IOException("Upload to " + repository + " failed, the blob is not completed");
+        }
+        digest.update(chunk, 0, count);
+        String computed = Digests.toDigest(digest.digest());
+        try {
+            if (uploader == null) {
+                client.completeUpload(repository, location, computed, chunk, count, size);
+            } else {
+                enqueue(new Chunk(chunk, count, size, computed));
+                try {
+                    uploader.join();
+                } catch (InterruptedException e) {
+                    uploader.interrupt();
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while uploading");
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        } catch (IOException e) {
+            abort();
+            throw e;
+        }
+        size += count;
+        count = 0;
+        blobDigest = computed;
+    }
+
+    /**
+     * Abandons the upload: chunks not sent yet are dropped, the upload session is deleted and the final {@code PUT}
+     * is never sent, so the registry does not commit a truncated blob. Does nothing once the upload is completed.
+     */
+    public void abort() {
+        if (blobDigest != null || aborted) {
+            return;
+        }
+        aborted = true;
+        if (uploader != null) {
+            // only the writer enqueues, so the marker fits once the queue is cleared
+            pending.clear();
+            pending.offer(Chunk.ABORT);
+            try {
+                uploader.join();
+            } catch (InterruptedException e) {
+                uploader.interrupt();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (location != null) {
+            client.cancelUpload(repository, location);
+        }
+    }
+
+    /**
+     * @param mediaType media type of the uploaded blob
+     * @return descriptor of the uploaded blob
+     * @throws IllegalStateException if the stream is not closed yet
+     */
+    public Descriptor toDescriptor(String mediaType) {
+        if (blobDigest == null) {
+            throw new IllegalStateException("Upload is not completed");
+        }
+        return new Descriptor(mediaType, blobDigest, size);
+    }
+
+    private void sendChunk() throws IOException {
+        digest.update(chunk, 0, count);
+        try {
+            if (uploader == null) {
+                location = client.uploadChunk(repository, location, chunk, count, size);
+            } else {
+                enqueue(new Chunk(chunk, count, size, null));
+                byte[] free = freeBuffers.poll();
+                chunk = free != null ? free : new byte[chunkSize];
+            }
+        } catch (IOException e) {
+            broken = true;
+            throw e;
+        }
+        size += count;
+        count = 0;
+    }
+
+    /**
+     * Hands a chunk to the uploader, waiting while the queue is full. Fails as soon as the uploader has failed.
+     */
+    private void enqueue(Chunk next) throws IOException {
+        try {
+            while (!pending.offer(next, 100, TimeUnit.MILLISECONDS)) {
+                checkUploader();
+            }
+        } catch (InterruptedException e) {
+            uploader.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while uploading");
+        }
+        checkUploader();
+    }
+
+    private void checkUploader() throws IOException {
+        if (failure != null) {
+            throw new IOException("Upload failed", failure);
+        }
+    }
+
+    private void upload() {
+        try {
+            if (location == null) {
+                location = client.startUploadWithRetry(repository);
+            }
+            while (true) {
+                Chunk next = pending.take();
+                if (next == Chunk.ABORT) {
+                    return;
+                }
+                if (next.digest != null) {
+                    client.completeUpload(repository, location, next.digest, next.data, next.length, next.offset);
+                    return;
+                }
+                location = client.uploadChunk(repository, location, next.data, next.length, next.offset);
+                freeBuffers.offer(next.data);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Interrupted while uploading");
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (blobDigest != null) {
+            throw new IOException("Upload already completed");
+        }
+        if (aborted) {
+            throw new IOException("Upload aborted");
+        }
+    }
+
+    private static class Chunk {
+        private static final Chunk ABORT = new Chunk(new byte[0], 0, 0, null);
+
+        private final byte[] data;
+        private final int length;
+        private final long offset;
+
+        /**
+         * Digest of the blob if this is the final chunk.
+         */
+        private final String digest;
+
+        Chunk(byte[] data, int length, long offset, String digest) {
+            this.data = data;
+            this.length = length;
+            this.offset = offset;
+            this.digest = digest;
+        }
+    }
+}
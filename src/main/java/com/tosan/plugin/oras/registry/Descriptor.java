@@ -0,0 +1,49 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OCI content descriptor, referencing a blob by media type, digest and size.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+@NoArgsConstructor
+public class Descriptor {
+    public static final String ANNOTATION_TITLE = "org.opencontainers.image.title";
+
+    private String mediaType;
+    private String digest;
+    private long size;
+
+    /**
+     * Artifact type of a referenced manifest.
+     */
+    private String artifactType;
+
+    /**
+     * Platform of a manifest referenced by an image index.
+     */
+    private Platform platform;
+
+    private Map<String, String> annotations;
+
+    public Descriptor(String mediaType, String digest, long size) {
+        this.mediaType = mediaType;
+        this.digest = digest;
+        this.size = size;
+    }
+
+    public Descriptor addAnnotation(String key, String value) {
+        if (annotations == null) {
+            annotations = new LinkedHashMap<>();
+        }
+        annotations.put(key, value);
+        return this;
+    }
+}
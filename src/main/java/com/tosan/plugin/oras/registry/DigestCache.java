@@ -0,0 +1,229 @@
+package com.tosan.plugin.oras.registry;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistent cache of file digests, keyed by absolute path, size and modification time, so that unchanged files are
+ * not hashed again. Entries are stored in a tab separated text file:
+ * {@code <digest> <size> <mtime in ns> <path>}.
+ * <p>
+ * Like git's racy clean check, a file modified less than {@link #RACY_MILLIS} before it was hashed is not saved: a
+ * change within the timestamp granularity of the file system would keep size and mtime and go unnoticed. Such
+ * entries are only used for the rest of the build.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class DigestCache {
+    static final String FILE_NAME = "digests";
+
+    /**
+     * Coarsest timestamp granularity of common file systems (FAT).
+     */
+    static final long RACY_MILLIS = 2000;
+
+    private static final String LOCK_NAME = FILE_NAME + ".lock";
+
+    private final Path file;
+    private final Log log;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> updated = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private volatile boolean modified;
+
+    private DigestCache(Path file, Log log) {
+        this.file = file;
+        this.log = log;
+    }
+
+    /**
+     * @param log logger
+     * @return an empty cache that is not saved, to share digests within a build
+     */
+    public static DigestCache inMemory(Log log) {
+        return new DigestCache(null, log);
+    }
+
+    /**
+     * Loads the cache stored in {@code directory}. A missing or unreadable cache results in an empty cache.
+     *
+     * @param directory cache directory
+     * @param log       logger
+     * @return the cache
+     */
+    public static DigestCache load(Path directory, Log log) {
+        DigestCache cache = new DigestCache(directory.resolve(FILE_NAME), log);
+        cache.entries.putAll(cache.read());
+        return cache;
+    }
+
+    private Map<String, Entry> read() {
+        Map<String, Entry> read = new HashMap<>();
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", 4);
+                    if (fields.length == 4) {
+                        read.put(fields[3],
+                                new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), false));
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                log.warn("Ignoring unreadable digest cache " + file + ": " + e.getMessage());
+                read.clear();
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Returns the sha256 digest of a file, from cache if size and modification time are unchanged.
+     *
+     * @param path file to hash
+     * @return digest in the form {@code sha256:<hex>}
+     * @throws IOException if the file can not be read
+     */
+    public String digest(Path path) throws IOException {
+        String cached = getCached(path);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        Path absolute = path.toAbsolutePath();
+        BasicFileAttributes attributes = Files.readAttributes(absolute, BasicFileAttributes.class);
+        long recorded = System.currentTimeMillis();
+        boolean racy = attributes.lastModifiedTime().toMillis() + RACY_MILLIS > recorded;
+        String key = absolute.toString();
+        misses.incrementAndGet();
+        String digest = Digests.sha256(absolute);
+        entries.put(key, new Entry(digest, attributes.size(), modifiedNanos(attributes), racy));
+        updated.add(key);
+        this.modified = true;
+        return digest;
+    }
+
+    /**
+     * Returns the cached digest of a file without hashing it. Not counted as a hit.
+     *
+     * @param path file to look up
+     * @return the digest if size and modification time are unchanged, otherwise {@code null}
+     * @throws IOException if the file attributes can not be read
+     */
+    public String getCached(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        BasicFileAttributes attributes = Files.readAttributes(absolute, BasicFileAttributes.class);
+        Entry entry = entries.get(absolute.toString());
+        return entry != null && entry.matches(attributes) ? entry.digest : null;
+    }
+
+    /**
+     * Writes the cache to disk, if it has changed and is not {@link #inMemory}. The digests computed since loading
+     * are merged into the entries saved meanwhile by other builds, under a lock, and entries of files that no longer
+     * exist or have changed are dropped. Failures are logged and ignored.
+     */
+    public void save() {
+        if (!modified || file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            // the file lock is held per JVM, so executions of one JVM are serialized separately
+            synchronized (DigestCache.class) {
+                try (FileChannel channel = FileChannel.open(file.resolveSibling(LOCK_NAME),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                     FileLock ignored = channel.lock()) {
+                    write(merge());
+                }
+            }
+            modified = false;
+        } catch (IOException e) {
+            log.warn("Unable to save digest cache " + file + ": " + e.getMessage());
+        }
+    }
+
+    private Map<String, Entry> merge() {
+        Map<String, Entry> merged = read();
+        for (String key : updated) {
+            merged.put(key, entries.get(key));
+        }
+        for (Iterator<Map.Entry<String, Entry>> i = merged.entrySet().iterator(); i.hasNext(); ) {
+            Map.Entry<String, Entry> entry = i.next();
+            if (entry.getValue().racy || !entry.getValue().matches(Paths.get(entry.getKey()))) {
+                i.remove();
+            }
+        }
+        return merged;
+    }
+
+    private void write(Map<String, Entry> merged) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), FILE_NAME, ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Entry> entry : merged.entrySet()) {
+                    Entry value = entry.getValue();
+                    writer.write(value.digest + "\t" + value.size + "\t" + value.modified + "\t" + entry.getKey());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static long modifiedNanos(BasicFileAttributes attributes) {
+        return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    private static class Entry {
+        private final String digest;
+        private final long size;
+        private final long modified;
+        private final boolean racy;
+
+        Entry(String digest, long size, long modified, boolean racy) {
+            this.digest = digest;
+            this.size = size;
+            this.modified = modified;
+            this.racy = racy;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && modified == modifiedNanos(attributes);
+        }
+
+        boolean matches(Path path) {
+            try {
+                return matches(Files.readAttributes(path, BasicFileAttributes.class));
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.tosan.plugin.oras.registry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Helpers for OCI content digests ({@code sha256:<hex>}).
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public final class Digests {
+    public static final String SHA256 = "sha256:";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Digests() {
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    public static String sha256(byte[] content) {
+        return toDigest(newSha256().digest(content));
+    }
+
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return toDigest(digest.digest());
+    }
+
+    /**
+     * @param hash raw sha256 hash
+     * @return digest in the form {@code sha256:<hex>}
+     */
+    public static String toDigest(byte[] hash) {
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xf];
+        }
+        return SHA256 + new String(hex);
+    }
+}
@@ -0,0 +1,63 @@
+package com.tosan.plugin.oras.registry;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Repeatable entity sending a file, read through a file channel into one large buffer instead of the small buffer
+ * of {@link org.apache.http.entity.FileEntity}.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+class FileChannelEntity extends AbstractHttpEntity {
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final Path file;
+
+    FileChannelEntity(Path file) {
+        this.file = file;
+        setContentType(ContentType.APPLICATION_OCTET_STREAM.toString());
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return file.toFile().length();
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                out.write(bytes, 0, buffer.position());
+                buffer.clear();
+            }
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
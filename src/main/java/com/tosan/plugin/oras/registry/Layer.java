@@ -0,0 +1,47 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A file to be pushed as a layer of an artifact.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+public class Layer {
+    public static final String DEFAULT_MEDIA_TYPE = "application/vnd.oci.image.layer.v1.tar";
+
+    private final Path file;
+
+    /**
+     * Name of the layer, recorded as {@value Descriptor#ANNOTATION_TITLE} annotation.
+     */
+    private final String title;
+
+    private final String mediaType;
+
+    private final Map<String, String> annotations = new LinkedHashMap<>();
+
+    /**
+     * Parses a file reference in the format of the oras cli: {@code path[:mediaType]}.
+     *
+     * @param baseDirectory directory the path is relative to
+     * @param fileReference file reference
+     * @return the layer
+     */
+    public static Layer of(Path baseDirectory, String fileReference) {
+        String path = fileReference;
+        String mediaType = DEFAULT_MEDIA_TYPE;
+        int separator = fileReference.lastIndexOf(':');
+        if (separator > 1) {
+            path = fileReference.substring(0, separator);
+            mediaType = fileReference.substring(separator + 1);
+        }
+        return new Layer(baseDirectory.resolve(path).toAbsolutePath(), path.replace('\\', '/'), mediaType);
+    }
+}
@@ -0,0 +1,116 @@
+package com.tosan.plugin.oras.registry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs blob uploads concurrently. At most {@code parallelism} uploads of one push run at the same time, and the
+ * number of concurrent uploads to one registry is additionally bounded by permits shared by all schedulers of the
+ * registry in the build. Uploads are started largest first to shorten the critical path.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class LayerUploadScheduler {
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    private final int parallelism;
+    private final Semaphore permits;
+
+    /**
+     * @param parallelism maximum number of concurrent uploads of this scheduler
+     * @param permits     connection permits of the registry, one per running upload, {@code null} for no limit
+     */
+    public LayerUploadScheduler(int parallelism, Semaphore permits) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Push parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.permits = permits;
+    }
+
+    /**
+     * Runs upload jobs and waits for all of them. If a job fails, the remaining jobs are cancelled.
+     *
+     * @param jobs  upload jobs
+     * @param sizes number of bytes each job uploads, used for ordering
+     * @param <T>   job result type
+     * @return results in the order of {@code jobs}
+     * @throws IOException if a job fails
+     */
+    public <T> List<T> run(List<Callable<T>> jobs, List<Long> sizes) throws IOException {
+        if (parallelism == 1 && permits == null) {
+            List<T> results = new ArrayList<>();
+            for (Callable<T> job : jobs) {
+                results.add(call(job));
+            }
+            return results;
+        }
+
+        List<Integer> order = IntStream.range(0, jobs.size()).boxed()
+                .sorted(Comparator.comparing((Integer i) -> sizes.get(i)).reversed())
+                .collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, jobs.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "oras-upload-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<T>, Integer> positions = new ConcurrentHashMap<>();
+        try {
+            for (Integer index : order) {
+                Callable<T> job = jobs.get(index);
+                positions.put(completion.submit(() -> withPermit(job)), index);
+            }
+
+            List<T> results = new ArrayList<>(jobs.size());
+            for (int i = 0; i < jobs.size(); i++) {
+                results.add(null);
+            }
+            for (int i = 0; i < jobs.size(); i++) {
+                Future<T> done = completion.take();
+                results.set(positions.get(done), done.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while uploading");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> T withPermit(Callable<T> job) throws Exception {
+        if (permits == null) {
+            return job.call();
+        }
+        permits.acquire();
+        try {
+            return job.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static <T> T call(Callable<T> job) throws IOException {
+        try {
+            return job.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.tosan.plugin.oras.registry;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OCI image manifest as used for artifacts, or an image index referencing manifests.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+public class Manifest {
+    public static final String MEDIA_TYPE = "application/vnd.oci.image.manifest.v1+json";
+    public static final String INDEX_MEDIA_TYPE = "application/vnd.oci.image.index.v1+json";
+    public static final String EMPTY_MEDIA_TYPE = "application/vnd.oci.empty.v1+json";
+    public static final String UNKNOWN_ARTIFACT_TYPE = "application/vnd.unknown.artifact.v1";
+    public static final byte[] EMPTY_CONFIG = "{}".getBytes(StandardCharsets.UTF_8);
+
+    static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private int schemaVersion = 2;
+    private String mediaType = MEDIA_TYPE;
+    private String artifactType;
+    private Descriptor config;
+    private List<Descriptor> layers = new ArrayList<>();
+
+    /**
+     * Manifests referenced by an image index, {@code null} for image manifests.
+     */
+    private List<Descriptor> manifests;
+    private Map<String, String> annotations;
+
+    public static Manifest fromJson(byte[] json) {
+        return GSON.fromJson(new String(json, StandardCharsets.UTF_8), Manifest.class);
+    }
+
+    public byte[] toJson() {
+        return GSON.toJson(this).getBytes(StandardCharsets.UTF_8);
+    }
+}
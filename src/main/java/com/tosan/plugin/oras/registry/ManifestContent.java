@@ -0,0 +1,20 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Data;
+
+/**
+ * Raw manifest as returned by a registry, kept byte for byte so it keeps its digest when pushed again.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+public class ManifestContent {
+    private final String mediaType;
+    private final String digest;
+    private final byte[] content;
+
+    public Manifest toManifest() {
+        return Manifest.fromJson(content);
+    }
+}
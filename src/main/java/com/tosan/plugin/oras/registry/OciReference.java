@@ -0,0 +1,75 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Reference to an artifact in an oci registry: {@code registry/repository:tag}.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+public class OciReference {
+    private static final String HTTP = "http://";
+    private static final String HTTPS = "https://";
+
+    /**
+     * Scheme used to talk to the registry, {@code https} unless the registry url starts with {@code http://}.
+     */
+    private final String scheme;
+
+    /**
+     * Host and optional port of the registry.
+     */
+    private final String registry;
+
+    private final String repository;
+
+    /**
+     * Tag or digest.
+     */
+    private final String reference;
+
+    /**
+     * Builds the reference of an upload from the url of a configured registry. The path of the url (if any) is used
+     * as namespace of the repository.
+     *
+     * @param registryUrl url of registry, e.g. {@code registry.example.com/oras}
+     * @param name        name of the artifact
+     * @param reference   tag or digest
+     * @return the reference
+     */
+    public static OciReference of(String registryUrl, String name, String reference) {
+        String url = StringUtils.removeEnd(registryUrl, "/");
+        String scheme = "https";
+        if (url.startsWith(HTTP)) {
+            scheme = "http";
+            url = url.substring(HTTP.length());
+        } else if (url.startsWith(HTTPS)) {
+            url = url.substring(HTTPS.length());
+        }
+
+        int pathIndex = url.indexOf('/');
+        String registry = pathIndex == -1 ? url : url.substring(0, pathIndex);
+        String namespace = pathIndex == -1 ? "" : url.substring(pathIndex + 1) + "/";
+        return new OciReference(scheme, registry, namespace + name, reference);
+    }
+
+    /**
+     * @return base url of the registry, e.g. {@code https://registry.example.com}
+     */
+    public String getRegistryUrl() {
+        return scheme + "://" + registry;
+    }
+
+    public OciReference withReference(String reference) {
+        return new OciReference(scheme, registry, repository, reference);
+    }
+
+    @Override
+    public String toString() {
+        String separator = reference.contains(":") ? "@" : ":";
+        return registry + "/" + repository + separator + reference;
+    }
+}
@@ -0,0 +1,52 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Platform of a manifest referenced by an image index, e.g. {@code linux/amd64} or {@code linux/arm64/v8}.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Platform {
+    private String os;
+    private String architecture;
+
+    /**
+     * Optional variant of the architecture, e.g. {@code v8}.
+     */
+    private String variant;
+
+    /**
+     * @param platform {@code os/architecture[/variant]}
+     * @return the platform
+     * @throws IllegalArgumentException if the platform has no os or architecture
+     */
+    public static Platform parse(String platform) {
+        String[] parts = StringUtils.defaultString(platform).split("/");
+        if (parts.length < 2 || parts.length > 3 || parts[0].isEmpty() || parts[1].isEmpty()) {
+            throw new IllegalArgumentException("Invalid platform: " + platform + ", expected os/architecture[/variant]");
+        }
+        return new Platform(parts[0], parts[1], parts.length == 3 ? parts[2] : null);
+    }
+
+    /**
+     * @param candidate platform of a manifest
+     * @return whether the candidate has this os and architecture, and this variant if one is set
+     */
+    public boolean matches(Platform candidate) {
+        return candidate != null && os.equals(candidate.os) && architecture.equals(candidate.architecture)
+                && (variant == null || variant.equals(candidate.variant));
+    }
+
+    @Override
+    public String toString() {
+        return os + "/" + architecture + (variant != null ? "/" + variant : "");
+    }
+}
@@ -0,0 +1,1006 @@
+package com.tosan.plugin.oras.registry;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.ProxyInputStream;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.*;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.util.EntityUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.PasswordAuthentication;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client for the <a href="https://github.com/opencontainers/distribution-spec">OCI distribution API</a> of one
+ * registry. Supports basic and bearer token authentication; tokens are cached per scope until they expire.
+ * <p>
+ * The underlying http clients and their connection pools are shared by all instances in the JVM, so connections are
+ * reused across layers and across modules of a reactor build.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class RegistryClient {
+    private static final Pattern CHALLENGE_PARAMETER = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+    private static final long TOKEN_EXPIRY_MARGIN_MILLIS = 10_000;
+    private static final int DEFAULT_TOKEN_EXPIRY_SECONDS = 60;
+    private static final int ERROR_BODY_LIMIT = 1024;
+    private static final int MAX_REDIRECTS = 5;
+    private static final int DOWNLOAD_BUFFER_SIZE = 256 * 1024;
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final RequestConfig REQUEST_CONFIG = RequestConfig.custom()
+            .setConnectTimeout(30_000)
+            .setSocketTimeout(300_000)
+            .build();
+
+    /**
+     * Blob downloads follow redirects themselves, see {@link #getBlob}.
+     */
+    private static final RequestConfig BLOB_REQUEST_CONFIG = RequestConfig.copy(REQUEST_CONFIG)
+            .setRedirectsEnabled(false)
+            .build();
+
+    private static volatile CloseableHttpClient secureHttpClient;
+    private static volatile CloseableHttpClient insecureHttpClient;
+
+    private final String registryUrl;
+    private final PasswordAuthentication credentials;
+    private final CloseableHttpClient httpClient;
+    private final Log log;
+    private final Map<String, Token> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Object> tokenLocks = new ConcurrentHashMap<>();
+    private final AtomicInteger retries = new AtomicInteger();
+    private final ThreadLocal<int[]> threadRetries = ThreadLocal.withInitial(() -> new int[1]);
+    private final AtomicLong resumedBytes = new AtomicLong();
+    private volatile Challenge challenge;
+    private volatile RetryPolicy retryPolicy = RetryPolicy.NONE;
+    private volatile int chunkSize = DEFAULT_CHUNK_SIZE;
+    private volatile BandwidthLimiter bandwidthLimiter;
+
+    /**
+     * @param registryUrl base url of registry, e.g. {@code https://registry.example.com}
+     * @param credentials optional credentials
+     * @param insecure    whether to accept any TLS certificate
+     * @param log         logger
+     */
+    public RegistryClient(String registryUrl, PasswordAuthentication credentials, boolean insecure, Log log) {
+        this.registryUrl = registryUrl;
+        this.credentials = credentials;
+        this.httpClient = getHttpClient(insecure);
+        this.log = log;
+    }
+
+    public String getRegistryUrl() {
+        return registryUrl;
+    }
+
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * @param chunkSize files larger than this are uploaded in chunks of this size
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param bandwidthLimiter limiter of the request bodies sent to the registry, {@code null} for no limit
+     */
+    public void setBandwidthLimiter(BandwidthLimiter bandwidthLimiter) {
+        this.bandwidthLimiter = bandwidthLimiter;
+    }
+
+    public BandwidthLimiter getBandwidthLimiter() {
+        return bandwidthLimiter;
+    }
+
+    /**
+     * @return number of retried upload and download requests
+     */
+    public int getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * @return number of requests retried by the current thread, to attribute retries to a blob
+     */
+    int getThreadRetries() {
+        return threadRetries.get()[0];
+    }
+
+    /**
+     * @return number of bytes not sent again thanks to resumed uploads
+     */
+    public long getResumedBytes() {
+        return resumedBytes.get();
+    }
+
+    /**
+     * Checks connectivity and credentials against the {@code /v2/} endpoint.
+     *
+     * @throws IOException if the registry is not reachable or rejects the credentials
+     */
+    public void login() throws IOException {
+        try (CloseableHttpResponse response = execute(new HttpGet(registryUrl + "/v2/"), null)) {
+            expect(response, "login to " + registryUrl, 200);
+        }
+        log.info("Login succeeded: " + registryUrl);
+    }
+
+    public boolean blobExists(String repository, String digest) throws IOException {
+        return blobExists(repository, digest, false);
+    }
+
+    /**
+     * @param forPush whether the check is part of a push, so the token of the push scope is used
+     */
+    boolean blobExists(String repository, String digest, boolean forPush) throws IOException {
+        String scope = forPush ? pushScope(repository) : pullScope(repository);
+        try (CloseableHttpResponse response = execute(new HttpHead(blobUrl(repository, digest)), scope)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == 404) {
+                EntityUtils.consume(response.getEntity());
+                return false;
+            }
+            expect(response, "check blob " + digest, 200);
+            return true;
+        }
+    }
+
+    /**
+     * Uploads a file blob; files larger than the chunk size are sent in chunks, so a failed transfer is resumed
+     * instead of being started over.
+     *
+     * @param repository target repository
+     * @param descriptor descriptor of the blob
+     * @param file       content of the blob
+     * @throws IOException if the upload fails
+     */
+    public void uploadBlob(String repository, Descriptor descriptor, Path file) throws IOException {
+        if (descriptor.getSize() > chunkSize) {
+            uploadChunked(repository, descriptor, file);
+        } else {
+            uploadBlob(repository, descriptor, new FileChannelEntity(file));
+        }
+    }
+
+    public void uploadBlob(String repository, Descriptor descriptor, byte[] content) throws IOException {
+        uploadBlob(repository, descriptor, new ByteArrayEntity(content, ContentType.APPLICATION_OCTET_STREAM));
+    }
+
+    /**
+     * Uploads a blob in a single request (monolithic upload). Transient failures restart the upload.
+     *
+     * @param repository target repository
+     * @param descriptor descriptor of the blob
+     * @param content    repeatable content of the blob
+     * @throws IOException if the upload fails
+     */
+    public void uploadBlob(String repository, Descriptor descriptor, HttpEntity content) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                String location = startUpload(repository);
+                HttpPut request = new HttpPut(withDigest(location, descriptor.getDigest()));
+                request.setEntity(content);
+                try (CloseableHttpResponse response = execute(request, pushScope(repository))) {
+                    expect(response, "upload blob " + descriptor.getDigest(), 201);
+                }
+                return;
+            } catch (IOException e) {
+                retryOrThrow(e, attempt);
+            }
+        }
+    }
+
+    private void uploadChunked(String repository, Descriptor descriptor, Path file) throws IOException {
+        String location = startUploadWithRetry(repository);
+        long size = descriptor.getSize();
+        byte[] chunk = new byte[chunkSize];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long offset = 0;
+            while (true) {
+                int length = read(channel, offset, chunk);
+                if (length == 0 && offset < size) {
+                    // the file was truncated since it was hashed, the blob can not be completed
+                    cancelUpload(repository, location);
+                    throw new IOException("File changed since it was hashed: " + file + " has " + offset
+                            + " of " + size + " bytes");
+                }
+                if (offset + length >= size) {
+                    completeUpload(repository, location, descriptor.getDigest(), chunk, length, offset);
+                    return;
+                }
+                location = uploadChunk(repository, location, chunk, length, offset);
+                offset += length;
+            }
+        }
+    }
+
+    private static int read(FileChannel channel, long position, byte[] chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Starts a blob upload session.
+     *
+     * @param repository target repository
+     * @return absolute location of the upload session
+     * @throws IOException if the registry rejects the upload
+     */
+    public String startUpload(String repository) throws IOException {
+        HttpPost request = new HttpPost(registryUrl + "/v2/" + repository + "/blobs/uploads/");
+        try (CloseableHttpResponse response = execute(request, pushScope(repository))) {
+            expect(response, "start upload to " + repository, 202);
+            return getLocation(response);
+        }
+    }
+
+    /**
+     * Mounts a blob of another repository of this registry into {@code repository}, so it is not uploaded again.
+     *
+     * @param repository     target repository
+     * @param digest         digest of the blob
+     * @param fromRepository repository containing the blob
+     * @return whether the blob was mounted; if not, the registry does not mount it and it has to be uploaded
+     * @throws IOException if the request fails
+     */
+    public boolean mountBlob(String repository, String digest, String fromRepository) throws IOException {
+        HttpPost request;
+        try {
+            request = new HttpPost(new URIBuilder(registryUrl + "/v2/" + repository + "/blobs/uploads/")
+                    .addParameter("mount", digest).addParameter("from", fromRepository).build());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid repository: " + repository, e);
+        }
+        // the token has to cover both repositories
+        try (CloseableHttpResponse response = execute(request,
+                pushScope(repository) + " " + pullScope(fromRepository))) {
+            expect(response, "mount " + digest + " from " + fromRepository + " to " + repository, 201, 202);
+            // 202: the registry started a regular upload instead, which is left to expire
+            return response.getStatusLine().getStatusCode() == 201;
+        }
+    }
+
+    String startUploadWithRetry(String repository) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return startUpload(repository);
+            } catch (IOException e) {
+                retryOrThrow(e, attempt);
+            }
+        }
+    }
+
+    /**
+     * Opens a chunked upload of a blob whose content and size are not known in advance.
+     *
+     * @param repository target repository
+     * @param chunkSize  size of the chunks sent to the registry
+     * @return stream to write the blob to; closing it completes the upload
+     * @throws IOException if the registry rejects the upload
+     */
+    public BlobUploadOutputStream openBlobUpload(String repository, int chunkSize) throws IOException {
+        return new BlobUploadOutputStream(this, repository, startUploadWithRetry(repository), chunkSize);
+    }
+
+    /**
+     * Opens a pipelined chunked upload: chunks are sent by an uploader thread while the caller writes the next ones,
+     * and the upload session is started by the uploader as well.
+     *
+     * @param repository    target repository
+     * @param chunkSize     size of the chunks sent to the registry
+     * @param pipelineDepth maximum number of chunks waiting for upload
+     * @return stream to write the blob to; closing it waits for and completes the upload
+     */
+    public BlobUploadOutputStream openBlobUpload(String repository, int chunkSize, int pipelineDepth) {
+        return new BlobUploadOutputStream(this, repository, null, chunkSize, pipelineDepth);
+    }
+
+    /**
+     * Sends a chunk of an upload session, resuming after transient failures.
+     *
+     * @return location of the upload session for the next request
+     */
+    String uploadChunk(String repository, String location, byte[] chunk, int length, long offset)
+            throws IOException {
+        return sendChunk(repository, location, null, chunk, length, offset);
+    }
+
+    /**
+     * Completes an upload session with the final (possibly empty) chunk, resuming after transient failures.
+     */
+    void completeUpload(String repository, String location, String digest, byte[] chunk, int length, long offset)
+            throws IOException {
+        sendChunk(repository, location, digest, chunk, length, offset);
+    }
+
+    /**
+     * Deletes an upload session, so the registry discards the chunks it received. Failures are only logged, as
+     * registries expire abandoned sessions anyway.
+     */
+    void cancelUpload(String repository, String location) {
+        try (CloseableHttpResponse response = execute(new HttpDelete(location), pushScope(repository))) {
+            expect(response, "cancel upload " + location, 202, 204, 404);
+        } catch (IOException e) {
+            log.warn("Unable to cancel upload " + location + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends a chunk with {@code PATCH}, or with the completing {@code PUT} if {@code digest} is given. After a
+     * transient failure the registry is asked how much of the session it has received, and only the rest of the
+     * chunk is sent again.
+     */
+    private String sendChunk(String repository, String location, String digest, byte[] chunk, int length,
+                             long offset) throws IOException {
+        int acknowledged = 0;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (attempt > 0) {
+                    UploadStatus status = getUploadStatus(repository, location);
+                    if (status == null && digest != null && blobExists(repository, digest, true)) {
+                        // the failed request completed the upload, only its response got lost
+                        return location;
+                    }
+                    if (status == null) {
+                        throw new RegistryException("Upload session " + location + " no longer exists", 404);
+                    }
+                    if (status.offset < offset || status.offset > offset + length) {
+                        throw new RegistryException("Upload session is at offset " + status.offset
+                                + ", expected " + offset + " to " + (offset + length), 416);
+                    }
+                    location = status.location;
+                    acknowledged = (int) (status.offset - offset);
+                    if (status.offset > 0) {
+                        resumedBytes.addAndGet(status.offset);
+                        log.info("Resuming upload at offset " + status.offset);
+                    }
+                }
+                if (digest != null) {
+                    put(repository, location, digest, chunk, acknowledged, length - acknowledged, offset + acknowledged);
+                    return location;
+                }
+                if (acknowledged == length) {
+                    return location;
+                }
+                return patch(repository, location, chunk, acknowledged, length - acknowledged, offset + acknowledged);
+            } catch (IOException e) {
+                retryOrThrow(e, attempt);
+            }
+        }
+    }
+
+    private String patch(String repository, String location, byte[] chunk, int off, int length, long offset)
+            throws IOException {
+        HttpPatch request = new HttpPatch(location);
+        request.setHeader(HttpHeaders.CONTENT_RANGE, offset + "-" + (offset + length - 1));
+        request.setEntity(new ByteArrayEntity(chunk, off, length, ContentType.APPLICATION_OCTET_STREAM));
+        try (CloseableHttpResponse response = execute(request, pushScope(repository))) {
+            expect(response, "upload chunk at offset " + offset, 202);
+            return getLocation(response);
+        }
+    }
+
+    private void put(String repository, String location, String digest, byte[] chunk, int off, int length,
+                     long offset) throws IOException {
+        HttpPut request = new HttpPut(withDigest(location, digest));
+        request.setEntity(new ByteArrayEntity(chunk, off, length, ContentType.APPLICATION_OCTET_STREAM));
+        try (CloseableHttpResponse response = execute(request, pushScope(repository))) {
+            expect(response, "complete upload of " + digest + " at offset " + offset, 201);
+        }
+    }
+
+    /**
+     * @return offset and location of the upload session, or {@code null} if the session does not exist
+     */
+    private UploadStatus getUploadStatus(String repository, String location) throws IOException {
+        try (CloseableHttpResponse response = execute(new HttpGet(location), pushScope(repository))) {
+            if (response.getStatusLine().getStatusCode() == 404) {
+                EntityUtils.consume(response.getEntity());
+                return null;
+            }
+            expect(response, "get upload status", 204);
+            Header range = response.getFirstHeader(HttpHeaders.RANGE);
+            long offset = 0;
+            if (range != null) {
+                // inclusive range of received bytes, "0-<last>"
+                offset = Long.parseLong(range.getValue().substring(range.getValue().indexOf('-') + 1).trim()) + 1;
+            }
+            return new UploadStatus(response.getFirstHeader(HttpHeaders.LOCATION) != null
+                    ? getLocation(response) : location, offset);
+        }
+    }
+
+    /**
+     * Rethrows {@code e} unless the retry policy allows another attempt, in which case it waits for the backoff.
+     */
+    private void retryOrThrow(IOException e, int attempt) throws IOException {
+        if (!retryPolicy.shouldRetry(e, attempt)) {
+            throw e;
+        }
+        retries.incrementAndGet();
+        threadRetries.get()[0]++;
+        log.warn("Request failed (" + e.getMessage() + "), retry " + (attempt + 1) + " of "
+                + retryPolicy.getMaxRetries());
+        retryPolicy.backoff(attempt);
+    }
+
+    /**
+     * Puts a manifest.
+     *
+     * @param repository target repository
+     * @param reference  tag or digest
+     * @param mediaType  media type of the manifest
+     * @param manifest   manifest content
+     * @return digest of the manifest
+     * @throws IOException if the registry rejects the manifest
+     */
+    public String putManifest(String repository, String reference, String mediaType, byte[] manifest)
+            throws IOException {
+        HttpPut request = new HttpPut(registryUrl + "/v2/" + repository + "/manifests/" + reference);
+        request.setEntity(new ByteArrayEntity(manifest, ContentType.create(mediaType)));
+        try (CloseableHttpResponse response = execute(request, pushScope(repository))) {
+            expect(response, "put manifest " + repository + ":" + reference, 201);
+            Header digest = response.getFirstHeader("Docker-Content-Digest");
+            return digest != null ? digest.getValue() : Digests.sha256(manifest);
+        }
+    }
+
+    /**
+     * Fetches a manifest.
+     *
+     * @param repository source repository
+     * @param reference  tag or digest
+     * @return the manifest or {@code null} if it does not exist
+     * @throws IOException if the registry returns an error
+     */
+    public ManifestContent getManifest(String repository, String reference) throws IOException {
+        HttpGet request = new HttpGet(registryUrl + "/v2/" + repository + "/manifests/" + reference);
+        request.setHeader(HttpHeaders.ACCEPT, Manifest.MEDIA_TYPE + ", " + Manifest.INDEX_MEDIA_TYPE);
+        try (CloseableHttpResponse response = execute(request, pullScope(repository))) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == 404) {
+                EntityUtils.consume(response.getEntity());
+                return null;
+            }
+            if (status != 200) {
+                throw error(response, "get manifest " + repository + ":" + reference);
+            }
+            byte[] content = EntityUtils.toByteArray(response.getEntity());
+            Header contentType = response.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+            return new ManifestContent(contentType != null ? contentType.getValue() : Manifest.MEDIA_TYPE,
+                    Digests.sha256(content), content);
+        }
+    }
+
+    /**
+     * Downloads a blob to {@code target}, verifying digest and size while streaming. Transient failures restart the
+     * download.
+     *
+     * @param repository source repository
+     * @param descriptor descriptor of the blob
+     * @param target     file to write, replaced if it exists
+     * @throws IOException if the download fails or the content does not match the descriptor
+     */
+    public void downloadBlob(String repository, Descriptor descriptor, Path target) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                fetchBlob(repository, descriptor, target);
+                return;
+            } catch (IOException e) {
+                retryOrThrow(e, attempt);
+            }
+        }
+    }
+
+    private void fetchBlob(String repository, Descriptor descriptor, Path target) throws IOException {
+        try (CloseableHttpResponse response = getBlob(repository, descriptor.getDigest(), null)) {
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw error(response, "download blob " + descriptor.getDigest());
+            }
+            MessageDigest digest = Digests.newSha256();
+            long size = 0;
+            byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+            try (InputStream in = response.getEntity().getContent();
+                 OutputStream out = Files.newOutputStream(target)) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                    size += n;
+                }
+            }
+            verify(descriptor, Digests.toDigest(digest.digest()), size);
+        }
+    }
+
+    /**
+     * Streams a blob to {@code reader}, e.g. to extract an archive while it is downloaded. Content the reader leaves
+     * unread is consumed afterwards; digest and size are verified once the whole blob has been read. Transient
+     * failures call the reader again with a new stream.
+     *
+     * @param repository source repository
+     * @param descriptor descriptor of the blob
+     * @param reader     consumer of the content
+     * @throws IOException if the download or the reader fails, or the content does not match the descriptor
+     */
+    public void readBlob(String repository, Descriptor descriptor, BlobReader reader) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                streamBlob(repository, descriptor, reader);
+                return;
+            } catch (IOException e) {
+                retryOrThrow(e, attempt);
+            }
+        }
+    }
+
+    private void streamBlob(String repository, Descriptor descriptor, BlobReader reader) throws IOException {
+        try (CloseableHttpResponse response = getBlob(repository, descriptor.getDigest(), null)) {
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw error(response, "download blob " + descriptor.getDigest());
+            }
+            MessageDigest digest = Digests.newSha256();
+            long[] size = {0};
+            try (InputStream in = new ProxyInputStream(
+                    new DigestInputStream(response.getEntity().getContent(), digest)) {
+                @Override
+                protected void afterRead(int n) {
+                    if (n > 0) {
+                        size[0] += n;
+                    }
+                }
+            }) {
+                reader.read(CloseShieldInputStream.wrap(in));
+                IOUtils.consume(in);
+            }
+            verify(descriptor, Digests.toDigest(digest.digest()), size[0]);
+        }
+    }
+
+    /**
+     * Downloads a range of a blob into the same position of {@code target}, so several ranges of a large blob can be
+     * downloaded concurrently. The caller verifies the digest of the complete file.
+     *
+     * @param repository source repository
+     * @param digest     digest of the blob
+     * @param target     file to write the range to, created if missing
+     * @param offset     first byte of the range
+     * @param length     number of bytes of the range
+     * @return {@code false} if the registry does not support range requests, nothing is written then
+     * @throws IOException if the download fails
+     */
+    public boolean downloadRange(String repository, String digest, Path target, long offset, long length)
+            throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return fetchRange(repository, digest, target, offset, length);
+            } catch (IOException e) {
+                retryOrThrow(e, attempt);
+            }
+        }
+    }
+
+    private boolean fetchRange(String repository, String digest, Path target, long offset, long length)
+            throws IOException {
+        String range = "bytes=" + offset + "-" + (offset + length - 1);
+        try (CloseableHttpResponse response = getBlob(repository, digest, range)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == 200) {
+                // closing the response aborts the transfer of the whole blob
+                return false;
+            }
+            if (status != 206) {
+                throw error(response, "download range " + range + " of blob " + digest);
+            }
+            long end = offset + length;
+            long position = offset;
+            byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+            try (InputStream in = response.getEntity().getContent();
+                 FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    if (position + n > end) {
+                        throw new IOException("Registry sent more than range " + range + " of blob " + digest);
+                    }
+                    ByteBuffer data = ByteBuffer.wrap(buffer, 0, n);
+                    while (data.hasRemaining()) {
+                        position += channel.write(data, position);
+                    }
+                }
+            }
+            if (position != end) {
+                throw new IOException("Incomplete range " + range + " of blob " + digest + ": " + (position - offset)
+                        + " bytes received");
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Requests a blob. Registries often redirect blob downloads to a storage backend with a presigned url; such
+     * redirects are followed without the registry credentials, which must not leak to another host.
+     */
+    private CloseableHttpResponse getBlob(String repository, String digest, String range) throws IOException {
+        HttpGet request = newBlobRequest(URI.create(blobUrl(repository, digest)), range);
+        CloseableHttpResponse response = execute(request, pullScope(repository));
+        URI current = request.getURI();
+        URI registry = URI.create(registryUrl);
+        for (int redirects = 0; isRedirect(response); redirects++) {
+            Header location = response.getFirstHeader(HttpHeaders.LOCATION);
+            int status = response.getStatusLine().getStatusCode();
+            EntityUtils.consumeQuietly(response.getEntity());
+            response.close();
+            if (location == null || redirects == MAX_REDIRECTS) {
+                throw new RegistryException("Unable to follow redirect of blob " + digest, status);
+            }
+            current = current.resolve(location.getValue());
+            HttpGet redirected = newBlobRequest(current, range);
+            if (Objects.equals(current.getScheme(), registry.getScheme())
+                    && Objects.equals(current.getAuthority(), registry.getAuthority())) {
+                response = execute(redirected, pullScope(repository));
+            } else {
+                log.debug("Following redirect of blob " + digest + " to " + current.getHost());
+                response = httpClient.execute(redirected);
+            }
+        }
+        return response;
+    }
+
+    private static HttpGet newBlobRequest(URI uri, String range) {
+        HttpGet request = new HttpGet(uri);
+        request.setConfig(BLOB_REQUEST_CONFIG);
+        if (range != null) {
+            request.setHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+
+    private static boolean isRedirect(HttpResponse response) {
+        int status = response.getStatusLine().getStatusCode();
+        return status == 301 || status == 302 || status == 303 || status == 307 || status == 308;
+    }
+
+    /**
+     * @throws IOException if digest or size of downloaded content differ from the descriptor
+     */
+    static void verify(Descriptor descriptor, String digest, long size) throws IOException {
+        if (size != descriptor.getSize() || !descriptor.getDigest().equals(digest)) {
+            throw new IOException("Downloaded content of " + descriptor.getDigest() + " does not match: "
+                    + digest + ", " + size + " bytes");
+        }
+    }
+
+    /**
+     * Executes a request, authenticating as requested by the registry. The entity of the request (if any) must be
+     * repeatable, as the request is sent again after a {@code 401} challenge. It is sent at the rate of the bandwidth
+     * limiter, if any.
+     *
+     * @param request request to execute
+     * @param scope   token scope of the request, e.g. {@code repository:name:pull}, several scopes separated by spaces
+     * @return the response, must be closed by the caller
+     * @throws IOException on I/O errors or failed authentication
+     */
+    CloseableHttpResponse execute(HttpUriRequest request, String scope) throws IOException {
+        BandwidthLimiter limiter = bandwidthLimiter;
+        if (limiter != null && request instanceof HttpEntityEnclosingRequest) {
+            HttpEntityEnclosingRequest upload = (HttpEntityEnclosingRequest) request;
+            if (upload.getEntity() != null && !(upload.getEntity() instanceof ThrottledEntity)) {
+                upload.setEntity(new ThrottledEntity(upload.getEntity(), limiter));
+            }
+        }
+        authorize(request, scope);
+        Header sentAuthorization = request.getFirstHeader(HttpHeaders.AUTHORIZATION);
+        CloseableHttpResponse response = httpClient.execute(request);
+        if (response.getStatusLine().getStatusCode() != 401) {
+            return response;
+        }
+
+        Header authenticate = response.getFirstHeader(HttpHeaders.WWW_AUTHENTICATE);
+        EntityUtils.consumeQuietly(response.getEntity());
+        response.close();
+        if (authenticate == null) {
+            throw new RegistryException("Unauthorized: " + request.getURI(), 401);
+        }
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            if (entity != null && !entity.isRepeatable()) {
+                throw new RegistryException("Unauthorized: " + request.getURI(), 401);
+            }
+        }
+
+        Challenge received = Challenge.parse(authenticate.getValue());
+        log.debug("Authentication challenge: " + received.scheme);
+        challenge = received;
+        if (sentAuthorization != null) {
+            // drop the rejected token only, a concurrent request may have cached a fresh one already
+            Token rejected = tokens.get(tokenKey(scope));
+            if (rejected != null && sentAuthorization.getValue().equals("Bearer " + rejected.value)) {
+                tokens.remove(tokenKey(scope), rejected);
+            }
+        }
+        authorize(request, scope);
+        return httpClient.execute(request);
+    }
+
+    private void authorize(HttpUriRequest request, String scope) throws IOException {
+        Challenge current = challenge;
+        if (current == null) {
+            return;
+        }
+        if (current.isBearer()) {
+            request.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + getToken(current, scope));
+        } else if (credentials != null) {
+            request.setHeader(HttpHeaders.AUTHORIZATION, basic());
+        }
+    }
+
+    private String getToken(Challenge current, String scope) throws IOException {
+        String key = tokenKey(scope);
+        Token token = tokens.get(key);
+        if ((token == null || token.isExpired()) && key.endsWith(":pull")) {
+            // a push token includes pull access
+            token = tokens.get(key + ",push");
+        }
+        if (token == null || token.isExpired()) {
+            // one token request per scope, concurrent requests wait for it
+            synchronized (tokenLocks.computeIfAbsent(key, k -> new Object())) {
+                token = tokens.get(key);
+                if (token == null || token.isExpired()) {
+                    token = fetchToken(current, scope != null ? scope : current.parameters.get("scope"));
+                    tokens.put(key, token);
+                }
+            }
+        }
+        return token.value;
+    }
+
+    private Token fetchToken(Challenge current, String scope) throws IOException {
+        String realm = current.parameters.get("realm");
+        if (realm == null) {
+            throw new RegistryException("Bearer challenge without realm from " + registryUrl, 401);
+        }
+        HttpGet request;
+        try {
+            URIBuilder uri = new URIBuilder(realm);
+            if (current.parameters.containsKey("service")) {
+                uri.addParameter("service", current.parameters.get("service"));
+            }
+            if (scope != null) {
+                for (String part : scope.split(" ")) {
+                    uri.addParameter("scope", part);
+                }
+            }
+            request = new HttpGet(uri.build());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid token realm: " + realm, e);
+        }
+        if (credentials != null) {
+            request.setHeader(HttpHeaders.AUTHORIZATION, basic());
+        }
+
+        log.debug("Requesting token for scope " + scope);
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw error(response, "get token from " + realm);
+            }
+            JsonObject json = JsonParser.parseString(EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8))
+                    .getAsJsonObject();
+            String value = json.has("token") ? json.get("token").getAsString() : json.get("access_token").getAsString();
+            int expiresIn = json.has("expires_in") ? json.get("expires_in").getAsInt() : DEFAULT_TOKEN_EXPIRY_SECONDS;
+            return new Token(value, System.currentTimeMillis() + expiresIn * 1000L - TOKEN_EXPIRY_MARGIN_MILLIS);
+        }
+    }
+
+    private String basic() {
+        String userPass = credentials.getUserName() + ":" + new String(credentials.getPassword());
+        return "Basic " + Base64.getEncoder().encodeToString(userPass.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Consumes the response if its status is one of {@code expected}, otherwise throws a {@link RegistryException}.
+     */
+    static void expect(HttpResponse response, String action, int... expected) throws IOException {
+        int status = response.getStatusLine().getStatusCode();
+        for (int code : expected) {
+            if (status == code) {
+                EntityUtils.consume(response.getEntity());
+                return;
+            }
+        }
+        throw error(response, action);
+    }
+
+    static RegistryException error(HttpResponse response, String action) throws IOException {
+        int status = response.getStatusLine().getStatusCode();
+        String body = response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+        if (body.length() > ERROR_BODY_LIMIT) {
+            body = body.substring(0, ERROR_BODY_LIMIT) + "...";
+        }
+        return new RegistryException("Unable to " + action + ": " + response.getStatusLine() + " " + body, status);
+    }
+
+    String getLocation(HttpResponse response) throws RegistryException {
+        Header location = response.getFirstHeader(HttpHeaders.LOCATION);
+        if (location == null) {
+            throw new RegistryException("Registry response has no location", response.getStatusLine().getStatusCode());
+        }
+        return URI.create(registryUrl + "/").resolve(location.getValue()).toString();
+    }
+
+    static String withDigest(String location, String digest) {
+        try {
+            return location + (location.contains("?") ? "&" : "?") + "digest=" + URLEncoder.encode(digest, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    String blobUrl(String repository, String digest) {
+        return registryUrl + "/v2/" + repository + "/blobs/" + digest;
+    }
+
+    static String pullScope(String repository) {
+        return "repository:" + repository + ":pull";
+    }
+
+    static String pushScope(String repository) {
+        return "repository:" + repository + ":pull,push";
+    }
+
+    private static String tokenKey(String scope) {
+        return scope == null ? "" : scope;
+    }
+
+    private static CloseableHttpClient getHttpClient(boolean insecure) {
+        if (insecure) {
+            if (insecureHttpClient == null) {
+                synchronized (RegistryClient.class) {
+                    if (insecureHttpClient == null) {
+                        insecureHttpClient = createHttpClient(true);
+                    }
+                }
+            }
+            return insecureHttpClient;
+        }
+        if (secureHttpClient == null) {
+            synchronized (RegistryClient.class) {
+                if (secureHttpClient == null) {
+                    secureHttpClient = createHttpClient(false);
+                }
+            }
+        }
+        return secureHttpClient;
+    }
+
+    private static CloseableHttpClient createHttpClient(boolean insecure) {
+        HttpClientBuilder builder = HttpClients.custom()
+                .useSystemProperties()
+                .setDefaultRequestConfig(REQUEST_CONFIG)
+                .setMaxConnTotal(64)
+                .setMaxConnPerRoute(16);
+        if (insecure) {
+            try {
+                builder.setSSLSocketFactory(new SSLConnectionSocketFactory(
+                        new SSLContextBuilder().loadTrustMaterial(null, (chain, authType) -> true).build(),
+                        NoopHostnameVerifier.INSTANCE));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to create insecure ssl context", e);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Consumer of the content of a blob, see {@link #readBlob}.
+     */
+    public interface BlobReader {
+        void read(InputStream content) throws IOException;
+    }
+
+    private static class Challenge {
+        private final String scheme;
+        private final Map<String, String> parameters = new ConcurrentHashMap<>();
+
+        private Challenge(String scheme) {
+            this.scheme = scheme;
+        }
+
+        static Challenge parse(String header) {
+            int space = header.indexOf(' ');
+            Challenge challenge = new Challenge(space == -1 ? header : header.substring(0, space));
+            Matcher matcher = CHALLENGE_PARAMETER.matcher(header);
+            while (matcher.find()) {
+                challenge.parameters.put(matcher.group(1).toLowerCase(), matcher.group(2));
+            }
+            return challenge;
+        }
+
+        boolean isBearer() {
+            return "bearer".equalsIgnoreCase(scheme);
+        }
+    }
+
+    private static class UploadStatus {
+        private final String location;
+        private final long offset;
+
+        UploadStatus(String location, long offset) {
+            this.location = location;
+            this.offset = offset;
+        }
+    }
+
+    private static class Token {
+        private final String value;
+        private final long expiresAt;
+
+        Token(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
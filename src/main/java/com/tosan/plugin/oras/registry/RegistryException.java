@@ -0,0 +1,21 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * Unexpected response of an oci registry.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Getter
+public class RegistryException extends IOException {
+    private final int statusCode;
+
+    public RegistryException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+}
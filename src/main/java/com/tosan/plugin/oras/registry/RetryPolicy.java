@@ -0,0 +1,71 @@
+package com.tosan.plugin.oras.registry;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry policy for transient registry failures: exponential backoff with jitter.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Getter
+public class RetryPolicy {
+    public static final RetryPolicy NONE = new RetryPolicy(0, 0);
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+
+    /**
+     * @param maxRetries           maximum number of retries of one operation
+     * @param initialBackoffMillis backoff before the first retry, doubled for every further retry
+     */
+    public RetryPolicy(int maxRetries, long initialBackoffMillis) {
+        if (maxRetries < 0 || initialBackoffMillis < 0) {
+            throw new IllegalArgumentException("Retries and backoff must not be negative");
+        }
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    /**
+     * @param e       failure of an attempt
+     * @param attempt number of the failed attempt, starting at {@code 0}
+     * @return whether the operation should be retried
+     */
+    public boolean shouldRetry(IOException e, int attempt) {
+        return attempt < maxRetries && isTransient(e);
+    }
+
+    /**
+     * Network errors, server errors, {@code 408} and {@code 429} are considered transient.
+     */
+    static boolean isTransient(IOException e) {
+        if (e instanceof RegistryException) {
+            int status = ((RegistryException) e).getStatusCode();
+            return status >= 500 || status == 408 || status == 429;
+        }
+        return true;
+    }
+
+    /**
+     * Sleeps before the next attempt: a random duration between half and all of the exponential backoff.
+     *
+     * @param attempt number of the failed attempt, starting at {@code 0}
+     * @throws InterruptedIOException if interrupted while sleeping
+     */
+    public void backoff(int attempt) throws InterruptedIOException {
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << Math.min(attempt, 20));
+        long sleep = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.tosan.plugin.oras.registry;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Entity sent at the rate of a {@link BandwidthLimiter}, in slices so concurrent uploads interleave.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+class ThrottledEntity extends HttpEntityWrapper {
+    private final BandwidthLimiter limiter;
+    private final boolean priority;
+
+    ThrottledEntity(HttpEntity entity, BandwidthLimiter limiter) {
+        super(entity);
+        this.limiter = limiter;
+        this.priority = limiter.isPriority(entity.getContentLength());
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        super.writeTo(new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                limiter.acquire(1, priority);
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    int slice = Math.min(len, BandwidthLimiter.SLICE_SIZE);
+                    limiter.acquire(slice, priority);
+                    out.write(b, off, slice);
+                    off += slice;
+                    len -= slice;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                // the connection owns the stream
+                flush();
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.tosan.plugin.oras.util;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compression format applied to the tar stream built by {@link Compression}. The codec determines the archive
+ * extension and the OCI media type of the pushed layer.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public interface ArchiveCodec {
+
+    /**
+     * Level value that selects the default compression level of a codec. Not a valid level of any codec, as zstd
+     * also accepts negative levels.
+     */
+    int DEFAULT_LEVEL = Integer.MIN_VALUE;
+
+    /**
+     * @return file extension of archives written with this codec, without leading dot
+     */
+    String getExtension();
+
+    /**
+     * @return OCI layer media type of archives written with this codec
+     */
+    String getMediaType();
+
+    /**
+     * Wraps {@code out} so that everything written to the returned stream is compressed into {@code out}.
+     * Closing the returned stream closes {@code out}.
+     *
+     * @param out destination of the compressed data
+     * @return compressing stream
+     * @throws IOException if the stream can not be initialized
+     */
+    OutputStream wrap(OutputStream out) throws IOException;
+
+    /**
+     * Wraps {@code in} so that reading the returned stream decompresses the data read from {@code in}, the inverse
+     * of {@link #wrap}. Closing the returned stream closes {@code in}.
+     *
+     * @param in compressed data
+     * @return decompressing stream
+     * @throws IOException if the stream can not be initialized
+     */
+    InputStream unwrap(InputStream in) throws IOException;
+
+    /**
+     * Creates a codec by name.
+     *
+     * @param name      one of {@code gzip}, {@code zstd} or {@code tar}
+     * @param level     compression level or {@link #DEFAULT_LEVEL}; ignored by {@code tar}
+     * @param threads   number of compression threads; ignored by {@code tar}
+     * @param blockSize block size of parallel gzip compression
+     * @return the codec
+     * @throws IllegalArgumentException if the codec name is unknown or the level is out of the range of the codec
+     */
+    static ArchiveCodec forName(String name, int level, int threads, int blockSize) {
+        switch (StringUtils.defaultIfEmpty(name, GzipCodec.NAME).toLowerCase()) {
+            case GzipCodec.NAME:
+                return new GzipCodec(level, threads, blockSize);
+            case ZstdCodec.NAME:
+                return new ZstdCodec(level, threads);
+            case TarCodec.NAME:
+                if (level != DEFAULT_LEVEL) {
+                    throw new IllegalArgumentException("Compression level is not supported by tar: " + level);
+                }
+                return new TarCodec();
+            default:
+                throw new IllegalArgumentException("Unknown compression: " + name + " (expected gzip, zstd or tar)");
+        }
+    }
+
+    /**
+     * @param mediaType OCI layer media type
+     * @return codec reading layers of the media type or {@code null} if the layer is no tar archive
+     */
+    static ArchiveCodec forMediaType(String mediaType) {
+        for (ArchiveCodec codec : new ArchiveCodec[]{new GzipCodec(), new ZstdCodec(DEFAULT_LEVEL, 1), new TarCodec()}) {
+            if (codec.getMediaType().equals(mediaType)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,200 @@
+package com.tosan.plugin.oras.util;
+
+import com.tosan.plugin.oras.registry.Digests;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Fingerprint of the inputs of an archive: the archive settings and path, size, modification time and digest of
+ * every archived file, walked like {@link Compression} does. It is stored next to the archive together with the
+ * digest, size and modification time of the archive, so an unchanged archive can be reused instead of being built
+ * again. Stored as tab separated text.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArchiveFingerprint {
+    private static final String SETTINGS = "settings";
+    private static final String ARCHIVE = "archive";
+    private static final String FILE = "file";
+
+    /**
+     * Settings that influence the archive content, e.g. codec and artifact list.
+     */
+    @Getter
+    private final String settings;
+    private final Map<String, FileEntry> files = new TreeMap<>();
+
+    /**
+     * Digest of the archive built from the inputs.
+     */
+    @Getter
+    @Setter
+    private String archiveDigest;
+
+    @Getter
+    @Setter
+    private long archiveSize;
+
+    /**
+     * Modification time of the archive in milliseconds, {@code -1} if unknown.
+     */
+    @Getter
+    @Setter
+    private long archiveModified = -1;
+
+    public ArchiveFingerprint(String settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Computes the fingerprint of the artifacts. Digests of files whose size and modification time are unchanged
+     * since {@code previous} are taken over instead of being computed again.
+     *
+     * @param settings         settings influencing the archive content
+     * @param workingDirectory directory the artifacts are relative to
+     * @param artifacts        files and directories to archive
+     * @param previous         previous fingerprint or {@code null}
+     * @return the fingerprint
+     * @throws IOException if the artifacts can not be read
+     */
+    public static ArchiveFingerprint compute(String settings, String workingDirectory, String[] artifacts,
+                                             ArchiveFingerprint previous) throws IOException {
+        ArchiveFingerprint fingerprint = new ArchiveFingerprint(settings);
+        Path base = Paths.get(workingDirectory).toAbsolutePath();
+        for (String artifact : artifacts) {
+            Path path = base.resolve(artifact);
+            if (!Files.exists(path)) {
+                continue;
+            }
+            Compression.walkArtifact(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    if (attributes.isRegularFile()) {
+                        String name = base.relativize(file).toString().replace('\\', '/');
+                        long size = attributes.size();
+                        long modified = attributes.lastModifiedTime().toMillis();
+                        FileEntry known = previous != null ? previous.files.get(name) : null;
+                        String digest = known != null && known.size == size && known.modified == modified
+                                ? known.digest : Digests.sha256(file);
+                        fingerprint.files.put(name, new FileEntry(size, modified, digest));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @param file fingerprint file
+     * @return the stored fingerprint or {@code null} if it does not exist or is unreadable
+     */
+    public static ArchiveFingerprint read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ArchiveFingerprint fingerprint = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", 5);
+                if (fields[0].equals(SETTINGS)) {
+                    fingerprint = new ArchiveFingerprint(line.substring(SETTINGS.length() + 1));
+                } else if (fingerprint != null && fields[0].equals(ARCHIVE)) {
+                    fingerprint.archiveDigest = fields[1];
+                    fingerprint.archiveSize = Long.parseLong(fields[2]);
+                    fingerprint.archiveModified = fields.length > 3 ? Long.parseLong(fields[3]) : -1;
+                } else if (fingerprint != null && fields[0].equals(FILE)) {
+                    fingerprint.files.put(fields[4],
+                            new FileEntry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]));
+                }
+            }
+            return fingerprint;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(SETTINGS + "\t" + settings);
+            writer.newLine();
+            writer.write(ARCHIVE + "\t" + archiveDigest + "\t" + archiveSize + "\t" + archiveModified);
+            writer.newLine();
+            for (Map.Entry<String, FileEntry> entry : files.entrySet()) {
+                FileEntry value = entry.getValue();
+                writer.write(FILE + "\t" + value.size + "\t" + value.modified + "\t" + value.digest + "\t" + entry.getKey());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * @param other another fingerprint
+     * @return whether both fingerprints have the same settings and file contents
+     */
+    public boolean sameInputs(ArchiveFingerprint other) {
+        if (other == null || !settings.equals(other.settings) || !files.keySet().equals(other.files.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, FileEntry> entry : files.entrySet()) {
+            if (!entry.getValue().digest.equals(other.files.get(entry.getKey()).digest)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the archive built from the inputs.
+     *
+     * @param archive archive file
+     * @param digest  digest of the archive
+     */
+    public void setArchive(Path archive, String digest) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+        archiveDigest = digest;
+        archiveSize = attributes.size();
+        archiveModified = attributes.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * @param archive archive file
+     * @return whether the archive is the one built from these inputs: same size and modification time, or else the
+     * same digest
+     */
+    public boolean matchesArchive(Path archive) throws IOException {
+        if (archiveDigest == null || !Files.isRegularFile(archive)) {
+            return false;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+        if (attributes.size() != archiveSize) {
+            return false;
+        }
+        return attributes.lastModifiedTime().toMillis() == archiveModified
+                || archiveDigest.equals(Digests.sha256(archive));
+    }
+
+    private static class FileEntry {
+        private final long size;
+        private final long modified;
+        private final String digest;
+
+        FileEntry(long size, long modified, String digest) {
+            this.size = size;
+            this.modified = modified;
+            this.digest = Objects.requireNonNull(digest);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.tosan.plugin.oras.util;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Partitions artifacts into shards that are archived and pushed as separate layers. Shards are built from the sorted
+ * entries of the artifacts, so unchanged inputs produce the same shards and the registry deduplicates them. Shards are
+ * archived with the artifacts as {@link Compression#setEntryRoots entry roots}, so extracting all shards gives the
+ * same layout as extracting the archive of the artifacts.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArchivePartitioner {
+    public static final String DIRECTORY = "directory";
+    public static final String SIZE = "size";
+
+    private ArchivePartitioner() {
+    }
+
+    /**
+     * One shard per top-level directory of the artifacts; the files directly inside an artifact directory and
+     * artifacts that are files form one additional shard.
+     *
+     * @param workingDirectory directory the artifacts are relative to
+     * @param artifacts        files and directories to archive
+     * @return the shards, each a list of paths relative to {@code workingDirectory}
+     * @throws IOException if the artifacts can not be listed
+     */
+    public static List<String[]> byDirectory(String workingDirectory, String[] artifacts) throws IOException {
+        Path base = Paths.get(workingDirectory).toAbsolutePath();
+        List<String[]> shards = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        for (Path entry : topLevelEntries(base, artifacts)) {
+            if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                shards.add(new String[]{relative(base, entry)});
+            } else {
+                files.add(relative(base, entry));
+            }
+        }
+        if (!files.isEmpty()) {
+            shards.add(files.toArray(new String[0]));
+        }
+        return shards;
+    }
+
+    /**
+     * Packs the sorted top-level entries of the artifacts into consecutive shards of at most {@code targetSize}
+     * bytes of input. Directories larger than the target are split into their entries; a single file larger than
+     * the target forms a shard of its own.
+     *
+     * @param workingDirectory directory the artifacts are relative to
+     * @param artifacts        files and directories to archive
+     * @param targetSize       maximum uncompressed size of a shard in bytes
+     * @return the shards, each a list of paths relative to {@code workingDirectory}
+     * @throws IOException if the artifacts can not be read
+     */
+    public static List<String[]> bySize(String workingDirectory, String[] artifacts, long targetSize)
+            throws IOException {
+        if (targetSize < 1) {
+            throw new IllegalArgumentException("Target size must be positive: " + targetSize);
+        }
+        Path base = Paths.get(workingDirectory).toAbsolutePath();
+        List<String[]> shards = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        long[] currentSize = {0};
+        for (Path entry : topLevelEntries(base, artifacts)) {
+            pack(base, entry, targetSize, shards, current, currentSize);
+        }
+        if (!current.isEmpty()) {
+            shards.add(current.toArray(new String[0]));
+        }
+        return shards;
+    }
+
+    private static void pack(Path base, Path entry, long targetSize, List<String[]> shards, List<String> current,
+                             long[] currentSize) throws IOException {
+        long size = size(entry);
+        if (size > targetSize && Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+            for (Path child : list(entry)) {
+                pack(base, child, targetSize, shards, current, currentSize);
+            }
+            return;
+        }
+        if (!current.isEmpty() && currentSize[0] + size > targetSize) {
+            shards.add(current.toArray(new String[0]));
+            current.clear();
+            currentSize[0] = 0;
+        }
+        current.add(relative(base, entry));
+        currentSize[0] += size;
+    }
+
+    /**
+     * Entries of artifact directories and artifacts that are files, in sorted order.
+     */
+    private static List<Path> topLevelEntries(Path base, String[] artifacts) throws IOException {
+        List<Path> entries = new ArrayList<>();
+        for (String artifact : artifacts) {
+            Path path = base.resolve(artifact).normalize();
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                entries.addAll(list(path));
+            } else {
+                entries.add(path);
+            }
+        }
+        return entries;
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> children = Files.list(directory)) {
+            return children.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long size(Path entry) throws IOException {
+        if (!Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+            return Files.size(entry);
+        }
+        long[] size = {0};
+        Files.walkFileTree(entry, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                size[0] += attributes.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+
+    private static String relative(Path base, Path entry) {
+        return base.relativize(entry).toString().replace('\\', '/');
+    }
+}
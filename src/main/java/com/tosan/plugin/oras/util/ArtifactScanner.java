@@ -0,0 +1,139 @@
+package com.tosan.plugin.oras.util;
+
+import org.codehaus.plexus.util.MatchPatterns;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Scans a directory tree for files on a fork-join pool, one task per directory. Excluded directories are pruned
+ * before descending into them, symbolic links are followed (broken links are skipped) and every directory is visited
+ * once, so link cycles end.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArtifactScanner {
+    private final MatchPatterns exclusions;
+    private final int parallelism;
+
+    /**
+     * @param exclusions  ant style patterns of excluded paths, matched case-insensitively against absolute paths
+     * @param parallelism number of scanning threads
+     */
+    public ArtifactScanner(List<String> exclusions, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.exclusions = MatchPatterns.from(exclusions);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Passes every regular file below {@code root} that is not excluded to {@code consumer}, as soon as it is found.
+     * The consumer is called concurrently from the scanning threads.
+     *
+     * @param root     directory to scan
+     * @param consumer receiver of the files
+     * @throws IOException if a directory can not be read
+     */
+    public void scan(Path root, Consumer<Path> consumer) throws IOException {
+        Path directory = root.toAbsolutePath();
+        if (isExcluded(directory)) {
+            return;
+        }
+        Set<Path> visited = ConcurrentHashMap.newKeySet();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(directory, visited, consumer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @param root directory to scan
+     * @return distinct directories below {@code root} that contain files which are not excluded, sorted
+     * @throws IOException if a directory can not be read
+     */
+    public List<String> scanDirectories(Path root) throws IOException {
+        Set<String> directories = ConcurrentHashMap.newKeySet();
+        scan(root, file -> directories.add(file.getParent().toString()));
+        List<String> sorted = new ArrayList<>(directories);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    private boolean isExcluded(Path path) {
+        return exclusions.matches(path.toString(), false);
+    }
+
+    /**
+     * @return attributes of the file or the target of a link, {@code null} for a broken link
+     */
+    private static BasicFileAttributes readAttributes(Path entry) throws IOException {
+        try {
+            return Files.readAttributes(entry, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            if (Files.isSymbolicLink(entry)) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+        private final Path directory;
+        private final Set<Path> visited;
+        private final Consumer<Path> consumer;
+
+        DirectoryTask(Path directory, Set<Path> visited, Consumer<Path> consumer) {
+            this.directory = directory;
+            this.visited = visited;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            try {
+                if (!visited.add(directory.toRealPath())) {
+                    // reached again through a symbolic link
+                    return;
+                }
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                    for (Path entry : entries) {
+                        BasicFileAttributes attributes = readAttributes(entry);
+                        if (attributes == null) {
+                            continue;
+                        }
+                        if (attributes.isDirectory()) {
+                            if (!isExcluded(entry)) {
+                                subtasks.add(new DirectoryTask(entry, visited, consumer));
+                            }
+                        } else if (attributes.isRegularFile()) {
+                            consumer.accept(entry);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subtasks);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.tosan.plugin.oras.util;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of byte buffers reused by the archiving threads of the JVM, so packaging many files does not allocate a
+ * buffer per file or archive. At most {@code maxPooled} buffers of each size are kept; further released buffers are
+ * left to the garbage collector.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class BufferPool {
+    private static final BufferPool SHARED = new BufferPool(16);
+
+    private final int maxPooled;
+    private final Map<Integer, Queue<byte[]>> free = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> freeCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    /**
+     * @param maxPooled maximum number of idle buffers kept per size
+     */
+    public BufferPool(int maxPooled) {
+        if (maxPooled < 0) {
+            throw new IllegalArgumentException("Pool size must not be negative: " + maxPooled);
+        }
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * @return the pool shared by the JVM
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param size size of the buffer
+     * @return an idle buffer of the size or a new one; its content is undefined
+     */
+    public byte[] acquire(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + size);
+        }
+        byte[] buffer = queue(size).poll();
+        if (buffer != null) {
+            freeCounts.get(size).decrementAndGet();
+            return buffer;
+        }
+        allocated.incrementAndGet();
+        return new byte[size];
+    }
+
+    /**
+     * Returns a buffer to the pool. The caller must not use it afterwards.
+     *
+     * @param buffer buffer obtained by {@link #acquire}, ignored if {@code null}
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null) {
+            return;
+        }
+        queue(buffer.length);
+        if (freeCounts.get(buffer.length).incrementAndGet() <= maxPooled) {
+            free.get(buffer.length).offer(buffer);
+        } else {
+            freeCounts.get(buffer.length).decrementAndGet();
+        }
+    }
+
+    private Queue<byte[]> queue(int size) {
+        freeCounts.computeIfAbsent(size, s -> new AtomicInteger());
+        return free.computeIfAbsent(size, s -> new ConcurrentLinkedQueue<>());
+    }
+
+    /**
+     * @return number of buffers allocated because none was idle
+     */
+    public int getAllocated() {
+        return allocated.get();
+    }
+}
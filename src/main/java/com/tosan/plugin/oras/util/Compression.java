@@ -1,84 +1,255 @@
 package com.tosan.plugin.oras.util;
 
+import lombok.Getter;
+import lombok.Setter;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.logging.SystemStreamLog;
 
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Saeed Hashemi
  * @since 25/08/2022
  */
 public class Compression {
+    public static final int DEFAULT_READ_BUFFER_SIZE = 256 * 1024;
+    public static final int DEFAULT_WRITE_BUFFER_SIZE = 64 * 1024;
+
     private static final Log logger = new SystemStreamLog();
 
+    private static final int DIRECTORY_MODE = 040755;
+    private static final int FILE_MODE = 0100644;
+    private static final int EXECUTABLE_MODE = 0100755;
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    @Getter
+    private final ArchiveCodec codec;
+
+    /**
+     * Modification time of all entries in reproducible mode. If set, entries are added in sorted order and owners and
+     * permissions are normalized, so identical inputs produce byte-identical archives. {@code null} keeps the
+     * attributes of the files.
+     */
+    @Getter
+    @Setter
+    private Instant reproducibleTimestamp;
+
+    /**
+     * Entries stored without compression, if the codec supports it. {@code null} compresses all entries.
+     */
+    @Getter
+    @Setter
+    private StorePolicy storePolicy;
+
+    /**
+     * Size of the buffer file contents are read into, taken from the shared {@link BufferPool}.
+     */
+    @Getter
+    private int readBufferSize = DEFAULT_READ_BUFFER_SIZE;
+
+    /**
+     * Artifacts the archived paths were partitioned from, relative to the working directory, e.g. by
+     * {@link ArchivePartitioner}. A path inside one of them is named as in the archive of the artifact itself,
+     * relative to the artifact's parent directory, and the directories above it are added as entries. {@code null}
+     * names every archived path relative to its own parent directory.
+     */
+    @Getter
+    @Setter
+    private String[] entryRoots;
+
+    /**
+     * Size of the buffer between the codec and the destination of the archive.
+     */
+    @Getter
+    private int writeBufferSize = DEFAULT_WRITE_BUFFER_SIZE;
+
+    /**
+     * Number of entries stored without compression by the last {@code compress}.
+     */
+    @Getter
+    private int storedEntries;
+
+    /**
+     * Bytes of file content read by the last {@code compress}.
+     */
+    @Getter
+    private long bytesIn;
+
+    /**
+     * Size of the archive written by the last {@code compress}.
+     */
+    @Getter
+    private long bytesOut;
+
+    private StoringOutputStream storing;
+    private byte[] copyBuffer;
+    private Set<String> parentEntries;
+
+    public Compression() {
+        this(new GzipCodec());
+    }
+
+    /**
+     * @param codec compression applied to the tar stream
+     */
+    public Compression(ArchiveCodec codec) {
+        this.codec = codec;
+    }
+
+    public void setReadBufferSize(int readBufferSize) {
+        if (readBufferSize < 1) {
+            throw new IllegalArgumentException("Read buffer size must be positive: " + readBufferSize);
+        }
+        this.readBufferSize = readBufferSize;
+    }
+
+    public void setWriteBufferSize(int writeBufferSize) {
+        if (writeBufferSize < 1) {
+            throw new IllegalArgumentException("Write buffer size must be positive: " + writeBufferSize);
+        }
+        this.writeBufferSize = writeBufferSize;
+    }
+
     public void compress(String workingDirectory, Path archive, String[] artifacts) {
-        logger.info("Compressing Artifacts to " + archive);
-        try (OutputStream fOut = Files.newOutputStream(archive);
-             BufferedOutputStream buffOut = new BufferedOutputStream(fOut);
-             GzipCompressorOutputStream gzOut = new GzipCompressorOutputStream(buffOut);
-             TarArchiveOutputStream tOut = new TarArchiveOutputStream(gzOut)) {
+        logger.info("Compressing Artifacts to " + archive + " using " + codec);
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            compress(workingDirectory, out, artifacts);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to archive.", e);
+        }
+    }
 
+    /**
+     * Writes the archive of the artifacts to a stream, e.g. directly to a blob upload. Files are streamed one by one
+     * through a pooled buffer with the metadata of the directory walk, so memory use does not grow with the number
+     * of files.
+     *
+     * @param workingDirectory directory the artifacts are relative to
+     * @param out              destination of the archive, closed when the archive is complete; left open if
+     *                         archiving fails, so the caller can discard it, e.g. abort a blob upload
+     * @param artifacts        files and directories to archive
+     * @throws IOException if an artifact can not be read or the archive can not be written
+     */
+    public void compress(String workingDirectory, OutputStream out, String[] artifacts) throws IOException {
+        CountingOutputStream counting = new CountingOutputStream(CloseShieldOutputStream.wrap(out));
+        try (OutputStream fOut = counting;
+             BufferedOutputStream buffOut = new BufferedOutputStream(fOut, writeBufferSize);
+             OutputStream cOut = codec.wrap(buffOut);
+             TarArchiveOutputStream tOut = new TarArchiveOutputStream(cOut)) {
+
+            storing = storePolicy != null && cOut instanceof StoringOutputStream ? (StoringOutputStream) cOut : null;
+            storedEntries = 0;
+            bytesIn = 0;
+            copyBuffer = BufferPool.shared().acquire(readBufferSize);
+            parentEntries = new HashSet<>();
             for (String artifact : artifacts) {
                 //find absolute path of artifacts
                 Path artifactAbsPath = Paths.get(workingDirectory, artifact).toAbsolutePath();
-                if (Files.isRegularFile(artifactAbsPath)) {
-                    addFileToTarGzip(tOut, artifactAbsPath);
-                } else if (Files.isDirectory(artifactAbsPath)) {
-                    addFolderToTarGzip(tOut, artifactAbsPath);
+                BasicFileAttributes attributes;
+                try {
+                    attributes = readAttributes(artifactAbsPath);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                Path base = getEntryBase(workingDirectory, artifactAbsPath);
+                if (entryRoots != null) {
+                    artifactAbsPath = artifactAbsPath.normalize();
+                    addParentsToTarGzip(tOut, base, artifactAbsPath.getParent());
+                }
+                if (attributes.isRegularFile()) {
+                    addFileToTarGzip(tOut, base, artifactAbsPath, attributes);
+                } else if (attributes.isDirectory()) {
+                    addFolderToTarGzip(tOut, base, artifactAbsPath, attributes);
                 }
             }
             tOut.finish();
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to archive.", e);
+        } finally {
+            bytesOut = counting.getByteCount();
+            BufferPool.shared().release(copyBuffer);
+            copyBuffer = null;
+        }
+        out.close();
+    }
+
+    // directory entries are named relative to this path: the parent of the artifact or of its entry root
+    private Path getEntryBase(String workingDirectory, Path artifact) {
+        if (entryRoots != null) {
+            Path normalized = artifact.normalize();
+            for (String root : entryRoots) {
+                Path rootPath = Paths.get(workingDirectory, root).toAbsolutePath().normalize();
+                if (normalized.startsWith(rootPath) && rootPath.getParent() != null) {
+                    return rootPath.getParent();
+                }
+            }
+        }
+        return artifact.getParent();
+    }
+
+    // add the directories between the entry base and a partitioned path, once per archive
+    private void addParentsToTarGzip(TarArchiveOutputStream tOut, Path base, Path dir) throws IOException {
+        if (dir == null || dir.equals(base) || !dir.startsWith(base)) {
+            return;
+        }
+        addParentsToTarGzip(tOut, base, dir.getParent());
+        String name = base.relativize(dir).toString();
+        if (parentEntries.add(name)) {
+            tOut.putArchiveEntry(newEntry(name, readAttributes(dir)));
+            tOut.closeArchiveEntry();
         }
     }
 
     // add a file to tgz
-    private void addFileToTarGzip(TarArchiveOutputStream tOut, Path path) throws IOException {
-        TarArchiveEntry tarEntry = new TarArchiveEntry(path.toFile(), path.getFileName().toString());
-        tOut.putArchiveEntry(tarEntry);
-        // copy file to TarArchiveOutputStream
-        Files.copy(path, tOut);
-        tOut.closeArchiveEntry();
+    private void addFileToTarGzip(TarArchiveOutputStream tOut, Path base, Path path, BasicFileAttributes attributes)
+            throws IOException {
+        addFileEntry(tOut, base.relativize(path).toString(), path, attributes);
     }
 
     //add a folder (with all containing files and sub-folders) to tgz
-    private void addFolderToTarGzip(TarArchiveOutputStream tOut, Path path) throws IOException {
-        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+    private void addFolderToTarGzip(TarArchiveOutputStream tOut, Path base, Path path, BasicFileAttributes attributes)
+            throws IOException {
+        if (reproducibleTimestamp != null) {
+            addSortedFolderToTarGzip(tOut, base, path, attributes);
+            return;
+        }
+        walkArtifact(path, new SimpleFileVisitor<Path>() {
 
             @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
                 // only copy files, no symbolic links
                 if (attributes.isSymbolicLink()) {
                     return FileVisitResult.CONTINUE;
                 }
 
                 // get filename
-                Path targetFile = path.getParent().relativize(file);
-                try {
-                    TarArchiveEntry tarEntry = new TarArchiveEntry(file.toFile(), targetFile.toString());
-                    tOut.putArchiveEntry(tarEntry);
-                    Files.copy(file, tOut);
-                    tOut.closeArchiveEntry();
-                } catch (IOException e) {
-                    logger.error("Unable to archive: " + file, e);
-                }
+                Path targetFile = base.relativize(file);
+                addFileEntry(tOut, targetFile.toString(), file, attributes);
                 return FileVisitResult.CONTINUE;
             }
 
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                Path targetDir = path.getParent().relativize(dir);
-                TarArchiveEntry tarEntry = new TarArchiveEntry(dir.toFile(), targetDir.toString());
-                tOut.putArchiveEntry(tarEntry);
+                Path targetDir = base.relativize(dir);
+                tOut.putArchiveEntry(newEntry(targetDir.toString(), attrs));
                 tOut.closeArchiveEntry();
                 return FileVisitResult.CONTINUE;
             }
@@ -90,4 +261,141 @@ public class Compression {
             }
         });
     }
+
+    /**
+     * Walks an artifact without following symbolic links, except for the artifact itself: a link given as artifact
+     * is walked as its target, with the paths named below the link.
+     */
+    static void walkArtifact(Path artifact, FileVisitor<Path> visitor) throws IOException {
+        if (!Files.isSymbolicLink(artifact)) {
+            Files.walkFileTree(artifact, visitor);
+            return;
+        }
+        Path target = artifact.toRealPath();
+        Files.walkFileTree(target, new FileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                return visitor.preVisitDirectory(named(dir), attributes);
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                return visitor.visitFile(named(file), attributes);
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                return visitor.visitFileFailed(named(file), exc);
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                return visitor.postVisitDirectory(named(dir), exc);
+            }
+
+            private Path named(Path path) {
+                return artifact.resolve(target.relativize(path).toString());
+            }
+        });
+    }
+
+    //add a folder in reproducible mode: children are added in name order, symbolic links are skipped
+    private void addSortedFolderToTarGzip(TarArchiveOutputStream tOut, Path base, Path dir,
+                                          BasicFileAttributes dirAttributes) throws IOException {
+        tOut.putArchiveEntry(newEntry(base.relativize(dir).toString(), dirAttributes));
+        tOut.closeArchiveEntry();
+
+        List<Path> children;
+        try (Stream<Path> list = Files.list(dir)) {
+            children = list.sorted(Comparator.comparing(child -> child.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+        for (Path child : children) {
+            BasicFileAttributes attributes = readAttributes(child, LinkOption.NOFOLLOW_LINKS);
+            if (attributes.isDirectory()) {
+                addSortedFolderToTarGzip(tOut, base, child, attributes);
+            } else if (attributes.isRegularFile()) {
+                addFileEntry(tOut, base.relativize(child).toString(), child, attributes);
+            }
+        }
+    }
+
+    // the file is opened and probed before its header is written: a file that can not be read is skipped, while a
+    // failure after the header would leave a partial entry and fails the archive
+    private void addFileEntry(TarArchiveOutputStream tOut, String name, Path file, BasicFileAttributes attributes)
+            throws IOException {
+        FileChannel channel;
+        boolean store;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            logger.error("Unable to archive: " + file, e);
+            return;
+        }
+        try (FileChannel in = channel) {
+            try {
+                store = storing != null && storePolicy.shouldStore(file, attributes.size());
+            } catch (IOException e) {
+                logger.error("Unable to archive: " + file, e);
+                return;
+            }
+            tOut.putArchiveEntry(newEntry(name, attributes));
+            copyContent(tOut, in, store);
+            tOut.closeArchiveEntry();
+        }
+    }
+
+    // copy file content through a file channel into a reused buffer, storing incompressible files
+    private void copyContent(TarArchiveOutputStream tOut, FileChannel channel, boolean store) throws IOException {
+        if (store) {
+            storing.setStored(true);
+            storedEntries++;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(copyBuffer);
+        try {
+            while (channel.read(buffer) != -1) {
+                tOut.write(copyBuffer, 0, buffer.position());
+                bytesIn += buffer.position();
+                buffer.clear();
+            }
+        } finally {
+            if (store) {
+                storing.setStored(false);
+            }
+        }
+    }
+
+    // entry from the attributes read by the directory walk, without further stat calls
+    private TarArchiveEntry newEntry(String name, BasicFileAttributes attributes) {
+        boolean directory = attributes.isDirectory();
+        TarArchiveEntry entry = new TarArchiveEntry(directory ? name + "/" : name);
+        if (directory) {
+            entry.setMode(DIRECTORY_MODE);
+        } else {
+            entry.setSize(attributes.size());
+            entry.setMode(reproducibleTimestamp != null && isExecutable(attributes) ? EXECUTABLE_MODE : FILE_MODE);
+        }
+        if (reproducibleTimestamp == null) {
+            entry.setModTime(attributes.lastModifiedTime());
+            return entry;
+        }
+        entry.setModTime(FileTime.from(reproducibleTimestamp));
+        entry.setUserId(0);
+        entry.setGroupId(0);
+        entry.setUserName("");
+        entry.setGroupName("");
+        return entry;
+    }
+
+    // posix attributes carry the permissions with the same stat call, the walk only provides basic ones
+    private static BasicFileAttributes readAttributes(Path path, LinkOption... options) throws IOException {
+        return POSIX ? Files.readAttributes(path, PosixFileAttributes.class, options)
+                : Files.readAttributes(path, BasicFileAttributes.class, options);
+    }
+
+    private static boolean isExecutable(BasicFileAttributes attributes) {
+        return attributes instanceof PosixFileAttributes
+                && ((PosixFileAttributes) attributes).permissions().contains(PosixFilePermission.OWNER_EXECUTE);
+    }
 }
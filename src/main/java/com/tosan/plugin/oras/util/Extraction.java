@@ -0,0 +1,375 @@
+package com.tosan.plugin.oras.util;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Inverse of {@link Compression}: decompresses and unpacks an archive in one pass over the stream, so an archive can
+ * be extracted while it is downloaded. Files are written by a pool of writer threads while the next entries are
+ * read. Files whose size and content already match are not written again, and entries pointing outside of the
+ * target directory are rejected. With a staging directory, changed files are written there instead, so the target
+ * directory stays untouched until the caller has verified the archive and moves them into place.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class Extraction {
+    private static final Log logger = new SystemStreamLog();
+
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * Larger files are written by the reading thread, smaller ones are buffered and handed to the writers.
+     */
+    private static final int MAX_BUFFERED_FILE_SIZE = 1024 * 1024;
+
+    @Getter
+    private final ArchiveCodec codec;
+
+    /**
+     * Number of threads writing files.
+     */
+    @Getter
+    @Setter
+    private int threads = 1;
+
+    private final AtomicInteger extractedFiles = new AtomicInteger();
+    private final AtomicInteger unchangedFiles = new AtomicInteger();
+    private final Set<Path> checkedDirectories = ConcurrentHashMap.newKeySet();
+    private Path base;
+    private Path output;
+    private byte[] copyBuffer;
+    private byte[] compareBuffer;
+
+    public Extraction() {
+        this(new GzipCodec());
+    }
+
+    /**
+     * @param codec compression of the tar stream
+     */
+    public Extraction(ArchiveCodec codec) {
+        this.codec = codec;
+    }
+
+    public void extract(Path archive, Path targetDirectory) throws IOException {
+        logger.info("Extracting " + archive + " to " + targetDirectory + " using " + codec);
+        extract(Files.newInputStream(archive), targetDirectory);
+    }
+
+    /**
+     * Extracts an archive from a stream, e.g. directly from a blob download.
+     *
+     * @param in              the archive, closed when it is extracted
+     * @param targetDirectory directory the entries are extracted to
+     * @throws IOException if the archive can not be read or an entry points outside of {@code targetDirectory}
+     */
+    public void extract(InputStream in, Path targetDirectory) throws IOException {
+        extract(in, targetDirectory, null);
+    }
+
+    /**
+     * Extracts an archive from a stream, writing the entries that differ from {@code targetDirectory} below
+     * {@code stagingDirectory}, e.g. until the digest of a download is verified. The target directory is only read.
+     *
+     * @param in               the archive, closed when it is extracted
+     * @param targetDirectory  directory the entries are compared with
+     * @param stagingDirectory directory the changed entries are written to, {@code null} to write them to the target
+     * @throws IOException if the archive can not be read or an entry points outside of {@code targetDirectory}
+     */
+    public void extract(InputStream in, Path targetDirectory, Path stagingDirectory) throws IOException {
+        base = Files.createDirectories(targetDirectory.toAbsolutePath().normalize()).toRealPath();
+        output = stagingDirectory != null
+                ? Files.createDirectories(stagingDirectory.toAbsolutePath().normalize()).toRealPath() : base;
+        extractedFiles.set(0);
+        unchangedFiles.set(0);
+        checkedDirectories.clear();
+        checkedDirectories.add(output);
+        ThreadPoolExecutor writers = threads > 1 ? newWriters() : null;
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        try (InputStream fIn = in;
+             BufferedInputStream buffIn = new BufferedInputStream(fIn, COPY_BUFFER_SIZE);
+             InputStream cIn = codec.unwrap(buffIn);
+             TarArchiveInputStream tIn = new TarArchiveInputStream(cIn)) {
+            TarArchiveEntry entry;
+            while ((entry = tIn.getNextEntry()) != null) {
+                if (failure.get() != null) {
+                    break;
+                }
+                Path target = resolve(base, entry.getName());
+                if (entry.isDirectory()) {
+                    createDirectories(output.resolve(base.relativize(target)));
+                } else if (!entry.isFile()) {
+                    // like Compression, only regular files and directories are archived
+                    logger.warn("Skipping " + entry.getName() + ": links and special files are not extracted");
+                } else if (writers != null && entry.getSize() <= MAX_BUFFERED_FILE_SIZE) {
+                    byte[] content = readFully(tIn, (int) entry.getSize());
+                    TarArchiveEntry file = entry;
+                    writers.execute(() -> {
+                        try {
+                            writeFile(target, file, content);
+                        } catch (IOException e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    });
+                } else {
+                    writeFile(target, entry, tIn);
+                }
+            }
+        } finally {
+            if (writers != null) {
+                awaitWriters(writers);
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * @return number of files written by the last {@code extract}
+     */
+    public int getExtractedFiles() {
+        return extractedFiles.get();
+    }
+
+    /**
+     * @return number of files the last {@code extract} left in place, as their content was unchanged
+     */
+    public int getUnchangedFiles() {
+        return unchangedFiles.get();
+    }
+
+    private ThreadPoolExecutor newWriters() {
+        // a full queue makes the reading thread write the file itself, which bounds the buffered content
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(threads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "oras-extract");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static void awaitWriters(ThreadPoolExecutor writers) throws IOException {
+        writers.shutdown();
+        try {
+            writers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            writers.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while extracting");
+        }
+    }
+
+    /**
+     * @return the target of an entry
+     * @throws IOException if the entry points outside of {@code base}
+     */
+    private static Path resolve(Path base, String name) throws IOException {
+        Path target = base.resolve(name).normalize();
+        if (Paths.get(name).isAbsolute() || !target.startsWith(base)) {
+            throw new IOException("Archive entry points outside of the target directory: " + name);
+        }
+        return target;
+    }
+
+    /**
+     * Creates a directory and checks that it is not reached through a symbolic link to outside of the directory
+     * written to.
+     */
+    private void createDirectories(Path directory) throws IOException {
+        if (checkedDirectories.contains(directory)) {
+            return;
+        }
+        Files.createDirectories(directory);
+        if (!directory.toRealPath().startsWith(output)) {
+            throw new IOException("Directory is a link to outside of the target directory: " + directory);
+        }
+        checkedDirectories.add(directory);
+    }
+
+    /**
+     * Without staging, creates the parent directory of {@code target} and removes a link in its place.
+     */
+    private void prepare(Path target) throws IOException {
+        if (output == base) {
+            createDirectories(target.getParent());
+            if (Files.isSymbolicLink(target)) {
+                Files.delete(target);
+            }
+        }
+    }
+
+    /**
+     * @return the file the entry of {@code target} is written to: the target itself or its staged counterpart
+     */
+    private Path outputFile(Path target) throws IOException {
+        if (output == base) {
+            return target;
+        }
+        Path file = output.resolve(base.relativize(target));
+        createDirectories(file.getParent());
+        return file;
+    }
+
+    /**
+     * @return whether {@code target} is a regular file below the target directory, not reached through a link
+     */
+    private boolean isExisting(Path target) throws IOException {
+        return Files.isRegularFile(target, LinkOption.NOFOLLOW_LINKS)
+                && (output == base || target.getParent().toRealPath().startsWith(base));
+    }
+
+    private void writeFile(Path target, TarArchiveEntry entry, byte[] content) throws IOException {
+        prepare(target);
+        if (sameContent(target, content)) {
+            unchangedFiles.incrementAndGet();
+            return;
+        }
+        Path file = outputFile(target);
+        Files.write(file, content);
+        setAttributes(file, entry);
+        extractedFiles.incrementAndGet();
+    }
+
+    /**
+     * Streams a large entry to its file. An existing file of the same size is compared while reading and only
+     * written from the first differing chunk on; a staged file starts with a copy of the equal chunks.
+     */
+    private void writeFile(Path target, TarArchiveEntry entry, InputStream content) throws IOException {
+        prepare(target);
+        if (copyBuffer == null) {
+            copyBuffer = new byte[COPY_BUFFER_SIZE];
+            compareBuffer = new byte[COPY_BUFFER_SIZE];
+        }
+        boolean existing = isExisting(target) && Files.size(target) == entry.getSize();
+        boolean changed = !existing;
+        Path file = changed ? outputFile(target) : null;
+        FileChannel current = null;
+        FileChannel out = null;
+        try {
+            if (existing) {
+                current = output == base
+                        ? FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                        : FileChannel.open(target, StandardOpenOption.READ);
+            } else {
+                out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            long position = 0;
+            int n;
+            while ((n = content.read(copyBuffer)) != -1) {
+                if (!changed && !sameChunk(current, position, n)) {
+                    changed = true;
+                    file = outputFile(target);
+                    out = output == base ? current : copy(current, file, position);
+                }
+                if (changed) {
+                    ByteBuffer buffer = ByteBuffer.wrap(copyBuffer, 0, n);
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer, position + buffer.position());
+                    }
+                }
+                position += n;
+            }
+        } finally {
+            if (out != null && out != current) {
+                out.close();
+            }
+            if (current != null) {
+                current.close();
+            }
+        }
+        if (!changed) {
+            unchangedFiles.incrementAndGet();
+            return;
+        }
+        setAttributes(file, entry);
+        extractedFiles.incrementAndGet();
+    }
+
+    /**
+     * @return {@code file}, opened for writing and starting with the first {@code length} bytes of {@code source}
+     */
+    private static FileChannel copy(FileChannel source, Path file, long length) throws IOException {
+        FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            for (long copied = 0; copied < length; ) {
+                copied += source.transferTo(copied, length - copied, out);
+            }
+            return out;
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    private boolean sameChunk(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(compareBuffer, 0, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            if (compareBuffer[i] != copyBuffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameContent(Path target, byte[] content) throws IOException {
+        return isExisting(target) && Files.size(target) == content.length
+                && Arrays.equals(Files.readAllBytes(target), content);
+    }
+
+    private static byte[] readFully(InputStream in, int size) throws IOException {
+        byte[] content = new byte[size];
+        int read = 0;
+        while (read < size) {
+            int n = in.read(content, read, size - read);
+            if (n < 0) {
+                throw new IOException("Truncated archive entry");
+            }
+            read += n;
+        }
+        return content;
+    }
+
+    private static void setAttributes(Path target, TarArchiveEntry entry) throws IOException {
+        Files.setLastModifiedTime(target, FileTime.fromMillis(entry.getModTime().getTime()));
+        if ((entry.getMode() & 0100) != 0) {
+            try {
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(target);
+                permissions.add(PosixFilePermission.OWNER_EXECUTE);
+                Files.setPosixFilePermissions(target, permissions);
+            } catch (UnsupportedOperationException e) {
+                // no posix permissions on this file system
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tosan.plugin.oras.util;
+
+import lombok.Getter;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip codec, optionally compressing blocks in parallel with {@link ParallelGzipOutputStream}. Both streams can
+ * store incompressible entries, see {@link StorePolicy}.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Getter
+public class GzipCodec implements ArchiveCodec {
+    public static final String NAME = "gzip";
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private final int level;
+    private final int threads;
+    private final int blockSize;
+
+    public GzipCodec() {
+        this(DEFAULT_LEVEL, 1, DEFAULT_BLOCK_SIZE);
+    }
+
+    public GzipCodec(int level, int threads, int blockSize) {
+        if (level != DEFAULT_LEVEL && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Gzip level must be between 0 and 9: " + level);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Compression threads must be positive: " + threads);
+        }
+        this.level = level;
+        this.threads = threads;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String getExtension() {
+        return "tgz";
+    }
+
+    @Override
+    public String getMediaType() {
+        return "application/vnd.oci.image.layer.v1.tar+gzip";
+    }
+
+    @Override
+    public OutputStream wrap(OutputStream out) throws IOException {
+        int deflateLevel = level == DEFAULT_LEVEL ? Deflater.DEFAULT_COMPRESSION : level;
+        if (threads > 1) {
+            return new ParallelGzipOutputStream(out, deflateLevel, threads, blockSize);
+        }
+        // no timestamp in the header, so identical content gives identical archives
+        return new GzipOutputStream(out, deflateLevel);
+    }
+
+    @Override
+    public InputStream unwrap(InputStream in) throws IOException {
+        // parallel and stored blocks may be written as several gzip members
+        return new GzipCompressorInputStream(in, true);
+    }
+
+    @Override
+    public String toString() {
+        return NAME + "(level=" + (level == DEFAULT_LEVEL ? "default" : level) + ", threads=" + threads + ")";
+    }
+}
@@ -0,0 +1,78 @@
+package com.tosan.plugin.oras.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Single threaded gzip output stream whose compression level can be switched to storing while writing. The header
+ * has no timestamp, like the one of {@link ParallelGzipOutputStream}.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class GzipOutputStream extends DeflaterOutputStream implements StoringOutputStream {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int level;
+    private final CRC32 crc = new CRC32();
+    private boolean finished;
+
+    /**
+     * @param out   the underlying stream, closed when this stream is closed
+     * @param level deflate level, see {@link Deflater}
+     * @throws IOException if the gzip header can not be written
+     */
+    public GzipOutputStream(OutputStream out, int level) throws IOException {
+        super(out, new Deflater(level, true), BUFFER_SIZE);
+        this.level = level;
+        out.write(new byte[]{
+                (byte) 0x1f, (byte) 0x8b,             // magic
+                Deflater.DEFLATED,                    // compression method
+                0,                                    // flags
+                0, 0, 0, 0,                           // modification time
+                (byte) (level == Deflater.BEST_COMPRESSION ? 2 : level == Deflater.BEST_SPEED ? 4 : 0),
+                (byte) 255                            // operating system: unknown
+        });
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    @Override
+    public void setStored(boolean stored) {
+        def.setLevel(stored ? Deflater.NO_COMPRESSION : level);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        super.finish();
+        writeIntLE(crc.getValue());
+        writeIntLE(def.getBytesRead());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            def.end();
+        }
+    }
+
+    private void writeIntLE(long value) throws IOException {
+        out.write((int) (value & 0xff));
+        out.write((int) ((value >> 8) & 0xff));
+        out.write((int) ((value >> 16) & 0xff));
+        out.write((int) ((value >> 24) & 0xff));
+    }
+}
@@ -37,6 +37,34 @@ public class OCIRegistry {
     @ToString.Exclude
     private String password;
 
+    /**
+     * Maximum number of concurrent blob uploads to this registry in the build, {@code 0} for no limit. The limit is
+     * shared by all modules; if they configure different limits, the smallest applies.
+     */
+    @Parameter(property = "oci.repo.maxConnections", defaultValue = "0")
+    private int maxConnections;
+
+    /**
+     * Maximum number of bytes per second sent to this registry by all uploads in the build, {@code 0} for no limit.
+     * If modules configure different limits, the smallest applies.
+     */
+    @Parameter(property = "oci.repo.maxBytesPerSecond", defaultValue = "0")
+    private long maxBytesPerSecond;
+
+    /**
+     * Bytes that may be sent at once after an idle period when the bandwidth is limited, {@code 0} for one second of
+     * traffic.
+     */
+    @Parameter(property = "oci.repo.burstBytes", defaultValue = "0")
+    private long burstBytes;
+
+    /**
+     * When the bandwidth is limited, requests up to this size (manifests, small layers) are sent before large blobs,
+     * {@code 0} for no priority.
+     */
+    @Parameter(property = "oci.repo.priorityBytes", defaultValue = "1048576")
+    private long priorityBytes = 1024 * 1024;
+
     /**
      * For set ociRegistry when using the plugin just in command-line and without defining in the project's pom.
      *
@@ -0,0 +1,256 @@
+package com.tosan.plugin.oras.util;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the oras executable. Arguments are passed as a list, so paths and values containing spaces are not split.
+ * Output is read by threads of a pool shared by all invocations in the JVM and forwarded to the log at a bounded
+ * rate. Status lines ({@code Uploaded <digest> <title>}) are parsed into progress events and a json document printed
+ * with {@code --format json} is returned as result.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class OrasProcess {
+    public static final int DEFAULT_MAX_LINES_PER_SECOND = 50;
+
+    private static final Pattern STATUS = Pattern.compile(
+            "^(Uploading|Uploaded|Exists|Skipped|Downloading|Downloaded|Restored)\\s+(\\S+)\\s+(.*)$");
+    private static final int MAX_JSON_SIZE = 1024 * 1024;
+    private static final int ERROR_LINES = 20;
+
+    private static final ExecutorService PUMPS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "oras-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Map<String, Path> EXECUTABLES = new ConcurrentHashMap<>();
+
+    private final Path executable;
+    private final Log log;
+
+    /**
+     * Directory the process runs in.
+     */
+    @Setter
+    private File workingDirectory;
+
+    /**
+     * Lines of standard output forwarded to the log per second; further lines are only logged at debug level.
+     * Standard error is always forwarded.
+     */
+    @Getter
+    @Setter
+    private int maxLinesPerSecond = DEFAULT_MAX_LINES_PER_SECOND;
+
+    /**
+     * @param executable the oras executable
+     * @param log        log the output is forwarded to
+     */
+    public OrasProcess(Path executable, Log log) {
+        this.executable = executable;
+        this.log = log;
+    }
+
+    /**
+     * Finds an executable in the given directories, e.g. of the {@code PATH}. Found executables are cached for the
+     * JVM by executable and directories.
+     *
+     * @return the absolute path of the executable or {@code null} if it is not found
+     */
+    public static Path findInPath(String executable, String[] directories) {
+        String key = executable + File.pathSeparator + String.join(File.pathSeparator, directories);
+        Path cached = EXECUTABLES.get(key);
+        if (cached != null && Files.exists(cached)) {
+            return cached;
+        }
+        for (String directory : directories) {
+            Path candidate = Paths.get(directory).resolve(executable);
+            if (Files.exists(candidate)) {
+                Path found = candidate.toAbsolutePath();
+                EXECUTABLES.put(key, found);
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs {@code oras <arguments>} and waits for it to exit.
+     *
+     * @param arguments arguments of the command, starting with the sub command
+     * @param stdin     optional input, e.g. a password
+     * @return exit code, timing, parsed progress and output of the process
+     * @throws IOException if the process can not be started or is interrupted
+     */
+    public Result run(List<String> arguments, String stdin) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(executable.toString());
+        command.addAll(arguments);
+        ProcessBuilder builder = new ProcessBuilder(command);
+        if (workingDirectory != null) {
+            builder.directory(workingDirectory);
+        }
+
+        Result result = new Result();
+        long start = System.nanoTime();
+        Process process = builder.start();
+        Future<?> output = PUMPS.submit(() -> readOutput(process.getInputStream(), result, start));
+        Future<?> errors = PUMPS.submit(() -> readErrors(process.getErrorStream(), result));
+        try (OutputStream in = process.getOutputStream()) {
+            if (stdin != null && !stdin.isEmpty()) {
+                in.write(stdin.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            log.debug("Unable to write to stdin of oras: " + e.getMessage());
+        }
+        try {
+            result.exitCode = process.waitFor();
+            output.get();
+            errors.get();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while running oras");
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to read output of oras", e.getCause());
+        }
+        result.millis = (System.nanoTime() - start) / 1_000_000;
+        if (result.suppressedLines > 0) {
+            log.info("Suppressed " + result.suppressedLines + " lines of oras output");
+        }
+        return result;
+    }
+
+    private void readOutput(InputStream in, Result result, long start) {
+        StringBuilder json = null;
+        long second = -1;
+        int linesInSecond = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long elapsed = (System.nanoTime() - start) / 1_000_000;
+                Matcher status = STATUS.matcher(line.trim());
+                if (status.matches()) {
+                    result.progress.add(new Progress(status.group(1), status.group(2), status.group(3), elapsed));
+                }
+                if (json == null && line.startsWith("{")) {
+                    json = new StringBuilder();
+                }
+                if (json != null && json.length() < MAX_JSON_SIZE) {
+                    json.append(line).append('\n');
+                }
+
+                if (elapsed / 1000 != second) {
+                    second = elapsed / 1000;
+                    linesInSecond = 0;
+                }
+                if (linesInSecond++ < maxLinesPerSecond) {
+                    log.info(line);
+                } else {
+                    result.suppressedLines++;
+                    if (log.isDebugEnabled()) {
+                        log.debug(line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Unable to read output of oras", e);
+        }
+        if (json != null) {
+            try {
+                result.json = JsonParser.parseString(json.toString()).getAsJsonObject();
+            } catch (JsonParseException | IllegalStateException e) {
+                log.debug("Output of oras is not a json object: " + e.getMessage());
+            }
+        }
+    }
+
+    private void readErrors(InputStream in, Result result) {
+        Deque<String> lines = new ArrayDeque<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                log.error(line);
+                if (lines.size() == ERROR_LINES) {
+                    lines.removeFirst();
+                }
+                lines.addLast(line);
+            }
+        } catch (IOException e) {
+            log.error("Unable to read errors of oras", e);
+        }
+        result.errorLines = Collections.unmodifiableList(new ArrayList<>(lines));
+    }
+
+    /**
+     * Outcome of an oras invocation.
+     */
+    @Getter
+    public static class Result {
+        private int exitCode;
+        private long millis;
+        private final List<Progress> progress = Collections.synchronizedList(new ArrayList<>());
+
+        /**
+         * Document printed with {@code --format json}, {@code null} if the output is no json object.
+         */
+        private JsonObject json;
+
+        /**
+         * Last lines of standard error.
+         */
+        private List<String> errorLines = Collections.emptyList();
+
+        /**
+         * Lines of standard output that exceeded {@code maxLinesPerSecond}.
+         */
+        private int suppressedLines;
+    }
+
+    /**
+     * A status line of oras, e.g. {@code Uploaded 2e6d42e2b3b0 file.txt}.
+     */
+    @Data
+    public static class Progress {
+        private final String status;
+        private final String digest;
+        private final String title;
+
+        /**
+         * Time since the start of the process.
+         */
+        private final long millis;
+    }
+}
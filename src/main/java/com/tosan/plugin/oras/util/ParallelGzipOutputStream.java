@@ -0,0 +1,236 @@
+package com.tosan.plugin.oras.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip output stream that deflates independent blocks of input on a pool of worker threads (pigz-style).
+ * <p>
+ * Every block is primed with the last 32 KiB of the previous block and ended with a sync flush, so the
+ * concatenated blocks form a single deflate stream and the result is one ordinary gzip member that any
+ * gzip reader (e.g. {@code tar xzf}) can decompress. The CRC is computed on the writing thread.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ParallelGzipOutputStream extends OutputStream implements StoringOutputStream {
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int DEFLATE_BUFFER_SIZE = 64 * 1024;
+    private static final byte[] HEADER = {
+            (byte) 0x1f, (byte) 0x8b, // magic
+            Deflater.DEFLATED,        // compression method
+            0,                        // flags
+            0, 0, 0, 0,               // modification time
+            0,                        // extra flags
+            (byte) 255                // operating system: unknown
+    };
+
+    private final OutputStream out;
+    private final int level;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block;
+    private int count;
+    private byte[] previousBlock;
+    private int previousCount;
+    private long totalIn;
+    private boolean stored;
+    private boolean closed;
+
+    /**
+     * @param out       the underlying stream, closed when this stream is closed
+     * @param level     deflate level, see {@link Deflater}
+     * @param threads   number of worker threads
+     * @param blockSize size of the independently compressed input blocks in bytes
+     * @throws IOException if the gzip header can not be written
+     */
+    public ParallelGzipOutputStream(OutputStream out, int level, int threads, int blockSize) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        if (blockSize < DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("blockSize must be at least " + DICTIONARY_SIZE + ": " + blockSize);
+        }
+        this.out = out;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+        this.block = new byte[blockSize];
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block[count++] = (byte) b;
+        if (count == blockSize) {
+            submitBlock(false);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Ends the current block, so the stored data starts in a block of its own.
+     */
+    @Override
+    public void setStored(boolean stored) throws IOException {
+        ensureOpen();
+        if (this.stored != stored && count > 0) {
+            submitBlock(false);
+        }
+        this.stored = stored;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            writeNextBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock(true);
+            while (!pending.isEmpty()) {
+                writeNextBlock();
+            }
+            writeTrailer();
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        final byte[] input = block;
+        final int length = count;
+        final byte[] dictionary = previousBlock;
+        final int dictionaryLength = Math.min(previousCount, DICTIONARY_SIZE);
+        final int dictionaryOffset = previousCount - dictionaryLength;
+        final int blockLevel = stored ? Deflater.NO_COMPRESSION : level;
+
+        crc.update(input, 0, length);
+        totalIn += length;
+        pending.add(executor.submit(() ->
+                deflate(input, length, blockLevel, dictionary, dictionaryOffset, dictionaryLength, last)));
+
+        previousBlock = input;
+        previousCount = length;
+        block = last ? null : new byte[blockSize];
+        count = 0;
+
+        while (!pending.isEmpty() && (pending.size() >= maxPendingBlocks || pending.peek().isDone())) {
+            writeNextBlock();
+        }
+    }
+
+    private byte[] deflate(byte[] input, int length, int blockLevel, byte[] dictionary, int dictionaryOffset,
+                           int dictionaryLength, boolean last) {
+        Deflater deflater = new Deflater(blockLevel, true);
+        try {
+            if (dictionaryLength > 0) {
+                deflater.setDictionary(dictionary, dictionaryOffset, dictionaryLength);
+            }
+            deflater.setInput(input, 0, length);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] buffer = new byte[DEFLATE_BUFFER_SIZE];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, n);
+                } while (n == buffer.length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeNextBlock() throws IOException {
+        Future<byte[]> next = pending.poll();
+        try {
+            out.write(next.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to compress block", e.getCause());
+        }
+    }
+
+    private void writeTrailer() throws IOException {
+        writeIntLE(crc.getValue());
+        writeIntLE(totalIn);
+    }
+
+    private void writeIntLE(long value) throws IOException {
+        out.write((int) (value & 0xff));
+        out.write((int) ((value >> 8) & 0xff));
+        out.write((int) ((value >> 16) & 0xff));
+        out.write((int) ((value >> 24) & 0xff));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private static final AtomicInteger poolNumber = new AtomicInteger();
+        private final int pool = poolNumber.incrementAndGet();
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "oras-gzip-" + pool + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.tosan.plugin.oras.util;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * POJO for the artifacts of one platform, pushed as a manifest of an image index.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Data
+public class PlatformArtifacts {
+
+    /**
+     * Operating system, e.g. {@code linux}.
+     */
+    private String os;
+
+    /**
+     * Architecture, e.g. {@code amd64} or {@code arm64}.
+     */
+    private String architecture;
+
+    /**
+     * Optional variant of the architecture, e.g. {@code v8}.
+     */
+    private String variant;
+
+    /**
+     * Files and directories of the platform, relative to the working directory.
+     */
+    private String[] artifacts;
+
+    /**
+     * Annotations of the manifest of the platform, also recorded in the index.
+     */
+    private Map<String, String> annotations;
+
+    /**
+     * @return the platform as {@code os/architecture[/variant]}
+     */
+    public String getName() {
+        return os + "/" + architecture + (variant != null && !variant.isEmpty() ? "/" + variant : "");
+    }
+}
@@ -0,0 +1,56 @@
+package com.tosan.plugin.oras.util;
+
+import lombok.Getter;
+
+/**
+ * Decides whether a push to several registries succeeded: {@code all} registries, {@code any} of them or a
+ * {@code quorum}, i.e. more than half of them.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ReplicationPolicy {
+    public static final String ALL = "all";
+    public static final String ANY = "any";
+    public static final String QUORUM = "quorum";
+
+    @Getter
+    private final String name;
+
+    private ReplicationPolicy(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param name {@code all}, {@code any} or {@code quorum}
+     * @return the policy
+     * @throws IllegalArgumentException if the policy is unknown
+     */
+    public static ReplicationPolicy forName(String name) {
+        if (ALL.equals(name) || ANY.equals(name) || QUORUM.equals(name)) {
+            return new ReplicationPolicy(name);
+        }
+        throw new IllegalArgumentException("Unknown mirror policy: " + name + ", expected all, any or quorum");
+    }
+
+    /**
+     * @param succeeded number of registries the push succeeded to
+     * @param targets   number of registries pushed to
+     * @return whether the push as a whole succeeded
+     */
+    public boolean isSatisfied(int succeeded, int targets) {
+        switch (name) {
+            case ANY:
+                return succeeded > 0;
+            case QUORUM:
+                return succeeded * 2 > targets;
+            default:
+                return succeeded == targets;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,111 @@
+package com.tosan.plugin.oras.util;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decides which archive entries are stored instead of compressed: files whose name matches one of the patterns,
+ * e.g. jars and images that are compressed already, and optionally files whose first bytes look random.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class StorePolicy {
+    public static final List<String> DEFAULT_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+            "*.jar", "*.war", "*.ear", "*.zip", "*.gz", "*.tgz", "*.bz2", "*.xz", "*.zst", "*.7z",
+            "*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.mp4", "*.woff2"));
+
+    private static final int PROBE_SIZE = 64 * 1024;
+    private static final int MIN_PROBE_SIZE = 4 * 1024;
+
+    /**
+     * Entropy in bits per byte above which probed content is considered incompressible; deflate rarely saves
+     * more than a few percent on such content.
+     */
+    private static final double ENTROPY_THRESHOLD = 7.5;
+
+    @Getter
+    private final List<String> patterns;
+    @Getter
+    private final boolean probe;
+    private final List<PathMatcher> matchers = new ArrayList<>();
+
+    /**
+     * @param patterns globs matched against the file name, e.g. {@code *.jar}
+     * @param probe    whether to probe the content of files not matching any pattern
+     */
+    public StorePolicy(List<String> patterns, boolean probe) {
+        this.patterns = patterns;
+        this.probe = probe;
+        for (String pattern : patterns) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+        }
+    }
+
+    /**
+     * @param file regular file to archive
+     * @param size size of the file
+     * @return whether the file should be stored without compression
+     * @throws IOException if the file can not be probed
+     */
+    public boolean shouldStore(Path file, long size) throws IOException {
+        Path name = file.getFileName();
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(name)) {
+                return true;
+            }
+        }
+        return probe && size >= MIN_PROBE_SIZE && entropy(file) > ENTROPY_THRESHOLD;
+    }
+
+    /**
+     * @return Shannon entropy in bits per byte of the first bytes of the file
+     */
+    static double entropy(Path file) throws IOException {
+        byte[] bytes = BufferPool.shared().acquire(PROBE_SIZE);
+        int length;
+        int[] counts = new int[256];
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                int n;
+                do {
+                    n = channel.read(buffer);
+                } while (n > 0 && buffer.hasRemaining());
+            }
+            length = buffer.position();
+            for (int i = 0; i < length; i++) {
+                counts[bytes[i] & 0xff]++;
+            }
+        } finally {
+            BufferPool.shared().release(bytes);
+        }
+        if (length == 0) {
+            return 0;
+        }
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / length;
+                entropy -= p * Math.log(p) / Math.log(2);
+            }
+        }
+        return entropy;
+    }
+
+    @Override
+    public String toString() {
+        return "store(" + String.join(",", patterns) + (probe ? ", probe" : "") + ")";
+    }
+}
@@ -0,0 +1,19 @@
+package com.tosan.plugin.oras.util;
+
+import java.io.IOException;
+
+/**
+ * Compressing stream that can store data without compression, e.g. entries that are already compressed. The
+ * output stays a single valid stream; only the effort spent on the stored data changes.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public interface StoringOutputStream {
+
+    /**
+     * @param stored whether data written from now on is stored instead of compressed
+     * @throws IOException if pending data can not be processed
+     */
+    void setStored(boolean stored) throws IOException;
+}
@@ -0,0 +1,39 @@
+package com.tosan.plugin.oras.util;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Codec for plain, uncompressed tar archives.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class TarCodec implements ArchiveCodec {
+    public static final String NAME = "tar";
+
+    @Override
+    public String getExtension() {
+        return "tar";
+    }
+
+    @Override
+    public String getMediaType() {
+        return "application/vnd.oci.image.layer.v1.tar";
+    }
+
+    @Override
+    public OutputStream wrap(OutputStream out) {
+        return out;
+    }
+
+    @Override
+    public InputStream unwrap(InputStream in) {
+        return in;
+    }
+
+    @Override
+    public String toString() {
+        return NAME;
+    }
+}
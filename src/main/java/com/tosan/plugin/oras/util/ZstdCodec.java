@@ -0,0 +1,68 @@
+package com.tosan.plugin.oras.util;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Zstandard codec using the native multi-threaded compressor of zstd-jni.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+@Getter
+public class ZstdCodec implements ArchiveCodec {
+    public static final String NAME = "zstd";
+
+    private final int level;
+    private final int threads;
+
+    public ZstdCodec(int level, int threads) {
+        // negative levels are the fast levels of zstd
+        if (level != DEFAULT_LEVEL && (level < Zstd.minCompressionLevel() || level > Zstd.maxCompressionLevel())) {
+            throw new IllegalArgumentException("Zstd level must be between " + Zstd.minCompressionLevel()
+                    + " and " + Zstd.maxCompressionLevel() + ": " + level);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Compression threads must be positive: " + threads);
+        }
+        this.level = level;
+        this.threads = threads;
+    }
+
+    @Override
+    public String getExtension() {
+        return "tar.zst";
+    }
+
+    @Override
+    public String getMediaType() {
+        return "application/vnd.oci.image.layer.v1.tar+zstd";
+    }
+
+    @Override
+    public OutputStream wrap(OutputStream out) throws IOException {
+        ZstdOutputStream zstdOut = new ZstdOutputStream(out);
+        zstdOut.setLevel(level == DEFAULT_LEVEL ? Zstd.defaultCompressionLevel() : level);
+        zstdOut.setChecksum(true);
+        if (threads > 1) {
+            zstdOut.setWorkers(threads);
+        }
+        return zstdOut;
+    }
+
+    @Override
+    public InputStream unwrap(InputStream in) throws IOException {
+        return new ZstdInputStream(in);
+    }
+
+    @Override
+    public String toString() {
+        return NAME + "(level=" + (level == DEFAULT_LEVEL ? "default" : level) + ", threads=" + threads + ")";
+    }
+}
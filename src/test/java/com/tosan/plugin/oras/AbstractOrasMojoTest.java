@@ -1,6 +1,9 @@
 package com.tosan.plugin.oras;
 
+import com.tosan.plugin.oras.registry.RegistryClient;
+import com.tosan.plugin.oras.util.OCIRegistry;
 import org.apache.commons.lang3.SystemUtils;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,11 +20,15 @@ import java.nio.file.Path;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Date;
 
 import static java.nio.file.Files.write;
 import static org.apache.commons.io.FileUtils.deleteQuietly;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Saeed Hashemi
@@ -94,6 +101,58 @@ public class AbstractOrasMojoTest {
         }
     }
 
+    @Test
+    void bandwidthLimitAppliesToTheClientCreatedByAnUnlimitedExecution() throws MojoExecutionException {
+        Date buildStartTime = new Date(System.nanoTime());
+        NoopOrasMojo unlimited = executionOfBuild(buildStartTime);
+        NoopOrasMojo limited = executionOfBuild(buildStartTime);
+
+        RegistryClient client = unlimited.getRegistryClient(registry(0));
+        assertNull(client.getBandwidthLimiter());
+        assertSame(client, limited.getRegistryClient(registry(1024 * 1024)));
+        assertEquals(1024 * 1024, client.getBandwidthLimiter().getBytesPerSecond());
+        // an unlimited execution afterwards keeps the limit of the build
+        assertSame(client, unlimited.getRegistryClient(registry(0)));
+        assertEquals(1024 * 1024, client.getBandwidthLimiter().getBytesPerSecond());
+    }
+
+    @Test
+    void uploadSettingsDifferingFromTheSharedClientAreReported() throws MojoExecutionException {
+        Date buildStartTime = new Date(System.nanoTime());
+        NoopOrasMojo first = executionOfBuild(buildStartTime);
+        NoopOrasMojo second = executionOfBuild(buildStartTime);
+        Log log = mock(Log.class);
+        second.setLog(log);
+        second.setUploadChunkSize(1024 * 1024);
+        second.setUploadRetries(3);
+
+        RegistryClient client = first.getRegistryClient(registry(0));
+        assertSame(client, second.getRegistryClient(registry(0)));
+
+        assertEquals(RegistryClient.DEFAULT_CHUNK_SIZE, client.getChunkSize());
+        verify(log).warn(contains("uploadChunkSize of https://registry.example.com differs between executions"));
+        verify(log).warn(contains("uploadRetries and uploadRetryBackoff of https://registry.example.com differ"));
+    }
+
+    private static NoopOrasMojo executionOfBuild(Date buildStartTime) {
+        NoopOrasMojo mojo = new NoopOrasMojo();
+        mojo.setBuildStartTime(buildStartTime);
+        mojo.setUploadName("app");
+        mojo.setUploadVersion("1.0");
+        mojo.setUploadChunkSize(RegistryClient.DEFAULT_CHUNK_SIZE);
+        return mojo;
+    }
+
+    private static OCIRegistry registry(long maxBytesPerSecond) {
+        OCIRegistry registry = new OCIRegistry();
+        registry.setName("test");
+        registry.setUrl("https://registry.example.com");
+        registry.setUsername("user");
+        registry.setPassword("secret");
+        registry.setMaxBytesPerSecond(maxBytesPerSecond);
+        return registry;
+    }
+
     private Path addOrasToTestPath() throws IOException {
         return write(testOrasExecutablePath, new byte[]{});
     }
@@ -0,0 +1,140 @@
+package com.tosan.plugin.oras;
+
+import com.tosan.plugin.oras.registry.FakeRegistry;
+import com.tosan.plugin.oras.registry.RegistryClient;
+import com.tosan.plugin.oras.util.OCIRegistry;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.PasswordAuthentication;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class PackagePushMojoTest {
+    private PackagePushMojo mojo;
+
+    @BeforeEach
+    void setUp() {
+        mojo = new PackagePushMojo();
+        mojo.setSplit("none");
+        mojo.setEngine(AbstractOrasMojo.ENGINE_NATIVE);
+    }
+
+    @Test
+    void mirrorsCanNotBeDeferredWithPushAtEnd() {
+        mojo.setPushAtEnd(true);
+        mojo.setMirrorRepositories(Collections.singletonList(new OCIRegistry()));
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Mirror repositories can not be combined with pushAtEnd", exception.getMessage());
+    }
+
+    @Test
+    void streamingCanNotBeCombinedWithMirrors() {
+        mojo.setStreaming(true);
+        mojo.setMirrorRepositories(Collections.singletonList(new OCIRegistry()));
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Streaming upload can not be combined with mirror repositories", exception.getMessage());
+    }
+
+    @Test
+    void streamingCanNotBeCombinedWithIncrementalMode() {
+        mojo.setStreaming(true);
+        mojo.setIncremental(true);
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Streaming upload can not be combined with incremental mode", exception.getMessage());
+    }
+
+    @Test
+    void unchangedArchiveIsPushedAgainWhenTheManifestDiffers() throws Exception {
+        Path directory = Files.createTempDirectory("test");
+        try (FakeRegistry registry = new FakeRegistry("user", "secret")) {
+            Files.write(directory.resolve("app.txt"), "app".getBytes(StandardCharsets.UTF_8));
+            OCIRegistry repository = new OCIRegistry();
+            repository.setName("test");
+            repository.setUrl(registry.getUrl());
+            repository.setUsername("user");
+            repository.setPassword("secret");
+            mojo.setStableRepository(repository);
+            mojo.setWorkingDirectory(directory.toString());
+            mojo.setOutputDirectory(directory.resolve("out").toString());
+            mojo.setArtifacts(new String[]{"app.txt"});
+            mojo.setArchiveName("app.tar");
+            mojo.setCompression("tar");
+            mojo.setIncremental(true);
+            mojo.setUploadName("app");
+            mojo.setUploadVersion("1.0");
+            mojo.setPushParallelism(1);
+            mojo.setUploadChunkSize(RegistryClient.DEFAULT_CHUNK_SIZE);
+            RegistryClient client = new RegistryClient(registry.getUrl(),
+                    new PasswordAuthentication("user", "secret".toCharArray()), false, new SystemStreamLog());
+
+            mojo.execute();
+            String pushed = client.getManifest("app", "1.0").getDigest();
+            mojo.execute();
+            assertEquals(pushed, client.getManifest("app", "1.0").getDigest());
+
+            // same archive, but the manifest in the registry has another artifact type
+            mojo.setArtifactType("application/vnd.tosan.app");
+            mojo.execute();
+            assertEquals("application/vnd.tosan.app", client.getManifest("app", "1.0").toManifest().getArtifactType());
+        } finally {
+            deleteQuietly(directory.toFile());
+        }
+    }
+
+    @Test
+    void streamingRequiresTheNativeEngine() {
+        mojo.setEngine(AbstractOrasMojo.ENGINE_CLI);
+        mojo.setStreaming(true);
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Streaming upload requires the native engine (oras.engine=native)", exception.getMessage());
+    }
+
+    @Test
+    void platformsRequireTheNativeEngine() {
+        mojo.setEngine(AbstractOrasMojo.ENGINE_CLI);
+        mojo.setPlatforms(PushMojoTest.platforms());
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Platforms require the native engine (oras.engine=native)", exception.getMessage());
+    }
+
+    @Test
+    void platformsCanNotBeCombinedWithMirrors() {
+        mojo.setMirrorRepositories(Collections.singletonList(new OCIRegistry()));
+        mojo.setPlatforms(PushMojoTest.platforms());
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Platforms can not be combined with pushAtEnd or mirror repositories", exception.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"split", "streaming", "incremental"})
+    void platformsCanNotBeCombinedWithSingleArchiveModes(String mode) {
+        mojo.setPlatforms(PushMojoTest.platforms());
+        mojo.setSplit("split".equals(mode) ? "directory" : "none");
+        mojo.setStreaming("streaming".equals(mode));
+        mojo.setIncremental("incremental".equals(mode));
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Platforms can not be combined with split, streaming or incremental mode",
+                exception.getMessage());
+    }
+}
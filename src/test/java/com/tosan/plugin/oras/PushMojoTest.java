@@ -0,0 +1,95 @@
+package com.tosan.plugin.oras;
+
+import com.tosan.plugin.oras.util.OCIRegistry;
+import com.tosan.plugin.oras.util.PlatformArtifacts;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class PushMojoTest {
+    private PushMojo mojo;
+
+    @BeforeEach
+    void setUp() {
+        mojo = new PushMojo();
+        mojo.setArtifacts(new String[]{"file.txt"});
+        mojo.setEngine(AbstractOrasMojo.ENGINE_NATIVE);
+    }
+
+    @Test
+    void mirrorsCanNotBeDeferredWithPushAtEnd() {
+        mojo.setPushAtEnd(true);
+        mojo.setMirrorRepositories(Collections.singletonList(new OCIRegistry()));
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Mirror repositories can not be combined with pushAtEnd", exception.getMessage());
+    }
+
+    @Test
+    void platformsRequireTheNativeEngine() {
+        mojo.setEngine(AbstractOrasMojo.ENGINE_CLI);
+        mojo.setPlatforms(platforms());
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Platforms require the native engine (oras.engine=native)", exception.getMessage());
+    }
+
+    @Test
+    void platformsCanNotBeDeferredWithPushAtEnd() {
+        mojo.setPushAtEnd(true);
+        mojo.setPlatforms(platforms());
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Platforms can not be combined with pushAtEnd or mirror repositories", exception.getMessage());
+    }
+
+    @Test
+    void platformsCanNotBeCombinedWithMirrors() {
+        mojo.setMirrorRepositories(Collections.singletonList(new OCIRegistry()));
+        mojo.setPlatforms(platforms());
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Platforms can not be combined with pushAtEnd or mirror repositories", exception.getMessage());
+    }
+
+    @Test
+    void platformsNeedAnOsAndAnArchitecture() {
+        mojo.setPlatforms(Arrays.asList(platform("linux", "amd64"), platform(null, "arm64")));
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Platform null/arm64 needs an os and an architecture", exception.getMessage());
+
+        mojo.setPlatforms(Collections.singletonList(platform("linux", "")));
+        assertThrows(MojoExecutionException.class, mojo::execute);
+    }
+
+    @Test
+    void platformsAreConfiguredOnce() {
+        mojo.setPlatforms(Arrays.asList(platform("linux", "amd64"), platform("linux", "amd64")));
+
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, mojo::execute);
+        assertEquals("Platform linux/amd64 is configured more than once", exception.getMessage());
+    }
+
+    static List<PlatformArtifacts> platforms() {
+        return Collections.singletonList(platform("linux", "amd64"));
+    }
+
+    private static PlatformArtifacts platform(String os, String architecture) {
+        PlatformArtifacts platform = new PlatformArtifacts();
+        platform.setOs(os);
+        platform.setArchitecture(architecture);
+        platform.setArtifacts(new String[]{"app-" + architecture});
+        return platform;
+    }
+}
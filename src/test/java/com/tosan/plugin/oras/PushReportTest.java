@@ -0,0 +1,64 @@
+package com.tosan.plugin.oras;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.tosan.plugin.oras.registry.BlobMetrics;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class PushReportTest {
+    private Path testPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testPath = Files.createTempDirectory("test").toAbsolutePath();
+    }
+
+    @Test
+    void reportIsWrittenAsJson() throws IOException {
+        PushReport report = new PushReport();
+        report.setReference("localhost:5000/app:1.0");
+        report.addPhase("scan", "2 artifacts", System.nanoTime());
+        report.addCompression("app.tar.gz", System.nanoTime(), 1000, 250);
+        BlobMetrics blob = new BlobMetrics("app", "app.tar.gz", "sha256:abc", 250);
+        blob.setStatus(BlobMetrics.UPLOADED);
+        blob.setUploadMillis(10);
+        report.addBlobs(Collections.singletonList(blob));
+        report.log(new SystemStreamLog());
+
+        Path file = testPath.resolve("oras").resolve(PushReport.FILE_NAME);
+        report.write(file);
+
+        JsonObject json = JsonParser.parseString(new String(Files.readAllBytes(file), StandardCharsets.UTF_8))
+                .getAsJsonObject();
+        assertEquals("localhost:5000/app:1.0", json.get("reference").getAsString());
+        assertEquals(2, json.getAsJsonArray("phases").size());
+        assertFalse(json.getAsJsonArray("phases").get(0).getAsJsonObject().has("ratio"));
+        JsonObject compression = json.getAsJsonArray("phases").get(1).getAsJsonObject();
+        assertEquals(1000, compression.get("bytesIn").getAsLong());
+        assertEquals(0.25, compression.get("ratio").getAsDouble());
+        JsonObject uploaded = json.getAsJsonArray("blobs").get(0).getAsJsonObject();
+        assertEquals(BlobMetrics.UPLOADED, uploaded.get("status").getAsString());
+        assertTrue(uploaded.get("mibPerSecond").getAsDouble() > 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteQuietly(testPath.toFile());
+    }
+}
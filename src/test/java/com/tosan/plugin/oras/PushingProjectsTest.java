@@ -0,0 +1,232 @@
+package com.tosan.plugin.oras;
+
+import com.tosan.plugin.oras.registry.FakeRegistry;
+import com.tosan.plugin.oras.registry.RegistryClient;
+import com.tosan.plugin.oras.util.OCIRegistry;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.DefaultLifecycles;
+import org.apache.maven.lifecycle.Lifecycle;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.descriptor.DuplicateMojoDescriptorException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.PasswordAuthentication;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class PushingProjectsTest {
+    private final MavenSession session = mock(MavenSession.class);
+    private final PluginDescriptor plugin = new PluginDescriptor();
+    private final Date buildStartTime = new Date(System.nanoTime());
+    private DefaultLifecycles lifecycles;
+    private MavenProject parent;
+    private MavenProject app;
+    private MavenProject lib;
+    private MavenProject tool;
+
+    @BeforeEach
+    void setUp() throws DuplicateMojoDescriptorException {
+        plugin.setGroupId("com.tosan.plugin");
+        plugin.setArtifactId("oras-maven-plugin");
+        plugin.setGoalPrefix("oras");
+        addMojo("push", "deploy");
+        addMojo("package-push", "deploy");
+        addMojo("pull", "generate-resources");
+        Map<String, Lifecycle> lifecycleMap = new HashMap<>();
+        lifecycleMap.put("default", new Lifecycle("default", Arrays.asList("validate", "generate-resources",
+                "compile", "test", "package", "install", "deploy"), null));
+        lifecycleMap.put("clean", new Lifecycle("clean", Arrays.asList("pre-clean", "clean", "post-clean"), null));
+        lifecycleMap.put("site", new Lifecycle("site", Arrays.asList("pre-site", "site", "post-site"), null));
+        lifecycles = new DefaultLifecycles(lifecycleMap, null);
+
+        parent = project("parent");
+        // push bound to the default phase of the goal
+        app = project("app", execution(null, "push"));
+        // push bound to an earlier phase
+        lib = project("lib", execution("install", "package-push"));
+        // only pulls, never records a push
+        tool = project("tool", execution(null, "pull"));
+        doReturn(Arrays.asList(parent, app, lib, tool)).when(session).getProjects();
+    }
+
+    @Test
+    void onlyProjectsReachingAPushExecutionAreExpected() {
+        goals("clean", "deploy");
+        assertEquals(new LinkedHashSet<>(Arrays.asList("com.tosan:app:jar:1.0", "com.tosan:lib:jar:1.0")),
+                PushingProjects.of(session, plugin, lifecycles));
+
+        goals("install");
+        assertEquals(Collections.singleton("com.tosan:lib:jar:1.0"), PushingProjects.of(session, plugin, lifecycles));
+
+        goals("clean");
+        assertTrue(PushingProjects.of(session, plugin, lifecycles).isEmpty());
+    }
+
+    @Test
+    void pushGoalOnCommandLineRunsInEveryProject() {
+        goals("oras:push");
+        assertEquals(4, PushingProjects.of(session, plugin, lifecycles).size());
+
+        goals("com.tosan.plugin:oras-maven-plugin:1.0:package-push@upload");
+        assertEquals(4, PushingProjects.of(session, plugin, lifecycles).size());
+
+        goals("oras:pull");
+        assertTrue(PushingProjects.of(session, plugin, lifecycles).isEmpty());
+    }
+
+    @Test
+    void deferredPushesDoNotWaitForProjectsWithoutScheduledPush() throws Exception {
+        goals("install");
+        RecordingMojo libMojo = mojo(lib);
+
+        libMojo.execute();
+
+        // app pushes in deploy and tool only pulls, neither is waited for in an install build
+        assertTrue(libMojo.getSession().getWaitingProjects(libMojo.getPushingProjects()).isEmpty());
+    }
+
+    @Test
+    void deferredPushesWaitForAllProjectsReachingAPush() throws Exception {
+        goals("deploy");
+        RecordingMojo appMojo = mojo(app);
+        RecordingMojo libMojo = mojo(lib);
+
+        appMojo.execute();
+        assertEquals(Collections.singleton("com.tosan:lib:jar:1.0"),
+                appMojo.getSession().getWaitingProjects(appMojo.getPushingProjects()));
+
+        libMojo.execute();
+        assertSame(appMojo.getSession(), libMojo.getSession());
+        assertTrue(libMojo.getSession().getWaitingProjects(libMojo.getPushingProjects()).isEmpty());
+    }
+
+    @Test
+    void deferredPushesRunWhenAnotherModulePushesRightAway() throws Exception {
+        goals("deploy");
+        Path directory = Files.createTempDirectory("test");
+        try (FakeRegistry registry = new FakeRegistry("user", "secret")) {
+            Files.write(directory.resolve("app.txt"), "app".getBytes(StandardCharsets.UTF_8));
+            Files.write(directory.resolve("lib.txt"), "lib".getBytes(StandardCharsets.UTF_8));
+            PushMojo appMojo = pushMojo(app, registry, directory, "app.txt");
+            appMojo.setPushAtEnd(true);
+            PushMojo libMojo = pushMojo(lib, registry, directory, "lib.txt");
+            RegistryClient client = new RegistryClient(registry.getUrl(),
+                    new PasswordAuthentication("user", "secret".toCharArray()), false, new SystemStreamLog());
+
+            appMojo.execute();
+            assertNull(client.getManifest("app", "1.0"));
+
+            // lib pushes without pushAtEnd and is the last project the deferred push of app waits for
+            libMojo.execute();
+            assertNotNull(client.getManifest("lib", "1.0"));
+            assertNotNull(client.getManifest("app", "1.0"));
+        } finally {
+            deleteQuietly(directory.toFile());
+        }
+    }
+
+    private void goals(String... goals) {
+        doReturn(Arrays.asList(goals)).when(session).getGoals();
+    }
+
+    private void addMojo(String goal, String phase) throws DuplicateMojoDescriptorException {
+        MojoDescriptor mojo = new MojoDescriptor();
+        mojo.setGoal(goal);
+        mojo.setPhase(phase);
+        mojo.setPluginDescriptor(plugin);
+        plugin.addMojo(mojo);
+    }
+
+    private static PluginExecution execution(String phase, String goal) {
+        PluginExecution execution = new PluginExecution();
+        execution.setId(goal);
+        execution.setPhase(phase);
+        execution.setGoals(Collections.singletonList(goal));
+        return execution;
+    }
+
+    private static MavenProject project(String artifactId, PluginExecution... executions) {
+        Model model = new Model();
+        model.setGroupId("com.tosan");
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0");
+        model.setBuild(new Build());
+        if (executions.length > 0) {
+            Plugin oras = new Plugin();
+            oras.setGroupId("com.tosan.plugin");
+            oras.setArtifactId("oras-maven-plugin");
+            oras.setExecutions(Arrays.asList(executions));
+            model.getBuild().addPlugin(oras);
+        }
+        return new MavenProject(model);
+    }
+
+    private RecordingMojo mojo(MavenProject project) {
+        RecordingMojo mojo = new RecordingMojo();
+        mojo.setProject(project);
+        mojo.setMavenSession(session);
+        mojo.setPluginDescriptor(plugin);
+        mojo.setDefaultLifecycles(lifecycles);
+        mojo.setBuildStartTime(buildStartTime);
+        mojo.setPushAtEnd(true);
+        return mojo;
+    }
+
+    private PushMojo pushMojo(MavenProject project, FakeRegistry registry, Path directory, String artifact) {
+        OCIRegistry repository = new OCIRegistry();
+        repository.setName("test");
+        repository.setUrl(registry.getUrl());
+        repository.setUsername("user");
+        repository.setPassword("secret");
+        PushMojo mojo = new PushMojo();
+        mojo.setProject(project);
+        mojo.setMavenSession(session);
+        mojo.setPluginDescriptor(plugin);
+        mojo.setDefaultLifecycles(lifecycles);
+        mojo.setBuildStartTime(buildStartTime);
+        mojo.setEngine(AbstractOrasMojo.ENGINE_NATIVE);
+        mojo.setStableRepository(repository);
+        mojo.setWorkingDirectory(directory.toString());
+        mojo.setArtifacts(new String[]{artifact});
+        mojo.setUploadName(project.getArtifactId());
+        mojo.setUploadVersion(project.getVersion());
+        mojo.setPushParallelism(1);
+        mojo.setUploadChunkSize(RegistryClient.DEFAULT_CHUNK_SIZE);
+        return mojo;
+    }
+
+    /**
+     * Push execution of a module with nothing to push.
+     */
+    private static class RecordingMojo extends AbstractOrasMojo {
+
+        @Override
+        public void execute() throws org.apache.maven.plugin.MojoExecutionException {
+            recordPush();
+        }
+    }
+}
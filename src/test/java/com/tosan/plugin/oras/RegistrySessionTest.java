@@ -0,0 +1,128 @@
+package com.tosan.plugin.oras;
+
+import com.tosan.plugin.oras.registry.BandwidthLimiter;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+
+import java.net.PasswordAuthentication;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class RegistrySessionTest {
+
+    @Test
+    void modulesOfOneBuildShareTheSession() {
+        RegistrySession session = RegistrySession.forBuild(1L);
+
+        assertSame(session, RegistrySession.forBuild(1L));
+        assertNotSame(session, RegistrySession.forBuild(2L));
+        assertNotSame(RegistrySession.forBuild(null), RegistrySession.forBuild(null));
+    }
+
+    @Test
+    void credentialsAreLookedUpOnce() throws Exception {
+        RegistrySession session = RegistrySession.forBuild(null);
+        AtomicInteger lookups = new AtomicInteger();
+        RegistrySession.CredentialsLookup lookup = () -> {
+            lookups.incrementAndGet();
+            return new PasswordAuthentication("user", "secret".toCharArray());
+        };
+
+        session.getCredentials("repo", lookup);
+        PasswordAuthentication credentials = session.getCredentials("repo", lookup);
+
+        assertEquals("user", credentials.getUserName());
+        assertEquals(1, lookups.get());
+        assertNull(session.getCredentials("anonymous", () -> null));
+    }
+
+    @Test
+    void deferredPushesAreReleasedWhenAllProjectsRecorded() {
+        RegistrySession session = RegistrySession.forBuild(null);
+        List<String> projects = Arrays.asList("parent", "core", "app");
+        DeferredPush core = new DeferredPush(null, null, "core", Collections.singletonList("core.jar"));
+        DeferredPush app = new DeferredPush(null, null, "app", Collections.singletonList("app.jar"));
+
+        assertTrue(session.defer("core", core, projects).isEmpty());
+        assertTrue(session.defer("parent", null, projects).isEmpty());
+        assertEquals(Arrays.asList(core, app), session.defer("app", app, projects));
+        // a later execution pushes right away
+        assertEquals(Collections.singletonList(app), session.defer("app", app, projects));
+    }
+
+    @Test
+    void concurrentLoginsRunOnce() throws Exception {
+        RegistrySession session = RegistrySession.forBuild(null);
+        AtomicInteger logins = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> {
+                    session.loginOnce("registry", () -> {
+                        logins.incrementAndGet();
+                        LockSupport.parkNanos(10_000_000);
+                    });
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    void smallestConnectionLimitOfTheBuildApplies() throws Exception {
+        RegistrySession session = RegistrySession.forBuild(3L);
+        SystemStreamLog log = new SystemStreamLog();
+
+        assertNull(session.getConnectionPermits("https://registry", 0, log));
+        Semaphore permits = session.getConnectionPermits("https://registry", 4, log);
+        permits.acquire();
+        assertSame(permits, session.getConnectionPermits("https://registry", 2, log));
+        assertSame(permits, session.getConnectionPermits("https://registry", 0, log));
+        assertSame(permits, session.getConnectionPermits("https://registry", 8, log));
+        // one upload is still running
+        assertEquals(1, permits.availablePermits());
+        permits.release();
+        assertEquals(2, permits.availablePermits());
+
+        assertNull(session.getConnectionPermits("https://other", 0, log));
+        // a later build, e.g. in a reused JVM, starts with its own limits
+        assertEquals(8, RegistrySession.forBuild(4L).getConnectionPermits("https://registry", 8, log)
+                .availablePermits());
+    }
+
+    @Test
+    void smallestBandwidthLimitOfTheBuildApplies() {
+        RegistrySession session = RegistrySession.forBuild(null);
+        SystemStreamLog log = new SystemStreamLog();
+
+        BandwidthLimiter limiter = session.getBandwidthLimiter("https://registry", 2000, 0, 0, log);
+        assertSame(limiter, session.getBandwidthLimiter("https://registry", 1000, 0, 0, log));
+        assertSame(limiter, session.getBandwidthLimiter("https://registry", 4000, 0, 0, log));
+
+        assertEquals(1000, limiter.getBytesPerSecond());
+        assertEquals(4000, RegistrySession.forBuild(null).getBandwidthLimiter("https://registry", 4000, 0, 0, log)
+                .getBytesPerSecond());
+    }
+}
@@ -0,0 +1,79 @@
+package com.tosan.plugin.oras.registry;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArtifactPromoterTest {
+    private RegistryFixture fixture;
+    private RegistryClient client;
+    private OciReference snapshot;
+    private String digest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fixture = new RegistryFixture();
+        fixture.registry.repositoryScopedBlobs = true;
+        client = fixture.newClient();
+        snapshot = fixture.reference("snapshots/app", "1.0-SNAPSHOT");
+        digest = fixture.push(snapshot, fixture.file("file.txt", "content"));
+    }
+
+    @Test
+    void promotionInTheSameRepositoryOnlyAddsTags() throws IOException {
+        ArtifactPromoter promoter = new ArtifactPromoter(client, client, new SystemStreamLog());
+
+        assertEquals(digest, promoter.promote(snapshot, snapshot, Collections.singletonList("1.0-20261018")));
+
+        assertEquals(0, promoter.getMountedBlobs() + promoter.getExistingBlobs() + promoter.getCopiedBlobs());
+        assertArrayEquals(fixture.registry.manifests.get("snapshots/app:1.0-SNAPSHOT"),
+                fixture.registry.manifests.get("snapshots/app:1.0-20261018"));
+    }
+
+    @Test
+    void promotionOnTheSameRegistryMountsBlobs() throws IOException {
+        ArtifactPromoter promoter = new ArtifactPromoter(client, client, new SystemStreamLog());
+
+        assertEquals(digest, promoter.promote(snapshot, fixture.reference("releases/app", "1.0"),
+                Arrays.asList("1.0", "latest")));
+
+        // config and layer
+        assertEquals(2, promoter.getMountedBlobs());
+        assertEquals(0, promoter.getCopiedBlobs());
+        assertArrayEquals(fixture.registry.manifests.get("snapshots/app:1.0-SNAPSHOT"),
+                fixture.registry.manifests.get("releases/app:1.0"));
+        assertNotNull(fixture.registry.manifests.get("releases/app:latest"));
+    }
+
+    @Test
+    void promotionToAnotherRegistryCopiesBlobs() throws IOException {
+        try (RegistryFixture other = new RegistryFixture()) {
+            ArtifactPromoter promoter = new ArtifactPromoter(client, other.newClient(), new SystemStreamLog());
+
+            assertEquals(digest, promoter.promote(snapshot, other.reference("app", "1.0"),
+                    Collections.singletonList("1.0")));
+
+            assertEquals(2, promoter.getCopiedBlobs());
+            assertTrue(other.registry.blobs.containsKey(Digests.sha256("content".getBytes(StandardCharsets.UTF_8))));
+            assertArrayEquals(fixture.registry.manifests.get("snapshots/app:1.0-SNAPSHOT"),
+                    other.registry.manifests.get("app:1.0"));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+}
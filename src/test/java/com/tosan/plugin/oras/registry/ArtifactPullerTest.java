@@ -0,0 +1,171 @@
+package com.tosan.plugin.oras.registry;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArtifactPullerTest {
+    private RegistryFixture fixture;
+    private RegistryClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fixture = new RegistryFixture();
+        client = fixture.newClient();
+    }
+
+    @Test
+    void pulledBlobsAreVerifiedAndServedFromCache() throws IOException {
+        byte[] large = RegistryFixture.random(100 * 1024 + 3, 5);
+        OciReference reference = fixture.reference("app", "1.0");
+        String digest = fixture.push(reference, fixture.file("large.bin", large), fixture.file("small.txt", "small"));
+        fixture.registry.redirectBlobs = true;
+        Path cacheDirectory = fixture.resolve("cache");
+
+        ArtifactPuller puller = new ArtifactPuller(client, new BlobCache(cacheDirectory), new SystemStreamLog());
+        puller.setScheduler(new LayerUploadScheduler(4, null));
+        puller.setRangeSize(16 * 1024);
+        puller.pull(reference, fixture.resolve("pulled"));
+
+        assertArrayEquals(large, Files.readAllBytes(fixture.resolve("pulled/large.bin")));
+        assertEquals("small", new String(Files.readAllBytes(fixture.resolve("pulled/small.txt")),
+                StandardCharsets.UTF_8));
+        assertEquals(2, puller.getDownloadedBlobs());
+        // 7 ranges of the large blob and the small blob, fetched from storage without credentials
+        assertEquals(8, fixture.registry.count("GET", "/storage/"));
+
+        int requests = fixture.registry.requests.size();
+        ArtifactPuller offline = new ArtifactPuller(client, new BlobCache(cacheDirectory), new SystemStreamLog());
+        offline.setOffline(true);
+        offline.pull(reference, fixture.resolve("offline"));
+        new ArtifactPuller(client, new BlobCache(cacheDirectory), new SystemStreamLog())
+                .pull(reference.withReference(digest), fixture.resolve("byDigest"));
+
+        assertArrayEquals(large, Files.readAllBytes(fixture.resolve("offline/large.bin")));
+        assertArrayEquals(large, Files.readAllBytes(fixture.resolve("byDigest/large.bin")));
+        assertEquals(2, offline.getCachedBlobs());
+        assertEquals(requests, fixture.registry.requests.size());
+    }
+
+    @Test
+    void directoryLayerIsUnpackedWhileDownloadedAndCached() throws IOException {
+        byte[] archive = RegistryFixture.random(64 * 1024, 6);
+        OciReference reference = fixture.reference("app", "1.0");
+        fixture.push(reference, fixture.directoryLayer("dir", archive));
+        Path cacheDirectory = fixture.resolve("cache");
+        List<byte[]> unpacked = new ArrayList<>();
+        ArtifactPuller.LayerUnpacker unpacker = (descriptor, content, directory, staging) -> {
+            // reads a part only, the rest is consumed by the puller
+            byte[] head = new byte[100];
+            IOUtils.readFully(content, head);
+            unpacked.add(head);
+        };
+
+        ArtifactPuller puller = new ArtifactPuller(client, new BlobCache(cacheDirectory), new SystemStreamLog());
+        puller.setUnpacker(unpacker);
+        puller.pull(reference, fixture.resolve("pulled"));
+        ArtifactPuller offline = new ArtifactPuller(client, new BlobCache(cacheDirectory), new SystemStreamLog());
+        offline.setUnpacker(unpacker);
+        offline.setOffline(true);
+        offline.pull(reference, fixture.resolve("pulled"));
+
+        assertEquals(1, puller.getDownloadedBlobs());
+        assertEquals(1, offline.getCachedBlobs());
+        assertArrayEquals(Arrays.copyOf(archive, 100), unpacked.get(0));
+        assertArrayEquals(Arrays.copyOf(archive, 100), unpacked.get(1));
+        assertArrayEquals(archive, Files.readAllBytes(cacheDirectory.resolve("blobs/sha256/"
+                + Digests.sha256(archive).substring(Digests.SHA256.length()))));
+        assertFalse(Files.exists(fixture.resolve("pulled/dir.tar.gz")));
+    }
+
+    @Test
+    void corruptedDirectoryLayerLeavesTargetUntouched() throws IOException {
+        byte[] archive = "archive".getBytes(StandardCharsets.UTF_8);
+        OciReference reference = fixture.reference("app", "1.0");
+        fixture.push(reference, fixture.directoryLayer("dir", archive));
+        Path pulled = Files.createDirectories(fixture.resolve("pulled"));
+        Files.write(pulled.resolve("config.txt"), "old".getBytes(StandardCharsets.UTF_8));
+        ArtifactPuller puller = new ArtifactPuller(client, null, new SystemStreamLog());
+        // writes the whole content as the only file of the layer
+        puller.setUnpacker((descriptor, content, directory, staging) ->
+                Files.write(staging.resolve("config.txt"), IOUtils.toByteArray(content)));
+
+        fixture.tamper(Digests.sha256(archive));
+        assertThrows(IOException.class, () -> puller.pull(reference, pulled));
+        assertEquals("old", new String(Files.readAllBytes(pulled.resolve("config.txt")), StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(pulled)) {
+            assertEquals(1, files.count());
+        }
+
+        fixture.registry.blobs.put(Digests.sha256(archive), archive);
+        puller.pull(reference, pulled);
+        assertArrayEquals(archive, Files.readAllBytes(pulled.resolve("config.txt")));
+        try (Stream<Path> files = Files.list(pulled)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void corruptedBlobIsRejected() throws IOException {
+        OciReference reference = fixture.reference("app", "1.0");
+        fixture.push(reference, fixture.file("file.txt", "content"));
+        fixture.tamper(Digests.sha256("content".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(IOException.class, () -> new ArtifactPuller(client, null, new SystemStreamLog())
+                .pull(reference, fixture.resolve("pulled")));
+        assertFalse(Files.exists(fixture.resolve("pulled/file.txt")));
+    }
+
+    @Test
+    void layerTitleOutsideTargetDirectoryIsRejected() throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getLayers().add(new Descriptor(Layer.DEFAULT_MEDIA_TYPE, Digests.sha256(new byte[1]), 1)
+                .addAnnotation(Descriptor.ANNOTATION_TITLE, "../escaped.txt"));
+        client.putManifest("app", "1.0", Manifest.MEDIA_TYPE, manifest.toJson());
+
+        IOException exception = assertThrows(IOException.class, () -> new ArtifactPuller(client, null,
+                new SystemStreamLog()).pull(fixture.reference("app", "1.0"), fixture.resolve("pulled")));
+        assertTrue(exception.getMessage().contains("outside"));
+    }
+
+    @Test
+    void onlyTheSelectedPlatformIsPulled() throws IOException {
+        OciReference reference = fixture.reference("app", "1.0");
+        new ArtifactPusher(client, new SystemStreamLog()).pushIndex(reference, null,
+                Arrays.asList(fixture.platform(reference, "amd64"), fixture.platform(reference, "arm64")));
+
+        ArtifactPuller puller = new ArtifactPuller(client, null, new SystemStreamLog());
+        puller.setPlatform(Platform.parse("linux/arm64"));
+        puller.pull(reference, fixture.resolve("pulled"));
+
+        assertTrue(Files.exists(fixture.resolve("pulled/app-arm64")));
+        assertFalse(Files.exists(fixture.resolve("pulled/app-amd64")));
+        assertEquals(1, puller.getDownloadedBlobs());
+        IOException exception = assertThrows(IOException.class, () -> new ArtifactPuller(client, null,
+                new SystemStreamLog()).pull(reference, fixture.resolve("none")));
+        assertTrue(exception.getMessage().contains("linux/amd64, linux/arm64"));
+        assertThrows(IllegalArgumentException.class, () -> Platform.parse("linux"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+}
@@ -0,0 +1,187 @@
+package com.tosan.plugin.oras.registry;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArtifactPusherTest {
+    private static final String CONTENT_DIGEST = Digests.sha256("content".getBytes(StandardCharsets.UTF_8));
+
+    private RegistryFixture fixture;
+    private RegistryClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fixture = new RegistryFixture();
+        client = fixture.newClient();
+    }
+
+    @Test
+    void pushUploadsLayersConfigAndManifest() throws IOException {
+        String digest = new ArtifactPusher(client, new SystemStreamLog()).push(fixture.reference("oras/app", "1.0"),
+                null, Collections.singletonList(fixture.file("file.txt", "content")));
+
+        assertEquals(CONTENT_DIGEST.length(), digest.length());
+        assertTrue(fixture.registry.blobs.containsKey(CONTENT_DIGEST));
+        Manifest manifest = Manifest.fromJson(fixture.registry.manifests.get("oras/app:1.0"));
+        assertEquals(Manifest.UNKNOWN_ARTIFACT_TYPE, manifest.getArtifactType());
+        assertEquals("file.txt", manifest.getLayers().get(0).getAnnotations().get(Descriptor.ANNOTATION_TITLE));
+        // one token for the push scope is reused for all requests
+        assertEquals(1, fixture.registry.tokenRequests.get());
+        assertTrue(client.blobExists("oras/app", manifest.getConfig().getDigest()));
+    }
+
+    @Test
+    void concurrentPushKeepsLayerOrder() throws IOException {
+        List<Layer> layers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            byte[] content = new byte[(i + 1) * 1024];
+            Arrays.fill(content, (byte) i);
+            layers.add(fixture.file("file" + i, content));
+        }
+        ArtifactPusher pusher = new ArtifactPusher(client, new SystemStreamLog());
+        pusher.setScheduler(new LayerUploadScheduler(3, new Semaphore(2, true)));
+
+        pusher.push(fixture.reference("app", "1.0"), null, layers);
+
+        assertEquals(5, pusher.getUploadedBlobs());
+        // concurrent uploads wait for a single token request
+        assertEquals(1, fixture.registry.tokenRequests.get());
+        List<Descriptor> pushed = Manifest.fromJson(fixture.registry.manifests.get("app:1.0")).getLayers();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("file" + i, pushed.get(i).getAnnotations().get(Descriptor.ANNOTATION_TITLE));
+        }
+    }
+
+    @Test
+    void blobsSharedByArtifactsAreUploadedOnce() throws IOException {
+        fixture.file("a/common.jar", "common");
+        fixture.file("b/common.jar", "common");
+        fixture.file("b/own.jar", "own");
+        ArtifactPusher pusher = new ArtifactPusher(client, new SystemStreamLog());
+        pusher.setScheduler(new LayerUploadScheduler(3, null));
+
+        List<String> digests = pusher.pushAll(Arrays.asList(
+                new Artifact(fixture.reference("app", "a"), null,
+                        Collections.singletonList(Layer.of(fixture.resolve("a"), "common.jar"))),
+                new Artifact(fixture.reference("app", "b"), null,
+                        Arrays.asList(Layer.of(fixture.resolve("b"), "common.jar"),
+                                Layer.of(fixture.resolve("b"), "own.jar")))));
+
+        assertEquals(2, digests.size());
+        assertEquals(2, pusher.getUploadedBlobs());
+        assertEquals(1, pusher.getSkippedBlobs());
+        assertEquals(2, Manifest.fromJson(fixture.registry.manifests.get("app:b")).getLayers().size());
+    }
+
+    @Test
+    void unchangedFilesAreNeitherRehashedNorUploadedAgain() throws IOException {
+        List<Layer> layers = Collections.singletonList(fixture.file("file.txt", "content"));
+        // a file modified right before hashing is not cached across builds
+        Files.setLastModifiedTime(fixture.resolve("file.txt"),
+                FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        OciReference reference = fixture.reference("app", "1.0");
+
+        DigestCache firstCache = DigestCache.load(fixture.resolve("cache"), new SystemStreamLog());
+        ArtifactPusher first = new ArtifactPusher(client, firstCache, new SystemStreamLog());
+        first.push(reference, null, layers);
+        firstCache.save();
+
+        DigestCache secondCache = DigestCache.load(fixture.resolve("cache"), new SystemStreamLog());
+        ArtifactPusher second = new ArtifactPusher(client, secondCache, new SystemStreamLog());
+        second.push(reference.withReference("1.1"), null, layers);
+
+        assertEquals(1, first.getUploadedBlobs());
+        assertEquals(0, second.getUploadedBlobs());
+        assertEquals(1, second.getSkippedBlobs());
+        assertEquals(1, secondCache.getHits());
+        assertEquals(0, secondCache.getMisses());
+        assertNotNull(fixture.registry.manifests.get("app:1.1"));
+    }
+
+    @Test
+    void blobMetricsRecordStatusDigestCacheAndRetries() throws IOException {
+        List<Layer> layers = Collections.singletonList(fixture.file("file.txt", "content"));
+        OciReference reference = fixture.reference("app", "1.0");
+        DigestCache cache = DigestCache.load(fixture.resolve("cache"), new SystemStreamLog());
+        client.setRetryPolicy(new RetryPolicy(3, 1));
+        fixture.registry.failingUploads.set(1);
+        ArtifactPusher first = new ArtifactPusher(client, cache, new SystemStreamLog());
+        first.push(reference, null, layers);
+        ArtifactPusher second = new ArtifactPusher(client, cache, new SystemStreamLog());
+        second.push(reference, null, layers);
+
+        BlobMetrics uploaded = first.getBlobMetrics().get(0);
+        assertEquals(BlobMetrics.UPLOADED, uploaded.getStatus());
+        assertEquals("file.txt", uploaded.getTitle());
+        assertEquals(7, uploaded.getSize());
+        assertFalse(uploaded.isDigestCached());
+        assertEquals(1, uploaded.getRetries());
+        assertTrue(uploaded.getMibPerSecond() > 0);
+        BlobMetrics existing = second.getBlobMetrics().get(0);
+        assertEquals(BlobMetrics.EXISTS, existing.getStatus());
+        assertTrue(existing.isDigestCached());
+        assertEquals(0, existing.getRetries());
+        assertEquals(0, existing.getMibPerSecond());
+    }
+
+    @Test
+    void blobsAreMountedFromAnotherRepository() throws IOException {
+        fixture.registry.repositoryScopedBlobs = true;
+        Layer layer = fixture.file("file.txt", "content");
+        fixture.push(fixture.reference("app", "1.0"), layer);
+
+        ArtifactPusher mirror = new ArtifactPusher(client, new SystemStreamLog());
+        mirror.setMountFrom("app");
+        mirror.push(fixture.reference("mirror/app", "1.0"), null, Collections.singletonList(layer));
+
+        assertEquals(1, mirror.getMountedBlobs());
+        assertEquals(0, mirror.getUploadedBlobs());
+        assertEquals(BlobMetrics.MOUNTED, mirror.getBlobMetrics().get(0).getStatus());
+        assertTrue(fixture.registry.repositoryBlobs.contains("mirror/app@" + CONTENT_DIGEST));
+        assertNotNull(fixture.registry.manifests.get("mirror/app:1.0"));
+    }
+
+    @Test
+    void platformsArePushedAsIndex() throws IOException {
+        OciReference reference = fixture.reference("app", "1.0");
+
+        String digest = new ArtifactPusher(client, new SystemStreamLog()).pushIndex(reference, null,
+                Arrays.asList(fixture.platform(reference, "amd64"), fixture.platform(reference, "arm64")));
+
+        assertEquals(Manifest.INDEX_MEDIA_TYPE, fixture.registry.manifestTypes.get("app:1.0"));
+        Manifest index = Manifest.fromJson(fixture.registry.manifests.get("app:1.0"));
+        assertEquals(digest, Digests.sha256(fixture.registry.manifests.get("app:1.0")));
+        assertFalse(new String(fixture.registry.manifests.get("app:1.0"), StandardCharsets.UTF_8)
+                .contains("\"layers\""));
+        assertEquals(2, index.getManifests().size());
+        Descriptor arm = index.getManifests().get(1);
+        assertEquals("linux/arm64", arm.getPlatform().toString());
+        assertEquals("application/vnd.tosan.app", arm.getArtifactType());
+        assertEquals("arm64", arm.getAnnotations().get("com.tosan.build"));
+        Manifest armManifest = Manifest.fromJson(fixture.registry.manifests.get("app:" + arm.getDigest()));
+        assertEquals("app-arm64", armManifest.getLayers().get(0).getAnnotations().get(Descriptor.ANNOTATION_TITLE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+}
@@ -0,0 +1,167 @@
+package com.tosan.plugin.oras.registry;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class BandwidthLimiterTest {
+    private static final int KIB = 1024;
+
+    private final ManualClock clock = new ManualClock();
+    private final List<String> grants = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void bytesBeyondTheBurstWaitForTheRate() throws Exception {
+        BandwidthLimiter limiter = new BandwidthLimiter(64 * KIB, 64 * KIB, 0, clock);
+        limiter.acquire(64 * KIB, false);
+        assertEquals(0, clock.nanoTime());
+
+        Thread request = acquire(limiter, "request", 32 * KIB, false);
+        awaitWaiting(1);
+        clock.advance(TimeUnit.MILLISECONDS.toNanos(499));
+        awaitWaiting(1);
+        assertTrue(grants.isEmpty());
+        clock.advance(TimeUnit.MILLISECONDS.toNanos(1));
+        request.join();
+
+        assertEquals(Collections.singletonList("request at 500 ms"), grants);
+        assertEquals(500, limiter.getThrottledMillis());
+    }
+
+    @Test
+    void priorityRequestsAreServedBeforeLargeOnes() throws Exception {
+        BandwidthLimiter limiter = new BandwidthLimiter(64 * KIB, 64 * KIB, KIB, clock);
+        limiter.acquire(64 * KIB, false);
+        assertTrue(limiter.isPriority(KIB));
+        assertFalse(limiter.isPriority(KIB + 1));
+
+        Thread large = acquire(limiter, "large", 64 * KIB, false);
+        awaitWaiting(1);
+        Thread small = acquire(limiter, "small", KIB, true);
+        awaitWaiting(2);
+        // enough for either request: the small one is served first, although the large one waited longer
+        clock.advance(TimeUnit.SECONDS.toNanos(1));
+        small.join();
+        awaitWaiting(1);
+        clock.advance(TimeUnit.SECONDS.toNanos(1) / 64);
+        large.join();
+
+        assertEquals(Arrays.asList("small at 1000 ms", "large at 1015 ms"), grants);
+    }
+
+    @Test
+    void uploadsAreSentAtLimitedBandwidth() throws IOException {
+        SimulatedClock simulated = new SimulatedClock();
+        byte[] content = RegistryFixture.random(512 * KIB, 1);
+        try (RegistryFixture fixture = new RegistryFixture()) {
+            RegistryClient client = fixture.newClient();
+            client.setBandwidthLimiter(new BandwidthLimiter(1024 * KIB, 64 * KIB, 0, simulated));
+
+            fixture.push(client, fixture.reference("app", "1.0"), fixture.file("large.bin", content));
+
+            // 448 KiB beyond the burst at 1 MiB/s, less the debt left by the last write
+            assertTrue(client.getBandwidthLimiter().getThrottledMillis() >= 400);
+            assertTrue(client.getBandwidthLimiter().getThrottledMillis() <= 438);
+            assertTrue(fixture.registry.blobs.containsKey(Digests.sha256(content)));
+        }
+    }
+
+    private Thread acquire(BandwidthLimiter limiter, String name, int bytes, boolean priority) {
+        Thread thread = new Thread(() -> {
+            try {
+                limiter.acquire(bytes, priority);
+                grants.add(name + " at " + TimeUnit.NANOSECONDS.toMillis(clock.nanoTime()) + " ms");
+            } catch (IOException e) {
+                grants.add(e.getMessage());
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void awaitWaiting(int threads) throws InterruptedException {
+        await(() -> clock.getWaiting() == threads);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out");
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Clock that only moves when advanced; waiting threads wait until then.
+     */
+    private static class ManualClock implements BandwidthLimiter.Clock {
+        private volatile long now;
+        private volatile Object lock;
+        private int waiting;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public void await(Object lock, long nanos) throws InterruptedException {
+            this.lock = lock;
+            waiting++;
+            try {
+                lock.wait();
+            } finally {
+                waiting--;
+            }
+        }
+
+        int getWaiting() {
+            Object current = lock;
+            if (current == null) {
+                return 0;
+            }
+            synchronized (current) {
+                return waiting;
+            }
+        }
+
+        void advance(long nanos) {
+            synchronized (lock) {
+                now += nanos;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Clock whose waits return at once, having moved the time on by the waited duration.
+     */
+    private static class SimulatedClock implements BandwidthLimiter.Clock {
+        private long now;
+
+        @Override
+        public synchronized long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public synchronized void await(Object lock, long nanos) {
+            now += nanos;
+        }
+    }
+}
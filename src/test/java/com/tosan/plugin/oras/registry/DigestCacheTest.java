@@ -0,0 +1,126 @@
+package com.tosan.plugin.oras.registry;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class DigestCacheTest {
+    private Path testPath;
+    private Path cacheDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testPath = Files.createTempDirectory("test").toAbsolutePath();
+        cacheDirectory = testPath.resolve("cache");
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteQuietly(testPath.toFile());
+    }
+
+    @Test
+    void recentlyModifiedFilesAreOnlyCachedInMemory() throws IOException {
+        Path file = write("fresh.txt", "content");
+        DigestCache cache = DigestCache.load(cacheDirectory, new SystemStreamLog());
+
+        String digest = cache.digest(file);
+        assertEquals(digest, cache.getCached(file));
+        cache.save();
+
+        assertNull(DigestCache.load(cacheDirectory, new SystemStreamLog()).getCached(file));
+
+        age(file);
+        DigestCache second = DigestCache.load(cacheDirectory, new SystemStreamLog());
+        second.digest(file);
+        second.save();
+        assertEquals(digest, DigestCache.load(cacheDirectory, new SystemStreamLog()).getCached(file));
+    }
+
+    @Test
+    void changeWithinTheSameMillisecondIsDetected() throws IOException {
+        long millis = System.currentTimeMillis() - DigestCache.RACY_MILLIS * 10;
+        Path file = Files.setLastModifiedTime(write("file.txt", "content"), nanos(millis, 100_000));
+        DigestCache cache = DigestCache.load(cacheDirectory, new SystemStreamLog());
+        cache.digest(file);
+        cache.save();
+
+        Files.write(file, "changed".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, nanos(millis, 600_000));
+        assumeFalse(Files.getLastModifiedTime(file).equals(FileTime.fromMillis(millis)),
+                "file system stores milliseconds only");
+
+        assertNull(DigestCache.load(cacheDirectory, new SystemStreamLog()).getCached(file));
+    }
+
+    @Test
+    void concurrentBuildsMergeTheirEntries() throws IOException {
+        Path first = age(write("first.txt", "first"));
+        Path second = age(write("second.txt", "second"));
+        DigestCache firstCache = DigestCache.load(cacheDirectory, new SystemStreamLog());
+        DigestCache secondCache = DigestCache.load(cacheDirectory, new SystemStreamLog());
+
+        String firstDigest = firstCache.digest(first);
+        String secondDigest = secondCache.digest(second);
+        firstCache.save();
+        secondCache.save();
+
+        DigestCache loaded = DigestCache.load(cacheDirectory, new SystemStreamLog());
+        assertEquals(firstDigest, loaded.getCached(first));
+        assertEquals(secondDigest, loaded.getCached(second));
+    }
+
+    @Test
+    void entriesOfMissingOrChangedFilesAreDropped() throws IOException {
+        Path deleted = age(write("deleted.txt", "deleted"));
+        Path changed = age(write("changed.txt", "changed"));
+        Path kept = age(write("kept.txt", "kept"));
+        DigestCache cache = DigestCache.load(cacheDirectory, new SystemStreamLog());
+        cache.digest(deleted);
+        cache.digest(changed);
+        cache.digest(kept);
+        cache.save();
+
+        Files.delete(deleted);
+        age(write("changed.txt", "changed again"));
+        DigestCache second = DigestCache.load(cacheDirectory, new SystemStreamLog());
+        second.digest(age(write("other.txt", "other")));
+        second.save();
+
+        String saved = new String(Files.readAllBytes(cacheDirectory.resolve(DigestCache.FILE_NAME)),
+                StandardCharsets.UTF_8);
+        assertFalse(saved.contains(deleted.toString()));
+        assertFalse(saved.contains(changed.toString()));
+        assertTrue(saved.contains(kept.toString()));
+        assertTrue(saved.contains(testPath.resolve("other.txt").toString()));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(testPath.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static FileTime nanos(long millis, long nanos) {
+        return FileTime.from(TimeUnit.MILLISECONDS.toNanos(millis) + nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Path age(Path file) throws IOException {
+        return Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()
+                - DigestCache.RACY_MILLIS * 10));
+    }
+}
@@ -0,0 +1,316 @@
+package com.tosan.plugin.oras.registry;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory OCI registry for tests, optionally protected by bearer token authentication.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class FakeRegistry implements AutoCloseable {
+    static final String TOKEN = "test-token";
+    private static final Pattern UPLOAD = Pattern.compile("^/v2/(.+)/blobs/uploads/(.*)$");
+    private static final Pattern BLOB = Pattern.compile("^/v2/(.+)/blobs/(sha256:[0-9a-f]+)$");
+    private static final Pattern MANIFEST = Pattern.compile("^/v2/(.+)/manifests/(.+)$");
+
+    private final HttpServer server;
+    private final String username;
+    private final String password;
+    private final AtomicInteger uploadIds = new AtomicInteger();
+    private final Map<String, ByteArrayOutputStream> uploads = new ConcurrentHashMap<>();
+    final Map<String, byte[]> blobs = new ConcurrentHashMap<>();
+    final Map<String, byte[]> manifests = new ConcurrentHashMap<>();
+    final Map<String, String> manifestTypes = new ConcurrentHashMap<>();
+    final List<String> requests = new CopyOnWriteArrayList<>();
+    final AtomicInteger tokenRequests = new AtomicInteger();
+
+    /**
+     * Number of upcoming upload requests (PATCH or PUT) answered with {@code 503}.
+     */
+    final AtomicInteger failingUploads = new AtomicInteger();
+
+    /**
+     * Whether blob downloads are redirected to a storage url on another host name, which rejects requests carrying
+     * the registry credentials.
+     */
+    volatile boolean redirectBlobs;
+
+    /**
+     * Whether blobs are only visible in the repositories they were uploaded or mounted to, like a registry that
+     * checks repository access, so mounting can be observed.
+     */
+    volatile boolean repositoryScopedBlobs;
+    final Set<String> repositoryBlobs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param username required user or {@code null} to allow anonymous access
+     * @param password required password
+     */
+    public FakeRegistry(String username, String password) throws IOException {
+        this.username = username;
+        this.password = password;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    long count(String method, String pathPrefix) {
+        return requests.stream().filter(r -> r.startsWith(method + " " + pathPrefix)).count();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            requests.add(method + " " + path);
+            byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+            if (path.equals("/token")) {
+                token(exchange);
+            } else if (path.startsWith("/storage/")) {
+                storage(exchange, path.substring("/storage/".length()));
+            } else if (username != null && !("Bearer " + TOKEN).equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                exchange.getResponseHeaders().add("WWW-Authenticate",
+                        "Bearer realm=\"" + getUrl() + "/token\",service=\"fake\"");
+                send(exchange, 401, null);
+            } else if (path.equals("/v2/")) {
+                send(exchange, 200, null);
+            } else {
+                route(exchange, method, path, body);
+            }
+        } catch (RuntimeException e) {
+            send(exchange, 500, e.toString().getBytes(StandardCharsets.UTF_8));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        tokenRequests.incrementAndGet();
+        String expected = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        if (!expected.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            send(exchange, 401, null);
+            return;
+        }
+        send(exchange, 200, ("{\"token\":\"" + TOKEN + "\",\"expires_in\":300}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void route(HttpExchange exchange, String method, String path, byte[] body) throws IOException {
+        Matcher upload = UPLOAD.matcher(path);
+        Matcher blob = BLOB.matcher(path);
+        Matcher manifest = MANIFEST.matcher(path);
+        if (upload.matches()) {
+            upload(exchange, method, upload.group(1), upload.group(2), body);
+        } else if (blob.matches()) {
+            blob(exchange, method, blob.group(1), blob.group(2));
+        } else if (manifest.matches()) {
+            manifest(exchange, method, manifest.group(1) + ":" + manifest.group(2), body);
+        } else {
+            send(exchange, 404, null);
+        }
+    }
+
+    private void upload(HttpExchange exchange, String method, String repository, String id, byte[] body)
+            throws IOException {
+        Map<String, String> query = query(exchange);
+        String location = "/v2/" + repository + "/blobs/uploads/" + id;
+        if (method.equals("POST")) {
+            String mount = query.get("mount");
+            if (mount != null && isVisible(query.get("from"), mount)) {
+                repositoryBlobs.add(repository + "@" + mount);
+                exchange.getResponseHeaders().add("Location", "/v2/" + repository + "/blobs/" + mount);
+                send(exchange, 201, null);
+                return;
+            }
+            String newId = String.valueOf(uploadIds.incrementAndGet());
+            uploads.put(newId, new ByteArrayOutputStream());
+            exchange.getResponseHeaders().add("Location", "/v2/" + repository + "/blobs/uploads/" + newId);
+            exchange.getResponseHeaders().add("Range", "0-0");
+            send(exchange, 202, null);
+            return;
+        }
+
+        ByteArrayOutputStream content = uploads.get(id);
+        if (content == null) {
+            send(exchange, 404, null);
+            return;
+        }
+        if (method.equals("DELETE")) {
+            uploads.remove(id);
+            send(exchange, 204, null);
+            return;
+        }
+        if (method.equals("GET")) {
+            exchange.getResponseHeaders().add("Location", location);
+            exchange.getResponseHeaders().add("Range", "0-" + (content.size() - 1));
+            send(exchange, 204, null);
+            return;
+        }
+        if (failingUploads.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            send(exchange, 503, null);
+            return;
+        }
+        if (method.equals("PATCH")) {
+            String range = exchange.getRequestHeaders().getFirst("Content-Range");
+            if (range != null && Long.parseLong(range.substring(0, range.indexOf('-'))) != content.size()) {
+                send(exchange, 416, null);
+                return;
+            }
+            synchronized (content) {
+                content.write(body);
+            }
+            exchange.getResponseHeaders().add("Location", location);
+            exchange.getResponseHeaders().add("Range", "0-" + (content.size() - 1));
+            send(exchange, 202, null);
+        } else if (method.equals("PUT")) {
+            content.write(body);
+            byte[] bytes = content.toByteArray();
+            String digest = query.get("digest");
+            if (!Digests.sha256(bytes).equals(digest)) {
+                send(exchange, 400, "{\"errors\":[{\"code\":\"DIGEST_INVALID\"}]}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            uploads.remove(id);
+            blobs.put(digest, bytes);
+            repositoryBlobs.add(repository + "@" + digest);
+            exchange.getResponseHeaders().add("Location", "/v2/" + repository + "/blobs/" + digest);
+            send(exchange, 201, null);
+        } else {
+            send(exchange, 405, null);
+        }
+    }
+
+    private boolean isVisible(String repository, String digest) {
+        return blobs.containsKey(digest)
+                && (!repositoryScopedBlobs || repositoryBlobs.contains(repository + "@" + digest));
+    }
+
+    private void blob(HttpExchange exchange, String method, String repository, String digest) throws IOException {
+        byte[] content = blobs.get(digest);
+        if (content == null || !isVisible(repository, digest)) {
+            send(exchange, 404, null);
+            return;
+        }
+        exchange.getResponseHeaders().add("Docker-Content-Digest", digest);
+        if (method.equals("HEAD")) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        if (redirectBlobs) {
+            exchange.getResponseHeaders().add("Location",
+                    "http://localhost:" + server.getAddress().getPort() + "/storage/" + digest);
+            send(exchange, 307, null);
+            return;
+        }
+        sendBlob(exchange, content);
+    }
+
+    private void storage(HttpExchange exchange, String digest) throws IOException {
+        byte[] content = blobs.get(digest);
+        if (exchange.getRequestHeaders().containsKey("Authorization")) {
+            send(exchange, 400, "credentials sent to storage".getBytes(StandardCharsets.UTF_8));
+        } else if (content == null) {
+            send(exchange, 404, null);
+        } else {
+            sendBlob(exchange, content);
+        }
+    }
+
+    private static void sendBlob(HttpExchange exchange, byte[] content) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null) {
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(bounds[0]);
+            int end = bounds.length > 1 ? Integer.parseInt(bounds[1]) : content.length - 1;
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+            send(exchange, 206, Arrays.copyOfRange(content, start, end + 1));
+            return;
+        }
+        send(exchange, 200, content);
+    }
+
+    private void manifest(HttpExchange exchange, String method, String key, byte[] body) throws IOException {
+        if (method.equals("PUT")) {
+            byte[] content = body;
+            String digest = Digests.sha256(content);
+            String mediaType = exchange.getRequestHeaders().getFirst("Content-Type");
+            manifests.put(key, content);
+            manifestTypes.put(key, mediaType);
+            manifests.put(repository(key) + ":" + digest, content);
+            manifestTypes.put(repository(key) + ":" + digest, mediaType);
+            exchange.getResponseHeaders().add("Docker-Content-Digest", digest);
+            send(exchange, 201, null);
+            return;
+        }
+        byte[] content = manifests.get(key);
+        if (content == null) {
+            send(exchange, 404, null);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", manifestTypes.get(key));
+        exchange.getResponseHeaders().add("Docker-Content-Digest", Digests.sha256(content));
+        if (method.equals("HEAD")) {
+            exchange.getResponseHeaders().add("Content-Length", String.valueOf(content.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        send(exchange, 200, content);
+    }
+
+    private static String repository(String key) {
+        int sha = key.indexOf(":sha256:");
+        return sha != -1 ? key.substring(0, sha) : key.substring(0, key.lastIndexOf(':'));
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                query.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"),
+                        URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
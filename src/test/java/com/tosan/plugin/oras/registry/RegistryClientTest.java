@@ -0,0 +1,198 @@
+package com.tosan.plugin.oras.registry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class RegistryClientTest {
+    private RegistryFixture fixture;
+    private FakeRegistry registry;
+    private Path testPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fixture = new RegistryFixture();
+        registry = fixture.registry;
+        testPath = fixture.directory;
+    }
+
+    @Test
+    void streamedBlobIsUploadedInChunks() throws IOException {
+        byte[] content = new byte[100 * 1024 + 7];
+        new Random(1).nextBytes(content);
+
+        BlobUploadOutputStream upload = newClient("secret").openBlobUpload("oras/app", 16 * 1024);
+        try (BlobUploadOutputStream out = upload) {
+            out.write(content, 0, 10);
+            out.write(content, 10, content.length - 10);
+        }
+
+        Descriptor descriptor = upload.toDescriptor(Layer.DEFAULT_MEDIA_TYPE);
+        assertEquals(Digests.sha256(content), descriptor.getDigest());
+        assertEquals(content.length, descriptor.getSize());
+        assertArrayEquals(content, registry.blobs.get(descriptor.getDigest()));
+        assertEquals(6, registry.count("PATCH", "/v2/oras/app/blobs/uploads/"));
+    }
+
+    @Test
+    void pipelinedBlobIsUploadedInChunks() throws IOException {
+        byte[] content = new byte[100 * 1024 + 7];
+        new Random(4).nextBytes(content);
+
+        BlobUploadOutputStream upload = newClient("secret").openBlobUpload("oras/app", 16 * 1024, 2);
+        try (BlobUploadOutputStream out = upload) {
+            for (int offset = 0; offset < content.length; offset += 1000) {
+                out.write(content, offset, Math.min(1000, content.length - offset));
+            }
+        }
+
+        Descriptor descriptor = upload.toDescriptor(Layer.DEFAULT_MEDIA_TYPE);
+        assertEquals(Digests.sha256(content), descriptor.getDigest());
+        assertArrayEquals(content, registry.blobs.get(descriptor.getDigest()));
+        assertEquals(6, registry.count("PATCH", "/v2/oras/app/blobs/uploads/"));
+    }
+
+    @Test
+    void pipelinedUploadFailureReachesWriter() {
+        byte[] content = new byte[64 * 1024];
+        registry.failingUploads.set(1);
+
+        BlobUploadOutputStream upload = newClient("secret").openBlobUpload("oras/app", 16 * 1024, 1);
+        IOException exception = assertThrows(IOException.class, () -> {
+            try (BlobUploadOutputStream out = upload) {
+                out.write(content);
+            }
+        });
+        assertNotNull(exception.getMessage());
+        assertThrows(IllegalStateException.class, () -> upload.toDescriptor(Layer.DEFAULT_MEDIA_TYPE));
+        assertEquals(0, registry.count("PUT", "/v2/oras/app/blobs/uploads/"));
+        assertEquals(1, registry.count("DELETE", "/v2/oras/app/blobs/uploads/"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2})
+    void abortedUploadIsNeverCompleted(int pipelineDepth) throws IOException {
+        byte[] content = new byte[40 * 1024];
+        new Random(6).nextBytes(content);
+        RegistryClient client = newClient("secret");
+
+        BlobUploadOutputStream upload = pipelineDepth > 0
+                ? client.openBlobUpload("oras/app", 16 * 1024, pipelineDepth)
+                : client.openBlobUpload("oras/app", 16 * 1024);
+        try (BlobUploadOutputStream out = upload) {
+            out.write(content);
+            // e.g. an artifact can not be read
+            out.abort();
+        }
+
+        assertThrows(IOException.class, () -> upload.write(content));
+        assertThrows(IllegalStateException.class, () -> upload.toDescriptor(Layer.DEFAULT_MEDIA_TYPE));
+        assertEquals(0, registry.count("PUT", "/v2/oras/app/blobs/uploads/"));
+        assertEquals(1, registry.count("DELETE", "/v2/oras/app/blobs/uploads/"));
+        assertTrue(registry.blobs.isEmpty());
+    }
+
+    @Test
+    void largeFileIsUploadedInChunksAndRetried() throws IOException {
+        byte[] content = new byte[40 * 1024];
+        new Random(2).nextBytes(content);
+        Files.write(testPath.resolve("large.bin"), content);
+        RegistryClient client = newClient("secret");
+        client.setChunkSize(16 * 1024);
+        client.setRetryPolicy(new RetryPolicy(3, 1));
+        registry.failingUploads.set(2);
+
+        client.uploadBlob("oras/app", new Descriptor(Layer.DEFAULT_MEDIA_TYPE, Digests.sha256(content), content.length),
+                testPath.resolve("large.bin"));
+
+        assertArrayEquals(content, registry.blobs.get(Digests.sha256(content)));
+        assertEquals(2, client.getRetries());
+        assertEquals(4, registry.count("PATCH", "/v2/oras/app/blobs/uploads/"));
+    }
+
+    @Test
+    void fileTruncatedSinceHashingFailsTheChunkedUpload() throws IOException {
+        byte[] content = new byte[40 * 1024];
+        new Random(7).nextBytes(content);
+        Files.write(testPath.resolve("large.bin"), Arrays.copyOf(content, 20 * 1024));
+        RegistryClient client = newClient("secret");
+        client.setChunkSize(16 * 1024);
+
+        IOException exception = assertThrows(IOException.class, () -> client.uploadBlob("oras/app",
+                new Descriptor(Layer.DEFAULT_MEDIA_TYPE, Digests.sha256(content), content.length),
+                testPath.resolve("large.bin")));
+
+        assertTrue(exception.getMessage().contains("changed since it was hashed"));
+        assertEquals(2, registry.count("PATCH", "/v2/oras/app/blobs/uploads/"));
+        assertEquals(1, registry.count("DELETE", "/v2/oras/app/blobs/uploads/"));
+        assertTrue(registry.blobs.isEmpty());
+    }
+
+    @Test
+    void interruptedStreamResumesFromAcknowledgedOffset() throws IOException {
+        byte[] content = new byte[64 * 1024];
+        new Random(3).nextBytes(content);
+        RegistryClient client = newClient("secret");
+        client.setRetryPolicy(new RetryPolicy(2, 1));
+
+        BlobUploadOutputStream upload = client.openBlobUpload("oras/app", 16 * 1024);
+        try (BlobUploadOutputStream out = upload) {
+            out.write(content, 0, 32 * 1024);
+            registry.failingUploads.set(1);
+            out.write(content, 32 * 1024, 32 * 1024);
+        }
+
+        assertArrayEquals(content, registry.blobs.get(upload.toDescriptor(Layer.DEFAULT_MEDIA_TYPE).getDigest()));
+        assertEquals(1, client.getRetries());
+        assertEquals(32 * 1024, client.getResumedBytes());
+        assertEquals(1, registry.count("GET", "/v2/oras/app/blobs/uploads/"));
+    }
+
+    @Test
+    void failedUploadIsNotRetriedWithoutPolicy() {
+        RegistryClient client = newClient("secret");
+        registry.failingUploads.set(1);
+
+        RegistryException exception = assertThrows(RegistryException.class,
+                () -> client.uploadBlob("oras/app", new Descriptor(Layer.DEFAULT_MEDIA_TYPE,
+                        Digests.sha256(new byte[1]), 1), new byte[1]));
+        assertEquals(503, exception.getStatusCode());
+    }
+
+    @Test
+    void loginFailsWithWrongPassword() {
+        RegistryException exception = assertThrows(RegistryException.class, () -> newClient("wrong").login());
+        assertEquals(401, exception.getStatusCode());
+    }
+
+    @Test
+    void referenceUsesUrlPathAsNamespace() {
+        OciReference reference = OciReference.of("https://registry.example.com:5000/team/", "app", "1.0");
+        assertEquals("https://registry.example.com:5000", reference.getRegistryUrl());
+        assertEquals("team/app", reference.getRepository());
+        assertEquals("registry.example.com:5000/team/app:1.0", reference.toString());
+    }
+
+    private RegistryClient newClient(String password) {
+        return fixture.newClient(password);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+}
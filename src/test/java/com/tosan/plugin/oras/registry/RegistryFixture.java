@@ -0,0 +1,121 @@
+package com.tosan.plugin.oras.registry;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+import java.io.IOException;
+import java.net.PasswordAuthentication;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * A {@link FakeRegistry} protected by the credentials {@code user:secret}, a temporary directory for the files
+ * pushed and pulled, and the steps shared by the registry tests.
+ *
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+class RegistryFixture implements AutoCloseable {
+    static final String PASSWORD = "secret";
+    static final String DIRECTORY_MEDIA_TYPE = "application/vnd.oci.image.layer.v1.tar+gzip";
+
+    final FakeRegistry registry = new FakeRegistry("user", PASSWORD);
+    final Path directory;
+
+    RegistryFixture() throws IOException {
+        directory = Files.createTempDirectory("test").toAbsolutePath();
+    }
+
+    RegistryClient newClient() {
+        return newClient(PASSWORD);
+    }
+
+    RegistryClient newClient(String password) {
+        return new RegistryClient(registry.getUrl(), new PasswordAuthentication("user", password.toCharArray()),
+                false, new SystemStreamLog());
+    }
+
+    /**
+     * @param repository repository below the registry, e.g. {@code app} or {@code snapshots/app}
+     */
+    OciReference reference(String repository, String tag) {
+        int slash = repository.lastIndexOf('/');
+        return slash < 0 ? OciReference.of(registry.getUrl(), repository, tag)
+                : OciReference.of(registry.getUrl() + "/" + repository.substring(0, slash),
+                repository.substring(slash + 1), tag);
+    }
+
+    Path resolve(String name) {
+        return directory.resolve(name);
+    }
+
+    /**
+     * @return a layer of a file with {@code content} in the fixture directory
+     */
+    Layer file(String name, String content) throws IOException {
+        return file(name, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Layer file(String name, byte[] content) throws IOException {
+        Files.createDirectories(resolve(name).getParent());
+        Files.write(resolve(name), content);
+        return Layer.of(directory, name);
+    }
+
+    /**
+     * @return a layer of a pushed directory, unpacked when pulled with an unpacker
+     */
+    Layer directoryLayer(String name, byte[] archive) throws IOException {
+        Files.write(resolve(name + ".tar.gz"), archive);
+        Layer layer = new Layer(resolve(name + ".tar.gz"), name, DIRECTORY_MEDIA_TYPE);
+        layer.getAnnotations().put("io.deis.oras.content.unpack", "true");
+        return layer;
+    }
+
+    /**
+     * @return digest of the pushed manifest
+     */
+    String push(OciReference reference, Layer... layers) throws IOException {
+        return push(newClient(), reference, layers);
+    }
+
+    String push(RegistryClient client, OciReference reference, Layer... layers) throws IOException {
+        return new ArtifactPusher(client, new SystemStreamLog()).push(reference, null, Arrays.asList(layers));
+    }
+
+    /**
+     * @return an artifact of a file {@code app-<architecture>} for {@code linux/<architecture>}, annotated with
+     * {@code com.tosan.build}
+     */
+    Artifact platform(OciReference reference, String architecture) throws IOException {
+        Artifact artifact = new Artifact(reference, "application/vnd.tosan.app",
+                Collections.singletonList(file("app-" + architecture, architecture)));
+        artifact.setPlatform(new Platform("linux", architecture, null));
+        artifact.setAnnotations(Collections.singletonMap("com.tosan.build", architecture));
+        return artifact;
+    }
+
+    /**
+     * Replaces the content of a pushed blob, so it no longer matches its digest.
+     */
+    void tamper(String digest) {
+        registry.blobs.put(digest, "tampered".getBytes(StandardCharsets.UTF_8));
+    }
+
+    static byte[] random(int size, long seed) {
+        byte[] content = new byte[size];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    @Override
+    public void close() {
+        registry.close();
+        deleteQuietly(directory.toFile());
+    }
+}
@@ -0,0 +1,117 @@
+package com.tosan.plugin.oras.util;
+
+import com.tosan.plugin.oras.registry.Digests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArchiveFingerprintTest {
+    private static final String[] ARTIFACTS = {"test-dir"};
+
+    private Path testPath;
+    private Path fingerprintFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testPath = Files.createTempDirectory("test").toAbsolutePath();
+        Path dir = Files.createDirectories(testPath.resolve("test-dir/sub"));
+        Files.write(dir.resolve("a.txt"), "content a".getBytes(StandardCharsets.UTF_8));
+        fingerprintFile = testPath.resolve("archive.tgz.fingerprint");
+    }
+
+    @Test
+    void storedFingerprintMatchesUnchangedInputs() throws IOException {
+        ArchiveFingerprint first = ArchiveFingerprint.compute("gzip", testPath.toString(), ARTIFACTS, null);
+        first.setArchiveDigest("sha256:00");
+        first.setArchiveSize(42);
+        first.write(fingerprintFile);
+
+        ArchiveFingerprint stored = ArchiveFingerprint.read(fingerprintFile);
+        ArchiveFingerprint second = ArchiveFingerprint.compute("gzip", testPath.toString(), ARTIFACTS, stored);
+
+        assertNotNull(stored);
+        assertEquals("sha256:00", stored.getArchiveDigest());
+        assertEquals(42, stored.getArchiveSize());
+        assertTrue(second.sameInputs(stored));
+        assertFalse(ArchiveFingerprint.compute("zstd", testPath.toString(), ARTIFACTS, stored).sameInputs(stored));
+    }
+
+    @Test
+    void changedContentDoesNotMatch() throws IOException {
+        ArchiveFingerprint first = ArchiveFingerprint.compute("gzip", testPath.toString(), ARTIFACTS, null);
+        Files.write(testPath.resolve("test-dir/sub/a.txt"), "content b".getBytes(StandardCharsets.UTF_8));
+        Files.write(testPath.resolve("test-dir/new.txt"), new byte[0]);
+
+        assertFalse(ArchiveFingerprint.compute("gzip", testPath.toString(), ARTIFACTS, null).sameInputs(first));
+        assertNull(ArchiveFingerprint.read(testPath.resolve("missing")));
+    }
+
+    @Test
+    void archiveMatchesBySizeAndModificationTimeOrDigest() throws IOException {
+        Path archive = Files.write(testPath.resolve("archive.tgz"), "archive 1".getBytes(StandardCharsets.UTF_8));
+        ArchiveFingerprint fingerprint = ArchiveFingerprint.compute("gzip", testPath.toString(), ARTIFACTS, null);
+        fingerprint.setArchive(archive, Digests.sha256(archive));
+        fingerprint.write(fingerprintFile);
+        ArchiveFingerprint stored = ArchiveFingerprint.read(fingerprintFile);
+        FileTime modified = Files.getLastModifiedTime(archive);
+
+        assertTrue(stored.matchesArchive(archive));
+
+        // same size, other content
+        Files.write(archive, "archive 2".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(archive, FileTime.fromMillis(modified.toMillis() + 1000));
+        assertFalse(stored.matchesArchive(archive));
+
+        // touched, but the same content
+        Files.write(archive, "archive 1".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(archive, FileTime.fromMillis(modified.toMillis() + 2000));
+        assertTrue(stored.matchesArchive(archive));
+
+        Files.write(archive, "archive 10".getBytes(StandardCharsets.UTF_8));
+        assertFalse(stored.matchesArchive(archive));
+    }
+
+    @Test
+    void topLevelLinksAreFollowedLikeCompression() throws IOException {
+        Path linked = Files.createDirectories(testPath.resolve("outside/linked"));
+        Files.write(linked.resolve("c.txt"), "content c".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(testPath.resolve("linked-dir"), linked);
+        Files.createSymbolicLink(testPath.resolve("linked-file.txt"), testPath.resolve("test-dir/sub/a.txt"));
+        String[] artifacts = {"linked-dir", "linked-file.txt", "missing"};
+        ArchiveFingerprint first = ArchiveFingerprint.compute("gzip", testPath.toString(), artifacts, null);
+
+        rewrite(linked.resolve("c.txt"), "content d");
+        ArchiveFingerprint second = ArchiveFingerprint.compute("gzip", testPath.toString(), artifacts, first);
+        rewrite(testPath.resolve("test-dir/sub/a.txt"), "content b");
+        ArchiveFingerprint third = ArchiveFingerprint.compute("gzip", testPath.toString(), artifacts, second);
+
+        assertFalse(second.sameInputs(first));
+        assertFalse(third.sameInputs(second));
+        assertTrue(ArchiveFingerprint.compute("gzip", testPath.toString(), artifacts, third).sameInputs(third));
+    }
+
+    // same size, so the digest is only computed again if the modification time changes
+    private static void rewrite(Path file, String content) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 1000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteQuietly(testPath.toFile());
+    }
+}
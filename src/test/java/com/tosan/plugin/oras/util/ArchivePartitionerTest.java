@@ -0,0 +1,123 @@
+package com.tosan.plugin.oras.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArchivePartitionerTest {
+    private Path testPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testPath = Files.createTempDirectory("test").toAbsolutePath();
+        Path dist = testPath.resolve("dist");
+        Files.createDirectories(dist.resolve("lib"));
+        Files.createDirectories(dist.resolve("static/css"));
+        Files.write(dist.resolve("lib/a.jar"), new byte[600]);
+        Files.write(dist.resolve("lib/b.jar"), new byte[600]);
+        Files.write(dist.resolve("static/css/site.css"), new byte[100]);
+        Files.write(dist.resolve("static/index.html"), new byte[100]);
+        Files.write(dist.resolve("run.sh"), new byte[10]);
+        Files.write(testPath.resolve("README"), new byte[10]);
+    }
+
+    @Test
+    void byDirectoryCreatesShardPerTopLevelDirectory() throws IOException {
+        List<String[]> shards = ArchivePartitioner.byDirectory(testPath.toString(), new String[]{"dist", "README"});
+
+        assertEquals(3, shards.size());
+        assertArrayEquals(new String[]{"dist/lib"}, shards.get(0));
+        assertArrayEquals(new String[]{"dist/static"}, shards.get(1));
+        assertArrayEquals(new String[]{"dist/run.sh", "README"}, shards.get(2));
+    }
+
+    @Test
+    void bySizeSplitsLargeDirectoriesAndPacksSmallEntries() throws IOException {
+        List<String[]> shards = ArchivePartitioner.bySize(testPath.toString(), new String[]{"dist", "README"}, 700);
+
+        assertEquals(3, shards.size());
+        assertArrayEquals(new String[]{"dist/lib/a.jar"}, shards.get(0));
+        assertArrayEquals(new String[]{"dist/lib/b.jar", "dist/run.sh"}, shards.get(1));
+        assertArrayEquals(new String[]{"dist/static", "README"}, shards.get(2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {ArchivePartitioner.DIRECTORY, ArchivePartitioner.SIZE})
+    void extractedShardsMatchExtractedArchive(String mode) throws IOException {
+        Path dist = Files.createDirectories(testPath.resolve("work/build/dist"));
+        Files.createDirectories(dist.resolve("a"));
+        Files.createDirectories(dist.resolve("b"));
+        Files.createDirectories(dist.resolve("empty"));
+        Files.write(dist.resolve("a/config.yml"), StringUtils.repeat('a', 500).getBytes(StandardCharsets.UTF_8));
+        Files.write(dist.resolve("a/big.bin"), new byte[1200]);
+        Files.write(dist.resolve("b/config.yml"), StringUtils.repeat('b', 600).getBytes(StandardCharsets.UTF_8));
+        Files.write(testPath.resolve("work/README"), "readme".getBytes(StandardCharsets.UTF_8));
+        String work = testPath.resolve("work").toString();
+        String[] artifacts = {"build/dist", "README"};
+        List<String[]> shards = ArchivePartitioner.DIRECTORY.equals(mode)
+                ? ArchivePartitioner.byDirectory(work, artifacts) : ArchivePartitioner.bySize(work, artifacts, 1000);
+        assertTrue(shards.size() > 2);
+
+        Path archive = testPath.resolve("all.tar");
+        new Compression(new TarCodec()).compress(work, archive, artifacts);
+        new Extraction(new TarCodec()).extract(archive, testPath.resolve("all"));
+        for (int i = 0; i < shards.size(); i++) {
+            Compression compression = new Compression(new TarCodec());
+            compression.setEntryRoots(artifacts);
+            Path shard = testPath.resolve("shard-" + i + ".tar");
+            compression.compress(work, shard, shards.get(i));
+            new Extraction(new TarCodec()).extract(shard, testPath.resolve("split"));
+        }
+
+        Map<String, String> expected = layout(testPath.resolve("all"));
+        assertEquals(StringUtils.repeat('b', 600), expected.get("dist/b/config.yml"));
+        assertEquals("", expected.get("dist/empty/"));
+        assertEquals(expected, layout(testPath.resolve("split")));
+    }
+
+    private static Map<String, String> layout(Path directory) throws IOException {
+        Map<String, String> layout = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                String name = directory.relativize(path).toString().replace('\\', '/');
+                if (Files.isDirectory(path)) {
+                    layout.put(name + "/", "");
+                } else {
+                    layout.put(name, new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return layout;
+    }
+
+    @Test
+    void bySizeRejectsNonPositiveTarget() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ArchivePartitioner.bySize(testPath.toString(), new String[]{"dist"}, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteQuietly(testPath.toFile());
+    }
+}
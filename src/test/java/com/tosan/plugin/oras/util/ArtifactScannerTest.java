@@ -0,0 +1,65 @@
+package com.tosan.plugin.oras.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ArtifactScannerTest {
+    private Path testPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testPath = Files.createTempDirectory("test").toRealPath();
+        for (String file : Arrays.asList("a/1.txt", "a/2.txt", "a/b/3.txt", "c/4.txt", ".git/objects/5")) {
+            Path path = testPath.resolve(file);
+            Files.createDirectories(path.getParent());
+            Files.write(path, new byte[1]);
+        }
+        Files.createDirectories(testPath.resolve("empty"));
+    }
+
+    @Test
+    void directoriesAreDistinctAndExcludedDirectoriesArePruned() throws IOException {
+        List<String> directories = new ArtifactScanner(Collections.singletonList("**/.git/**"), 4)
+                .scanDirectories(testPath);
+
+        assertEquals(Arrays.asList(testPath.resolve("a").toString(), testPath.resolve("a/b").toString(),
+                testPath.resolve("c").toString()), directories);
+    }
+
+    @Test
+    void symbolicLinkCyclesAreVisitedOnce() throws IOException {
+        try {
+            Files.createSymbolicLink(testPath.resolve("a/b/loop"), testPath.resolve("a"));
+            Files.createSymbolicLink(testPath.resolve("broken"), testPath.resolve("missing"));
+        } catch (UnsupportedOperationException | IOException e) {
+            assumeTrue(false, "symbolic links are not supported");
+        }
+        AtomicInteger files = new AtomicInteger();
+
+        new ArtifactScanner(Collections.emptyList(), 2).scan(testPath, file -> files.incrementAndGet());
+
+        assertEquals(5, files.get());
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteQuietly(testPath.toFile());
+    }
+}
@@ -0,0 +1,297 @@
+package com.tosan.plugin.oras.util;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class CompressionTest {
+    private Path testPath;
+    private Path archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testPath = Files.createTempDirectory("test").toAbsolutePath();
+        Path dir = Files.createDirectories(testPath.resolve("work/test-dir/sub"));
+        Files.write(dir.resolve("a.txt"), "content a".getBytes(StandardCharsets.UTF_8));
+        Files.write(testPath.resolve("work/test-file.txt"), "content b".getBytes(StandardCharsets.UTF_8));
+        archive = testPath.resolve("archive");
+    }
+
+    @Test
+    void gzipArchiveContainsArtifacts() throws IOException {
+        compress(new GzipCodec());
+        try (InputStream in = new GzipCompressorInputStream(open())) {
+            assertArtifacts(in);
+        }
+    }
+
+    @Test
+    void parallelGzipArchiveContainsArtifacts() throws IOException {
+        compress(new GzipCodec(1, 4, GzipCodec.DEFAULT_BLOCK_SIZE));
+        try (InputStream in = new GzipCompressorInputStream(open())) {
+            assertArtifacts(in);
+        }
+    }
+
+    @Test
+    void zstdArchiveContainsArtifacts() throws IOException {
+        compress(new ZstdCodec(ArchiveCodec.DEFAULT_LEVEL, 2));
+        try (InputStream in = new ZstdCompressorInputStream(open())) {
+            assertArtifacts(in);
+        }
+    }
+
+    @Test
+    void tarArchiveContainsArtifacts() throws IOException {
+        compress(new TarCodec());
+        try (InputStream in = open()) {
+            assertArtifacts(in);
+        }
+    }
+
+    @Test
+    void reproducibleArchivesAreIdenticalForIdenticalContent() throws IOException {
+        Compression compression = new Compression(new GzipCodec());
+        compression.setReproducibleTimestamp(Instant.parse("2022-08-25T00:00:00Z"));
+        Path work = testPath.resolve("work");
+
+        compression.compress(work.toString(), archive, new String[]{"test-dir", "test-file.txt"});
+        byte[] first = Files.readAllBytes(archive);
+        Files.setLastModifiedTime(work.resolve("test-dir/sub/a.txt"), FileTime.fromMillis(0));
+        Files.write(work.resolve("test-dir/b.txt"), new byte[0]);
+        Files.delete(work.resolve("test-dir/b.txt"));
+        compression.compress(work.toString(), archive, new String[]{"test-dir", "test-file.txt"});
+
+        assertArrayEquals(first, Files.readAllBytes(archive));
+        try (InputStream in = new GzipCompressorInputStream(open())) {
+            assertArtifacts(in);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void topLevelLinksAreArchivedAsTheirTargets(boolean reproducible) throws IOException {
+        Path work = testPath.resolve("work");
+        Path linked = Files.createDirectories(testPath.resolve("outside/linked"));
+        Files.write(linked.resolve("c.txt"), "content c".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(work.resolve("linked-dir"), linked);
+        Files.createSymbolicLink(work.resolve("linked-file.txt"), work.resolve("test-file.txt"));
+        // links below an artifact are not followed
+        Files.createSymbolicLink(work.resolve("test-dir/nested-link"), linked);
+        Compression compression = new Compression(new TarCodec());
+        if (reproducible) {
+            compression.setReproducibleTimestamp(Instant.parse("2022-08-25T00:00:00Z"));
+        }
+
+        compression.compress(work.toString(), archive, new String[]{"test-dir", "linked-dir", "linked-file.txt"});
+
+        Map<String, String> files = new HashMap<>();
+        try (TarArchiveInputStream tarIn = new TarArchiveInputStream(open())) {
+            TarArchiveEntry entry;
+            while ((entry = tarIn.getNextEntry()) != null) {
+                if (entry.isFile()) {
+                    files.put(entry.getName(), IOUtils.toString(tarIn, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        assertEquals(3, files.size());
+        assertEquals("content a", files.get("test-dir/sub/a.txt"));
+        assertEquals("content c", files.get("linked-dir/c.txt"));
+        assertEquals("content b", files.get("linked-file.txt"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void incompressibleEntriesAreStored(int threads) throws IOException {
+        byte[] random = new byte[256 * 1024];
+        new Random(1).nextBytes(random);
+        Files.write(testPath.resolve("work/test-dir/data.bin"), random);
+        Compression compression = new Compression(new GzipCodec(ArchiveCodec.DEFAULT_LEVEL, threads,
+                GzipCodec.DEFAULT_BLOCK_SIZE));
+        compression.setStorePolicy(new StorePolicy(Collections.singletonList("*.txt"), true));
+
+        compression.compress(testPath.resolve("work").toString(), archive, new String[]{"test-dir", "test-file.txt"});
+
+        assertEquals(3, compression.getStoredEntries());
+        try (TarArchiveInputStream tarIn = new TarArchiveInputStream(new GzipCompressorInputStream(open()))) {
+            TarArchiveEntry entry;
+            while ((entry = tarIn.getNextEntry()) != null) {
+                if (entry.getName().endsWith("data.bin")) {
+                    assertArrayEquals(random, IOUtils.toByteArray(tarIn));
+                }
+            }
+        }
+    }
+
+    @Test
+    void smallBuffersProduceSameArchiveAndAreReused() throws IOException {
+        Path work = testPath.resolve("work");
+        Compression compression = new Compression(new TarCodec());
+        compression.setReproducibleTimestamp(Instant.parse("2022-08-25T00:00:00Z"));
+        compression.compress(work.toString(), archive, new String[]{"test-dir", "test-file.txt"});
+        byte[] expected = Files.readAllBytes(archive);
+
+        compression.setReadBufferSize(3);
+        compression.setWriteBufferSize(5);
+        compression.compress(work.toString(), archive, new String[]{"test-dir", "test-file.txt"});
+        int allocated = BufferPool.shared().getAllocated();
+        compression.compress(work.toString(), archive, new String[]{"test-dir", "test-file.txt"});
+
+        assertArrayEquals(expected, Files.readAllBytes(archive));
+        assertEquals(allocated, BufferPool.shared().getAllocated());
+        assertThrows(IllegalArgumentException.class, () -> compression.setReadBufferSize(0));
+    }
+
+    @Test
+    void failingDestinationFailsArchiveAndIsNotClosed() throws IOException {
+        byte[] large = new byte[256 * 1024];
+        new Random(5).nextBytes(large);
+        Files.write(testPath.resolve("work/test-dir/sub/large.bin"), large);
+        boolean[] closed = {false};
+        OutputStream failing = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                written += len;
+                if (written > 64 * 1024) {
+                    throw new IOException("upload failed");
+                }
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        Compression compression = new Compression(new TarCodec());
+        compression.setWriteBufferSize(4096);
+
+        IOException exception = assertThrows(IOException.class, () -> compression.compress(
+                testPath.resolve("work").toString(), failing, new String[]{"test-dir", "test-file.txt"}));
+        assertEquals("upload failed", exception.getMessage());
+        assertFalse(closed[0]);
+    }
+
+    @Test
+    void unreadableFileIsSkippedBeforeItsHeader() throws IOException {
+        Compression compression = new Compression(new GzipCodec());
+        compression.setStorePolicy(new StorePolicy(Collections.emptyList(), true) {
+            @Override
+            public boolean shouldStore(Path file, long size) throws IOException {
+                if (file.endsWith("a.txt")) {
+                    throw new IOException("unreadable");
+                }
+                return false;
+            }
+        });
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            compression.compress(testPath.resolve("work").toString(), out, new String[]{"test-dir", "test-file.txt"});
+        }
+
+        Map<String, String> files = new HashMap<>();
+        try (TarArchiveInputStream tarIn = new TarArchiveInputStream(new GzipCompressorInputStream(open()))) {
+            TarArchiveEntry entry;
+            while ((entry = tarIn.getNextEntry()) != null) {
+                files.put(entry.getName(), IOUtils.toString(tarIn, StandardCharsets.UTF_8));
+            }
+        }
+        assertFalse(files.containsKey("test-dir/sub/a.txt"));
+        assertEquals("content b", files.get("test-file.txt"));
+    }
+
+    @Test
+    void fileFailingAfterItsHeaderFailsArchive() throws IOException {
+        Compression compression = new Compression(new GzipCodec());
+        // truncates the file once it is opened, so less content than announced by its header is read
+        compression.setStorePolicy(new StorePolicy(Collections.emptyList(), true) {
+            @Override
+            public boolean shouldStore(Path file, long size) throws IOException {
+                Files.write(file, new byte[0]);
+                return false;
+            }
+        });
+
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            assertThrows(IOException.class, () -> compression.compress(testPath.resolve("work").toString(), out,
+                    new String[]{"test-dir"}));
+        }
+    }
+
+    @Test
+    void codecIsSelectedByName() {
+        assertEquals("application/vnd.oci.image.layer.v1.tar+zstd",
+                ArchiveCodec.forName("zstd", 19, 1, GzipCodec.DEFAULT_BLOCK_SIZE).getMediaType());
+        assertEquals("tgz", ArchiveCodec.forName(null, 9, 1, GzipCodec.DEFAULT_BLOCK_SIZE).getExtension());
+        assertThrows(IllegalArgumentException.class,
+                () -> ArchiveCodec.forName("gzip", 12, 1, GzipCodec.DEFAULT_BLOCK_SIZE));
+        assertThrows(IllegalArgumentException.class,
+                () -> ArchiveCodec.forName("gzip", -1, 1, GzipCodec.DEFAULT_BLOCK_SIZE));
+        assertEquals(-1, ((ZstdCodec) ArchiveCodec.forName("zstd", -1, 1, GzipCodec.DEFAULT_BLOCK_SIZE)).getLevel());
+        assertThrows(IllegalArgumentException.class,
+                () -> ArchiveCodec.forName("tar", 5, 1, GzipCodec.DEFAULT_BLOCK_SIZE));
+        assertThrows(IllegalArgumentException.class,
+                () -> ArchiveCodec.forName("bzip2", ArchiveCodec.DEFAULT_LEVEL, 1, GzipCodec.DEFAULT_BLOCK_SIZE));
+    }
+
+    private void compress(ArchiveCodec codec) {
+        new Compression(codec).compress(testPath.resolve("work").toString(), archive,
+                new String[]{"test-dir", "test-file.txt"});
+    }
+
+    private InputStream open() throws IOException {
+        return new BufferedInputStream(Files.newInputStream(archive));
+    }
+
+    private void assertArtifacts(InputStream in) throws IOException {
+        Map<String, String> files = new HashMap<>();
+        TarArchiveInputStream tarIn = new TarArchiveInputStream(in);
+        TarArchiveEntry entry;
+        while ((entry = tarIn.getNextEntry()) != null) {
+            if (entry.isFile()) {
+                files.put(entry.getName(), IOUtils.toString(tarIn, StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(2, files.size());
+        assertEquals("content a", files.get("test-dir/sub/a.txt"));
+        assertEquals("content b", files.get("test-file.txt"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteQuietly(testPath.toFile());
+    }
+}
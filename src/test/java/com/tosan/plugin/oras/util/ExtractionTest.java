@@ -0,0 +1,131 @@
+package com.tosan.plugin.oras.util;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ExtractionTest {
+    private Path testPath;
+    private Path archive;
+    private byte[] large;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testPath = Files.createTempDirectory("test").toAbsolutePath();
+        Path dir = Files.createDirectories(testPath.resolve("work/test-dir/sub"));
+        Files.write(dir.resolve("a.txt"), "content a".getBytes(StandardCharsets.UTF_8));
+        large = new byte[3 * 1024 * 1024 + 5];
+        new Random(1).nextBytes(large);
+        Files.write(dir.resolve("large.bin"), large);
+        Files.write(testPath.resolve("work/test-file.txt"), "content b".getBytes(StandardCharsets.UTF_8));
+        archive = testPath.resolve("archive");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"gzip", "gzip-parallel", "zstd", "tar"})
+    void extractionRestoresCompressedArtifacts(String codecName) throws IOException {
+        ArchiveCodec codec = codecName.equals("gzip-parallel")
+                ? new GzipCodec(1, 4, GzipCodec.DEFAULT_BLOCK_SIZE)
+                : ArchiveCodec.forName(codecName, ArchiveCodec.DEFAULT_LEVEL, 1, GzipCodec.DEFAULT_BLOCK_SIZE);
+        new Compression(codec).compress(testPath.resolve("work").toString(), archive,
+                new String[]{"test-dir", "test-file.txt"});
+
+        Extraction extraction = new Extraction(codec);
+        extraction.setThreads(4);
+        extraction.extract(archive, testPath.resolve("out"));
+
+        assertEquals(3, extraction.getExtractedFiles());
+        assertEquals("content a", read("out/test-dir/sub/a.txt"));
+        assertEquals("content b", read("out/test-file.txt"));
+        assertArrayEquals(large, Files.readAllBytes(testPath.resolve("out/test-dir/sub/large.bin")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void unchangedFilesAreNotWrittenAgain(int threads) throws IOException {
+        new Compression().compress(testPath.resolve("work").toString(), archive,
+                new String[]{"test-dir", "test-file.txt"});
+        Extraction extraction = new Extraction();
+        extraction.setThreads(threads);
+        extraction.extract(archive, testPath.resolve("out"));
+        Files.write(testPath.resolve("out/test-file.txt"), "content x".getBytes(StandardCharsets.UTF_8));
+        byte[] changed = large.clone();
+        changed[changed.length - 1]++;
+        Files.write(testPath.resolve("out/test-dir/sub/large.bin"), changed);
+
+        extraction.extract(archive, testPath.resolve("out"));
+
+        assertEquals(2, extraction.getExtractedFiles());
+        assertEquals(1, extraction.getUnchangedFiles());
+        assertEquals("content b", read("out/test-file.txt"));
+        assertArrayEquals(large, Files.readAllBytes(testPath.resolve("out/test-dir/sub/large.bin")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void changedFilesAreStagedAndTargetIsNotModified(int threads) throws IOException {
+        new Compression().compress(testPath.resolve("work").toString(), archive,
+                new String[]{"test-dir", "test-file.txt"});
+        Extraction extraction = new Extraction();
+        extraction.setThreads(threads);
+        extraction.extract(archive, testPath.resolve("out"));
+        Files.write(testPath.resolve("out/test-file.txt"), "content x".getBytes(StandardCharsets.UTF_8));
+        byte[] changed = large.clone();
+        changed[changed.length - 1]++;
+        Files.write(testPath.resolve("out/test-dir/sub/large.bin"), changed);
+
+        extraction.extract(Files.newInputStream(archive), testPath.resolve("out"), testPath.resolve("staging"));
+
+        assertEquals(2, extraction.getExtractedFiles());
+        assertEquals(1, extraction.getUnchangedFiles());
+        assertEquals("content x", read("out/test-file.txt"));
+        assertArrayEquals(changed, Files.readAllBytes(testPath.resolve("out/test-dir/sub/large.bin")));
+        assertEquals("content b", read("staging/test-file.txt"));
+        assertArrayEquals(large, Files.readAllBytes(testPath.resolve("staging/test-dir/sub/large.bin")));
+        assertFalse(Files.exists(testPath.resolve("staging/test-dir/sub/a.txt")));
+    }
+
+    @Test
+    void entriesOutsideTargetDirectoryAreRejected() throws IOException {
+        try (OutputStream out = Files.newOutputStream(archive);
+             TarArchiveOutputStream tarOut = new TarArchiveOutputStream(out)) {
+            byte[] content = "escaped".getBytes(StandardCharsets.UTF_8);
+            TarArchiveEntry entry = new TarArchiveEntry("../escaped.txt", true);
+            entry.setSize(content.length);
+            tarOut.putArchiveEntry(entry);
+            tarOut.write(content);
+            tarOut.closeArchiveEntry();
+        }
+
+        assertThrows(IOException.class, () -> new Extraction(new TarCodec()).extract(archive,
+                testPath.resolve("out")));
+        assertFalse(Files.exists(testPath.resolve("escaped.txt")));
+    }
+
+    private String read(String path) throws IOException {
+        return new String(Files.readAllBytes(testPath.resolve(path)), StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteQuietly(testPath.toFile());
+    }
+}
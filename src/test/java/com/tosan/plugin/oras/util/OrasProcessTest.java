@@ -0,0 +1,109 @@
+package com.tosan.plugin.oras.util;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class OrasProcessTest {
+    private Path testPath;
+    private Log log;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        assumeFalse(SystemUtils.IS_OS_WINDOWS);
+        testPath = Files.createTempDirectory("test").toAbsolutePath();
+        log = mock(Log.class);
+    }
+
+    @Test
+    void argumentsStdinProgressAndJsonArePassedAndParsed() throws IOException {
+        Path oras = script("read password\n"
+                + "echo \"Uploading 2e6d42e2b3b0 my file.txt\"\n"
+                + "echo \"Uploaded  2e6d42e2b3b0 my file.txt\"\n"
+                + "echo \"Exists    9f86d081884c other.txt\"\n"
+                + "echo '{'\n"
+                + "echo \"  \\\"digest\\\": \\\"sha256:abc\\\", \\\"args\\\": \\\"$2\\\", \\\"password\\\": \\\"$password\\\"\"\n"
+                + "echo '}'\n");
+
+        OrasProcess.Result result = new OrasProcess(oras, log)
+                .run(Arrays.asList("push", "with space"), "secret\n");
+
+        assertEquals(0, result.getExitCode());
+        assertEquals(3, result.getProgress().size());
+        assertEquals(new OrasProcess.Progress("Uploaded", "2e6d42e2b3b0", "my file.txt",
+                result.getProgress().get(1).getMillis()), result.getProgress().get(1));
+        assertEquals("Exists", result.getProgress().get(2).getStatus());
+        assertEquals("sha256:abc", result.getJson().get("digest").getAsString());
+        assertEquals("with space", result.getJson().get("args").getAsString());
+        assertEquals("secret", result.getJson().get("password").getAsString());
+    }
+
+    @Test
+    void failureKeepsLastErrorLines() throws IOException {
+        Path oras = script("echo 'first error' >&2\necho 'Error: unauthorized' >&2\nexit 3\n");
+
+        OrasProcess.Result result = new OrasProcess(oras, log).run(Collections.singletonList("login"), null);
+
+        assertEquals(3, result.getExitCode());
+        assertEquals(Arrays.asList("first error", "Error: unauthorized"), result.getErrorLines());
+        verify(log).error("Error: unauthorized");
+    }
+
+    @Test
+    void outputIsForwardedAtBoundedRate() throws IOException {
+        Path oras = script("i=0\nwhile [ $i -lt 500 ]; do echo \"line $i\"; i=$((i+1)); done\n");
+        OrasProcess process = new OrasProcess(oras, log);
+        process.setMaxLinesPerSecond(10);
+
+        OrasProcess.Result result = process.run(Collections.emptyList(), null);
+
+        assertTrue(result.getSuppressedLines() >= 400, "suppressed " + result.getSuppressedLines());
+        verify(log, atMost(500 - result.getSuppressedLines() + 1)).info(anyString());
+        verify(log).info("Suppressed " + result.getSuppressedLines() + " lines of oras output");
+    }
+
+    @Test
+    void executableIsFoundInPathAndCached() throws IOException {
+        Path oras = script("exit 0\n");
+        String[] path = {testPath.resolve("missing").toString(), testPath.toString()};
+
+        assertEquals(oras, OrasProcess.findInPath("oras", path));
+        assertEquals(oras, OrasProcess.findInPath("oras", path));
+        assertNull(OrasProcess.findInPath("oras", new String[]{testPath.resolve("missing").toString()}));
+    }
+
+    private Path script(String body) throws IOException {
+        Path oras = testPath.resolve("oras");
+        Files.write(oras, ("#!/bin/sh\n" + body).getBytes(StandardCharsets.UTF_8));
+        if (!oras.toFile().setExecutable(true)) {
+            throw new IOException("Unable to make " + oras + " executable");
+        }
+        return oras;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (testPath != null) {
+            deleteQuietly(testPath.toFile());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.tosan.plugin.oras.util;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ParallelGzipOutputStreamTest {
+    private static final int BLOCK_SIZE = 32 * 1024;
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, 10 * BLOCK_SIZE + 17})
+    void outputIsReadableByStandardGzip(int length) throws IOException {
+        byte[] content = sampleContent(length);
+
+        assertArrayEquals(content, gunzip(parallelGzip(content, 4)));
+    }
+
+    @Test
+    void singleThreadProducesSameContent() throws IOException {
+        byte[] content = sampleContent(5 * BLOCK_SIZE);
+
+        assertArrayEquals(content, gunzip(parallelGzip(content, 1)));
+    }
+
+    private byte[] parallelGzip(byte[] content, int threads) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzOut = new ParallelGzipOutputStream(compressed, Deflater.DEFAULT_COMPRESSION,
+                threads, BLOCK_SIZE)) {
+            // mix single byte and bulk writes
+            int half = content.length / 2;
+            for (int i = 0; i < Math.min(half, 100); i++) {
+                gzOut.write(content[i]);
+            }
+            int written = Math.min(half, 100);
+            gzOut.write(content, written, content.length - written);
+        }
+        return compressed.toByteArray();
+    }
+
+    private byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private byte[] sampleContent(int length) {
+        byte[] content = new byte[length];
+        Random random = new Random(length);
+        byte[] text = "oras maven plugin compresses artifacts ".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < length; i++) {
+            // alternate compressible and random regions so blocks use both the dictionary and literals
+            content[i] = (i / 4096) % 2 == 0 ? text[i % text.length] : (byte) random.nextInt();
+        }
+        return content;
+    }
+}
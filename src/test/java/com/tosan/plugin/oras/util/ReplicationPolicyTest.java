@@ -0,0 +1,35 @@
+package com.tosan.plugin.oras.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Saeed Hashemi
+ * @since 18/10/2026
+ */
+public class ReplicationPolicyTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "all, 3, 3, true",
+            "all, 2, 3, false",
+            "any, 1, 3, true",
+            "any, 0, 3, false",
+            "quorum, 2, 3, true",
+            "quorum, 1, 3, false",
+            "quorum, 2, 4, false",
+            "quorum, 3, 4, true"
+    })
+    void policyDecidesOnSucceededRegistries(String policy, int succeeded, int targets, boolean satisfied) {
+        assertEquals(satisfied, ReplicationPolicy.forName(policy).isSatisfied(succeeded, targets));
+    }
+
+    @Test
+    void unknownPolicyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ReplicationPolicy.forName("most"));
+    }
+}